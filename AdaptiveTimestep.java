@@ -0,0 +1,128 @@
+/**
+ * Control del paso de tiempo del motor.
+ *
+ * Cada paso del motor avanza timeStep unidades de tiempo simulado; 1.0 es
+ * un tic del temporizador, lo que avanzaba la simulación original. Para no
+ * saltarse ningún evento, en un subpaso ninguna partícula puede recorrer
+ * más que el límite de desplazamiento: la ventana de puerta más estrecha o
+ * el radio del agujero más pequeño (una partícula que salta por encima de
+ * la ventana nunca es medida, y una que salta por encima de un agujero no
+ * es absorbida). Cada partícula divide el paso según su propia rapidez, en
+ * ceil(v·dt / límite) subpasos: las lentas dan uno solo y solo las rápidas
+ * se subdividen, sin arrastrar al resto del gas.
+ *
+ * Los subpasos de una partícula no pasan de maxSubsteps. Una partícula que
+ * necesitaría más puede saltarse un evento; el motor cuenta cuántas se
+ * recortaron en cada paso (SimulationEngine.getLastClampedParticles).
+ *
+ * En modo automático, dt no es fijo: se elige el mayor paso que cumple el
+ * límite con la rapidez máxima del paso anterior, sin pasar de maxTimeStep.
+ */
+public class AdaptiveTimestep {
+    public static final int DEFAULT_MAX_SUBSTEPS = 64;
+
+    private boolean enabled = true;
+    private double timeStep = 1.0;
+    private boolean automatic = false;
+    private double maxTimeStep = 4.0;
+    private double safetyFactor = 1.0; // Fracción del límite que puede recorrerse en un subpaso
+    private int maxSubsteps = DEFAULT_MAX_SUBSTEPS;
+
+    // Tiempo simulado que avanza el próximo paso
+    public double chooseTimeStep(double maxSpeed, double displacementLimit) {
+        if (!enabled || !automatic) {
+            return timeStep;
+        }
+        return Math.min(maxTimeStep, stableTimeStep(maxSpeed, displacementLimit));
+    }
+
+    // Mayor dt que mantiene el desplazamiento por debajo del límite
+    public double stableTimeStep(double maxSpeed, double displacementLimit) {
+        if (maxSpeed <= 0.0 || Double.isInfinite(displacementLimit)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return safetyFactor * displacementLimit / maxSpeed;
+    }
+
+    // Subpasos en que se divide un paso de duración dt a esta rapidez, como mucho maxSubsteps
+    public int substeps(double speed, double dt, double displacementLimit) {
+        return (int) Math.min(maxSubsteps, requiredSubsteps(speed, dt, displacementLimit));
+    }
+
+    // Subpasos que harían falta para no saltarse ningún evento, sin el tope de maxSubsteps
+    public double requiredSubsteps(double speed, double dt, double displacementLimit) {
+        if (!enabled || speed <= 0.0 || Double.isInfinite(displacementLimit)) {
+            return 1;
+        }
+        return Math.max(1, Math.ceil(speed * dt / (safetyFactor * displacementLimit)));
+    }
+
+    // Rapidez hasta la que basta un solo subpaso (para comparar con la rapidez al cuadrado sin raíces)
+    public double singleStepSpeed(double dt, double displacementLimit) {
+        if (!enabled || Double.isInfinite(displacementLimit)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return safetyFactor * displacementLimit / dt;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Sin control adaptativo cada paso es un solo avance de timeStep, como en la simulación original
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getTimeStep() {
+        return timeStep;
+    }
+
+    public void setTimeStep(double timeStep) {
+        if (!(timeStep > 0.0)) {
+            throw new IllegalArgumentException("El paso de tiempo debe ser positivo: " + timeStep);
+        }
+        this.timeStep = timeStep;
+    }
+
+    public boolean isAutomatic() {
+        return automatic;
+    }
+
+    public void setAutomatic(boolean automatic) {
+        this.automatic = automatic;
+    }
+
+    public double getMaxTimeStep() {
+        return maxTimeStep;
+    }
+
+    public void setMaxTimeStep(double maxTimeStep) {
+        if (!(maxTimeStep > 0.0)) {
+            throw new IllegalArgumentException("El paso máximo debe ser positivo: " + maxTimeStep);
+        }
+        this.maxTimeStep = maxTimeStep;
+    }
+
+    public double getSafetyFactor() {
+        return safetyFactor;
+    }
+
+    public void setSafetyFactor(double safetyFactor) {
+        if (!(safetyFactor > 0.0 && safetyFactor <= 1.0)) {
+            throw new IllegalArgumentException("El factor de seguridad debe estar en (0, 1]: " + safetyFactor);
+        }
+        this.safetyFactor = safetyFactor;
+    }
+
+    public int getMaxSubsteps() {
+        return maxSubsteps;
+    }
+
+    public void setMaxSubsteps(int maxSubsteps) {
+        if (maxSubsteps < 1) {
+            throw new IllegalArgumentException("El número máximo de subpasos debe ser positivo");
+        }
+        this.maxSubsteps = maxSubsteps;
+    }
+}
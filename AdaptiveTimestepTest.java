@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del paso de tiempo adaptativo.
+ */
+public class AdaptiveTimestepTest {
+
+    @Test
+    public void testSubstepsFollowMaximumSpeed() {
+        AdaptiveTimestep timestep = new AdaptiveTimestep();
+        assertEquals(1, timestep.substeps(10.0, 1.0, 15.0));
+        assertEquals(6, timestep.substeps(90.0, 1.0, 15.0));
+        assertEquals(1, timestep.substeps(90.0, 1.0, Double.POSITIVE_INFINITY));
+        assertEquals(AdaptiveTimestep.DEFAULT_MAX_SUBSTEPS, timestep.substeps(1e9, 1.0, 15.0));
+        assertTrue(timestep.requiredSubsteps(1e9, 1.0, 15.0) > AdaptiveTimestep.DEFAULT_MAX_SUBSTEPS);
+        assertEquals(15.0, timestep.singleStepSpeed(1.0, 15.0), 0.0);
+
+        // En modo automático el gas lento avanza con pasos grandes, acotados por maxTimeStep
+        timestep.setAutomatic(true);
+        assertEquals(1.5, timestep.chooseTimeStep(10.0, 15.0), 1e-12);
+        assertEquals(timestep.getMaxTimeStep(), timestep.chooseTimeStep(1.0, 15.0), 0.0);
+    }
+
+    @Test
+    public void testFastParticleDoesNotSkipOverHole() {
+        assertTrue(absorbedCrossing(true), "Con subpasos la partícula debe caer en el agujero");
+        assertFalse(absorbedCrossing(false), "Sin subpasos la partícula salta por encima del agujero");
+    }
+
+    @Test
+    public void testOnlyFastParticlesAreSubsteppedAndClampingIsReported() {
+        SimulationEngine engine = new SimulationEngine(50, 50, 700, 500, 2, 1, 8L);
+        engine.addHole(600, 400);
+        engine.fillRegion(60, 60, 300, 300, 500, false);
+        engine.step();
+        assertEquals(1, engine.getLastSubsteps(), "El gas lento avanza en un solo subpaso");
+
+        Particle fast = engine.addParticle(100, 300, false);
+        fast.setVelocity(90, 0);
+        engine.step();
+        assertEquals(6, engine.getLastSubsteps());
+        assertEquals(0, engine.getLastClampedParticles());
+
+        // Por encima del máximo de subpasos la partícula se recorta y el motor lo informa
+        engine.getTimestep().setMaxSubsteps(4);
+        fast.setVelocity(-90, 0);
+        engine.step();
+        assertEquals(4, engine.getLastSubsteps());
+        assertEquals(1, engine.getLastClampedParticles());
+    }
+
+    // Lanzar una partícula a 90 px por paso hacia un agujero de radio 15 y ver si la absorbe
+    private boolean absorbedCrossing(boolean adaptive) {
+        SimulationEngine engine = new SimulationEngine(50, 50, 700, 500, 2, 1, 7L);
+        engine.getTimestep().setEnabled(adaptive);
+        engine.addHole(305, 300);
+        Particle p = engine.addParticle(100, 300, false);
+        p.setVelocity(90, 0);
+        for (int i = 0; i < 3; i++) {
+            engine.step();
+        }
+        return !engine.getChambers().get(0).contains(p);
+    }
+}
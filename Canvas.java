@@ -1,6 +1,7 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 
 public class Canvas extends JPanel {
@@ -9,7 +10,6 @@ public class Canvas extends JPanel {
     // Referencias a figuras que pertenecen al canvas
     private Rectangle containerRect;
     private ArrayList<Circle> particleShapes = new ArrayList<>();
-    private ArrayList<Triangle> demonTriangles = new ArrayList<>();
     
     // Variables para la paleta de colores
     private boolean showColorPalette = false;
@@ -20,6 +20,14 @@ public class Canvas extends JPanel {
     private final int PALETTE_MARGIN = 5;
     private boolean selectingFastColor = true; // true = seleccionar color para partículas rápidas, false = lentas
     
+    // Rectángulo de selección de las operaciones por región (null = sin selección)
+    private Rectangle selection;
+    
+    // Contenedores con al menos esta área (en píxeles) se dibujan por mosaicos en paralelo
+    private static final long TILED_RENDER_MIN_AREA = 2000L * 2000L;
+    private final TileRenderer tileRenderer = new TileRenderer();
+    private BufferedImage sceneImage; // Se reutiliza mientras no cambie el área visible
+    
     public Canvas(MaxwellContainer container) {
         this.container = container;
         setBackground(Color.WHITE);
@@ -114,43 +122,55 @@ public class Canvas extends JPanel {
         int topMargin = container.getTopMargin();
         int containerWidth = container.getContainerWidth();
         int containerHeight = container.getContainerHeight();
-        double speedThreshold = container.getSpeedThreshold();
-        
-        // Dibujar el contenedor (rectángulo)
-        g.setColor(Color.BLACK);
-        containerRect.draw(g);
         
-        // Dibujar línea divisoria
-        int dividerX = leftMargin + containerWidth / 2;
-        g.drawLine(dividerX, topMargin, dividerX, topMargin + containerHeight);
-        
-        // Dibujar agujeros negros
-        ArrayList<Hole> blackHoles = container.getBlackHoles();
-        for (Hole bh : blackHoles) {
-            bh.draw(g);
+        // Todo lo que se muestra sale de la última instantánea publicada por el motor, que
+        // es coherente y no cambia mientras se dibuja; durante un avance rápido el motor
+        // avanza en otro hilo y se sigue viendo su última instantánea
+        // (no hay ninguna mientras el simulador estuvo oculto y el motor aún no publicó otra)
+        try (SimulationSnapshot snapshot = container.acquireSnapshot()) {
+            if (snapshot != null) {
+                paintSnapshot(g, snapshot, leftMargin, topMargin, containerWidth, containerHeight);
+            }
         }
         
-        // Dibujar demonios
-        ArrayList<Demon> demons = container.getDemons();
-        for (int i = 0; i < demons.size(); i++) {
-            Demon demon = demons.get(i);
-            demon.draw(g, i + 1, this);
+        // Dibujar el rectángulo de selección con línea discontinua
+        if (selection != null) {
+            Graphics2D g2 = (Graphics2D) g;
+            Stroke originalStroke = g2.getStroke();
+            g2.setColor(new Color(0, 120, 215));
+            g2.setStroke(new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10, new float[]{4, 4}, 0));
+            selection.draw(g2);
+            g2.setStroke(originalStroke);
         }
         
-        // Dibujar moléculas en la cámara izquierda con sus colores propios
-        ArrayList<Particle> leftChamber = container.getLeftChamber();
-        for (Particle molecule : leftChamber) {
-            molecule.draw(g);
+        // Dibujar paleta de colores si está visible
+        if (showColorPalette) {
+            drawColorPalette(g);
         }
-        
-        // Dibujar moléculas en la cámara derecha con sus colores propios
-        ArrayList<Particle> rightChamber = container.getRightChamber();
-        for (Particle molecule : rightChamber) {
-            molecule.draw(g);
+    }
+    
+    // Escena, mensaje de estado y contadores de una instantánea
+    private void paintSnapshot(Graphics g, SimulationSnapshot snapshot, int leftMargin, int topMargin,
+                               int containerWidth, int containerHeight) {
+        // Dibujar la escena: contenedor, paredes, agujeros negros, demonios y moléculas
+        // (el color de cada molécula sale de su bit rápido/lento)
+        Color fastColor = container.getFastParticleColor();
+        Color slowColor = container.getSlowParticleColor();
+        if ((long) containerWidth * containerHeight >= TILED_RENDER_MIN_AREA) {
+            // Solo el área visible, por mosaicos en paralelo sobre una imagen reutilizada
+            java.awt.Rectangle clip = g.getClipBounds();
+            if (clip == null) {
+                clip = new java.awt.Rectangle(0, 0, getWidth(), getHeight());
+            }
+            sceneImage = TileRenderer.ensureImage(sceneImage, clip.width, clip.height);
+            tileRenderer.render(sceneImage, clip.x, clip.y, snapshot, fastColor, slowColor);
+            g.drawImage(sceneImage, clip.x, clip.y, null);
+        } else {
+            SceneRenderer.drawScene(g, snapshot, fastColor, slowColor);
         }
         
         // Mostrar mensaje de estado actual
-        String statusMessage = container.getStatusMessage();
+        String statusMessage = container.isFastForwarding() ? "Fast-forwarding..." : container.getStatusMessage();
         if (!statusMessage.isEmpty()) {
             g.setColor(Color.DARK_GRAY);
             g.setFont(new Font("Arial", Font.BOLD, 14));
@@ -167,22 +187,25 @@ public class Canvas extends JPanel {
         g.setColor(Color.BLACK);
         g.setFont(new Font("Arial", Font.BOLD, 14));
         
-        int leftCount = leftChamber.size();
-        int rightCount = rightChamber.size();
-        int redCount = container.countRedMolecules();
-        int blueCount = container.countBlueMolecules();
+        // Los conteos son las métricas de la misma instantánea, sin recorrer las partículas
+        SimulationMetrics metrics = snapshot.getMetrics();
+        int redCount = metrics.getFastCount();
+        int blueCount = metrics.getSlowCount();
         
-        g.drawString(String.format("Left: %d | Right: %d | Fast: %d | Slow: %d | Demons: %d | Black Holes: %d", 
-                     leftCount, rightCount, redCount, blueCount, demons.size(), blackHoles.size()), 
-                     leftMargin, topMargin + containerHeight + 35);
+        if (metrics.getChamberCount() == 2) {
+            g.drawString(String.format("Left: %d | Right: %d | Fast: %d | Slow: %d | Demons: %d | Black Holes: %d", 
+                         metrics.getLeftCount(), metrics.getRightCount(), redCount, blueCount,
+                         snapshot.getDemonCount(), snapshot.getHoleCount()), 
+                         leftMargin, topMargin + containerHeight + 35);
+        } else {
+            g.drawString(String.format("Chambers: %d | Particles: %d | Fast: %d | Slow: %d | Demons: %d | Black Holes: %d", 
+                         metrics.getChamberCount(), metrics.getParticleCount(), redCount, blueCount,
+                         snapshot.getDemonCount(), snapshot.getHoleCount()), 
+                         leftMargin, topMargin + containerHeight + 35);
+        }
                      
         // Dibujar leyenda de colores de partículas
         drawParticleTypeLegend(g, leftMargin, topMargin + containerHeight + 55);
-        
-        // Dibujar paleta de colores si está visible
-        if (showColorPalette) {
-            drawColorPalette(g);
-        }
     }
     
     // Método para dibujar la leyenda de tipos de partículas
@@ -266,37 +289,23 @@ public class Canvas extends JPanel {
         repaint();
     }
     
-    // Método para crear un triángulo para un demonio 
-    public Triangle createDemonTriangle(int centerX, int posY, boolean isLeftSide) {
-        int triangleSize = 20;
-        int[] xPoints;
-        int[] yPoints;
-        
-        if (isLeftSide) {
-            // Triángulo izquierdo (apunta a la derecha)
-            xPoints = new int[]{centerX - 15, centerX - 15, centerX - 5};
-            yPoints = new int[]{posY - triangleSize, posY + triangleSize, posY};
-        } else {
-            // Triángulo derecho (apunta a la izquierda)
-            xPoints = new int[]{centerX + 15, centerX + 15, centerX + 5};
-            yPoints = new int[]{posY - triangleSize, posY + triangleSize, posY};
-        }
-        
-        Triangle triangle = new Triangle(xPoints, yPoints);
-        return triangle;
-    }
-    
     // Método para obtener el rectángulo del contenedor
     public Rectangle getContainerRect() {
         return containerRect;
     }
     
-    // Método para convertir una partícula en un objeto Circle para dibujar
+    // Método para convertir una partícula en un objeto Circle para dibujar (mismo centro)
     public Circle particleToCircle(Particle p, Color color) {
-        Circle circle = new Circle(p.getX() + p.getRadius(), p.getY() + p.getRadius(), p.getRadius());
+        Circle circle = new Circle(p.getX(), p.getY(), p.getRadius());
         return circle;
     }
     
+    // Mostrar u ocultar (null) el rectángulo de selección
+    public void setSelection(Rectangle selection) {
+        this.selection = selection;
+        repaint();
+    }
+    
     // Métodos para la paleta de colores
     public void showColorPalette(boolean isFastColor) {
         showColorPalette = true;
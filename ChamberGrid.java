@@ -0,0 +1,173 @@
+/**
+ * Geometría de un contenedor dividido en columnas x filas cámaras.
+ *
+ * Las cámaras se numeran por filas: índice = fila * columnas + columna.
+ * Los límites de cada cámara se precalculan en arreglos de enteros para que
+ * el bucle de la simulación los consulte en O(1) por partícula.
+ */
+public class ChamberGrid {
+    // Tamaño mínimo de una cámara (en píxeles) para que quepan partículas y puertas
+    public static final int MIN_CHAMBER_SIZE = 40;
+
+    private final int left, top, width, height;
+    private final int columns, rows;
+    private final int[] wallX; // columns + 1 posiciones de paredes verticales
+    private final int[] wallY; // rows + 1 posiciones de paredes horizontales
+
+    public ChamberGrid(int left, int top, int width, int height, int columns, int rows) {
+        if (columns < 1 || rows < 1 || columns * rows > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Número de cámaras inválido: " + columns + "x" + rows);
+        }
+        this.left = left;
+        this.top = top;
+        this.width = width;
+        this.height = height;
+        this.columns = columns;
+        this.rows = rows;
+
+        wallX = new int[columns + 1];
+        for (int c = 0; c <= columns; c++) {
+            wallX[c] = left + c * width / columns;
+        }
+        wallY = new int[rows + 1];
+        for (int r = 0; r <= rows; r++) {
+            wallY[r] = top + r * height / rows;
+        }
+    }
+
+    // Columnas que caben en el ancho dado respetando el tamaño mínimo de cámara
+    public static int clampColumns(int columns, int width) {
+        return Math.max(1, Math.min(columns, width / MIN_CHAMBER_SIZE));
+    }
+
+    // Filas que caben en el alto dado respetando el tamaño mínimo de cámara
+    public static int clampRows(int rows, int height) {
+        return Math.max(1, Math.min(rows, height / MIN_CHAMBER_SIZE));
+    }
+
+    public int getChamberCount() {
+        return columns * rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int columnOf(int chamber) {
+        return chamber % columns;
+    }
+
+    public int rowOf(int chamber) {
+        return chamber / columns;
+    }
+
+    // Índice de la cámara que contiene el punto (los puntos fuera se asignan a la cámara más cercana)
+    public int chamberAt(double x, double y) {
+        int col = (int) ((x - left) * columns / width);
+        int row = (int) ((y - top) * rows / height);
+        col = Math.max(0, Math.min(columns - 1, col));
+        row = Math.max(0, Math.min(rows - 1, row));
+        // Corregir el redondeo de la división entera en las paredes
+        if (col + 1 < columns && x >= wallX[col + 1]) col++;
+        if (col > 0 && x < wallX[col]) col--;
+        if (row + 1 < rows && y >= wallY[row + 1]) row++;
+        if (row > 0 && y < wallY[row]) row--;
+        return row * columns + col;
+    }
+
+    // Límites de una cámara
+    public int getMinX(int chamber) {
+        return wallX[columnOf(chamber)];
+    }
+
+    public int getMaxX(int chamber) {
+        return wallX[columnOf(chamber) + 1];
+    }
+
+    public int getMinY(int chamber) {
+        return wallY[rowOf(chamber)];
+    }
+
+    public int getMaxY(int chamber) {
+        return wallY[rowOf(chamber) + 1];
+    }
+
+    // Rebote en las paredes de la cámara: el centro queda a un radio de cada pared.
+    // Es el mismo para las partículas del motor y las de un almacén (StoreSimulation)
+    public void bounce(Particle p, int chamber) {
+        int r = p.getRadius();
+        int minX = getMinX(chamber) + r;
+        int maxX = getMaxX(chamber) - r;
+        int minY = getMinY(chamber) + r;
+        int maxY = getMaxY(chamber) - r;
+
+        if (p.getX() < minX) {
+            p.setX(minX);
+            p.reverseXVelocity();
+        } else if (p.getX() > maxX) {
+            p.setX(maxX);
+            p.reverseXVelocity();
+        }
+
+        if (p.getY() < minY) {
+            p.setY(minY);
+            p.reverseYVelocity();
+        } else if (p.getY() > maxY) {
+            p.setY(maxY);
+            p.reverseYVelocity();
+        }
+    }
+
+    public void bounce(ParticleStore store, int i, int chamber) {
+        int r = store.getRadius(i);
+        int minX = getMinX(chamber) + r;
+        int maxX = getMaxX(chamber) - r;
+        int minY = getMinY(chamber) + r;
+        int maxY = getMaxY(chamber) - r;
+
+        double x = store.getX(i);
+        if (x < minX) {
+            store.setX(i, minX);
+            store.reverseXVelocity(i);
+        } else if (x > maxX) {
+            store.setX(i, maxX);
+            store.reverseXVelocity(i);
+        }
+
+        double y = store.getY(i);
+        if (y < minY) {
+            store.setY(i, minY);
+            store.reverseYVelocity(i);
+        } else if (y > maxY) {
+            store.setY(i, maxY);
+            store.reverseYVelocity(i);
+        }
+    }
+
+    // Posición de la pared vertical a la izquierda de la columna dada (0..columnas)
+    public int getWallX(int column) {
+        return wallX[column];
+    }
+
+    // Posición de la pared horizontal encima de la fila dada (0..filas)
+    public int getWallY(int row) {
+        return wallY[row];
+    }
+
+    // Número de paredes interiores entre cámaras vecinas
+    public int getInnerWallCount() {
+        return (columns - 1) * rows + columns * (rows - 1);
+    }
+
+    // Verificar si dos cámaras comparten una pared (a a la izquierda o encima de b)
+    public boolean areNeighbors(int low, int high) {
+        if (low < 0 || high >= getChamberCount()) return false;
+        boolean sideBySide = high == low + 1 && rowOf(low) == rowOf(high);
+        boolean stacked = high == low + columns;
+        return sideBySide || stacked;
+    }
+}
@@ -0,0 +1,100 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la geometría de las cámaras.
+ */
+public class ChamberGridTest {
+
+    @Test
+    public void testWallsSplitTheContainerWithoutGaps() {
+        // 700 no es múltiplo de 3: las paredes se redondean hacia abajo
+        ChamberGrid grid = new ChamberGrid(50, 40, 700, 500, 3, 2);
+        assertEquals(6, grid.getChamberCount());
+        assertEquals(50, grid.getWallX(0));
+        assertEquals(283, grid.getWallX(1));
+        assertEquals(516, grid.getWallX(2));
+        assertEquals(750, grid.getWallX(3));
+        assertEquals(290, grid.getWallY(1));
+
+        // Cada cámara empieza donde acaba su vecina
+        for (int c = 0; c < grid.getChamberCount(); c++) {
+            assertEquals(grid.getWallX(grid.columnOf(c)), grid.getMinX(c));
+            assertEquals(grid.getWallY(grid.rowOf(c) + 1), grid.getMaxY(c));
+        }
+        assertEquals(grid.getMaxX(0), grid.getMinX(1));
+        assertEquals(grid.getMaxY(1), grid.getMinY(4));
+        assertEquals(1, grid.columnOf(4));
+        assertEquals(1, grid.rowOf(4));
+    }
+
+    @Test
+    public void testChamberAtOnWallsAndOutside() {
+        ChamberGrid grid = new ChamberGrid(50, 40, 700, 500, 3, 2);
+        assertEquals(0, grid.chamberAt(282.9, 100));
+        assertEquals(1, grid.chamberAt(283, 100), "Un punto sobre la pared pertenece a la cámara de la derecha");
+        assertEquals(4, grid.chamberAt(400, 290));
+        assertEquals(5, grid.chamberAt(749.99, 539.99));
+
+        // Fuera del contenedor: la cámara más cercana
+        assertEquals(0, grid.chamberAt(-100, -100));
+        assertEquals(5, grid.chamberAt(2000, 2000));
+        assertEquals(3, grid.chamberAt(0, 400));
+
+        // Con paredes redondeadas, cada punto cae en la cámara cuyos límites lo contienen
+        for (int x = 50; x < 750; x += 7) {
+            for (int y = 40; y < 540; y += 11) {
+                int c = grid.chamberAt(x, y);
+                assertTrue(x >= grid.getMinX(c) && x < grid.getMaxX(c), "x = " + x);
+                assertTrue(y >= grid.getMinY(c) && y < grid.getMaxY(c), "y = " + y);
+            }
+        }
+    }
+
+    @Test
+    public void testNeighborsAndInnerWalls() {
+        ChamberGrid grid = new ChamberGrid(0, 0, 600, 400, 3, 2);
+        assertEquals(2 * 2 + 3 * 1, grid.getInnerWallCount());
+        assertTrue(grid.areNeighbors(0, 1));
+        assertTrue(grid.areNeighbors(1, 4));
+        assertFalse(grid.areNeighbors(2, 3), "El final de una fila no toca el principio de la siguiente");
+        assertFalse(grid.areNeighbors(1, 0), "low debe estar a la izquierda o encima");
+        assertFalse(grid.areNeighbors(0, 2));
+        assertFalse(grid.areNeighbors(4, 7));
+        assertFalse(grid.areNeighbors(-1, 0));
+
+        assertEquals(1, new ChamberGrid(0, 0, 600, 400, 1, 1).getChamberCount());
+        assertEquals(0, new ChamberGrid(0, 0, 600, 400, 1, 1).getInnerWallCount());
+    }
+
+    @Test
+    public void testBounceKeepsTheCentreOneRadiusFromEveryWall() {
+        ChamberGrid grid = new ChamberGrid(0, 0, 600, 400, 3, 2);
+        Particle low = new Particle(-3, 2, 5, -1, -1, 0);
+        Particle high = new Particle(207, 203, 5, 1, 1, 0);
+        grid.bounce(low, 0);
+        grid.bounce(high, 0);
+        // Mismo margen en los cuatro lados
+        assertEquals(5.0, low.getX(), 0.0);
+        assertEquals(5.0, low.getY(), 0.0);
+        assertEquals(195.0, high.getX(), 0.0);
+        assertEquals(195.0, high.getY(), 0.0);
+        assertTrue(low.getVelocityX() > 0 && low.getVelocityY() > 0);
+        assertTrue(high.getVelocityX() < 0 && high.getVelocityY() < 0);
+
+        OffHeapParticleStore store = OffHeapParticleStore.allocate(1);
+        int i = store.add(high.getX() + 20, high.getY() + 20, 5, 1, 1, 0, 0);
+        grid.bounce(store, i, 0);
+        assertEquals(195.0, store.getX(i), 0.0);
+        assertEquals(195.0, store.getY(i), 0.0);
+    }
+
+    @Test
+    public void testClampingAndLimits() {
+        assertEquals(15, ChamberGrid.clampColumns(20, 600));
+        assertEquals(1, ChamberGrid.clampColumns(0, 600));
+        assertEquals(1, ChamberGrid.clampRows(5, 30));
+        assertThrows(IllegalArgumentException.class, () -> new ChamberGrid(0, 0, 600, 400, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ChamberGrid(0, 0, 600, 400, 200, 200));
+    }
+}
@@ -21,10 +21,9 @@ public class Circle {
         draw(g, Color.BLACK);
     }
     
-    // Método para verificar si un punto está dentro del círculo
+    // Método para verificar si un punto está dentro del círculo (centro en x, y)
     public boolean contains(int pointX, int pointY) {
-        double distance = Math.sqrt(Math.pow(pointX - x, 2) + Math.pow(pointY - y, 2));
-        return distance <= radius;
+        return Geometry.circleContainsPoint(x, y, radius, pointX, pointY);
     }
     
     // Getters y setters
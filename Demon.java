@@ -1,108 +1,416 @@
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Demon {
+    // Identificador con el que el demonio marca las partículas que ya midió (ver Particle.getWindowMark)
+    private static final AtomicInteger nextId = new AtomicInteger();
+    private final int id = nextId.incrementAndGet();
     private int positionX;
     private int positionY;
-    private final int triangleSize = 20;
+    // Pared sobre la que está el demonio: vertical (cámara baja a la izquierda)
+    // u horizontal (cámara baja encima). Las cámaras se identifican por índice.
+    private final boolean horizontal;
+    private final int lowChamber;
+    private final int highChamber;
+    private int triangleSize = 20;
     private Triangle leftTriangle;
     private Triangle rightTriangle;
+    private GatePolicy gatePolicy; // null = regla clásica con el umbral del contenedor
+    private StandardGatePolicy defaultPolicy; // Regla clásica en uso mientras gatePolicy es null
+    // Política en uso, resuelta al fijarla: el tipo final si es una de las comunes y su ventana,
+    // para no consultar la interfaz por cada partícula
+    private GatePolicy activePolicy;
+    private StandardGatePolicy standardPolicy;
+    private int innerWindow = GatePolicy.DEFAULT_INNER_WINDOW;
+    private int outerWindow = GatePolicy.DEFAULT_OUTER_WINDOW;
+    private final Particle gateProbe = new Particle(0, 0, 0, 0, 0, 0); // Para evaluar la política sobre un almacén
+    
+    // Contabilidad energética (unidades de la simulación, masa unitaria)
+    private static final double LN_2 = Math.log(2.0);
+    private double temperature = 1.0; // kT usado para el coste de borrado
+    private long measurements;
+    private long transfersLeftToRight;
+    private long transfersRightToLeft;
+    private double energyMovedToRight;
+    private double energyMovedToLeft;
+    
+    // Separación de los triángulos respecto a la puerta
+    private static final int TRIANGLE_OUTER_OFFSET = 15;
+    private static final int TRIANGLE_INNER_OFFSET = 5;
+    private static final int MIN_TRIANGLE_SIZE = 5;
+    private static final Color TRIANGLE_FILL = new Color(255, 100, 100, 200);
     
     public Demon(int positionX, int positionY) {
+        this(positionX, positionY, false, 0, 1);
+    }
+    
+    public Demon(int positionX, int positionY, boolean horizontal, int lowChamber, int highChamber) {
         this.positionX = positionX;
         this.positionY = positionY;
+        this.horizontal = horizontal;
+        this.lowChamber = lowChamber;
+        this.highChamber = highChamber;
+        // Triángulo del lado bajo (apunta hacia la puerta) y del lado alto
+        leftTriangle = new Triangle(new int[3], new int[3]);
+        rightTriangle = new Triangle(new int[3], new int[3]);
+        updateTriangles();
     }
     
-    public void draw(Graphics g, int demonNumber, Canvas canvas) {
-        int dividerX = positionX;
-        int gateY = positionY;
-        
-        // Crear triángulos usando el método del canvas si no existen
-        if (leftTriangle == null) {
-            leftTriangle = canvas.createDemonTriangle(dividerX, gateY, true);
-        }
-        if (rightTriangle == null) {
-            rightTriangle = canvas.createDemonTriangle(dividerX, gateY, false);
+    // Recolocar los vértices de los triángulos en su sitio sin crear objetos nuevos
+    private void updateTriangles() {
+        placeTriangles(leftTriangle, rightTriangle, positionX, positionY, triangleSize, horizontal);
+    }
+    
+    // Vértices de los triángulos a ambos lados de una puerta, apuntando hacia ella
+    private static void placeTriangles(Triangle low, Triangle high, int gateX, int gateY,
+                                       int triangleSize, boolean horizontal) {
+        if (horizontal) {
+            low.setPoint(0, gateX - triangleSize, gateY - TRIANGLE_OUTER_OFFSET);
+            low.setPoint(1, gateX + triangleSize, gateY - TRIANGLE_OUTER_OFFSET);
+            low.setPoint(2, gateX, gateY - TRIANGLE_INNER_OFFSET);
+            high.setPoint(0, gateX - triangleSize, gateY + TRIANGLE_OUTER_OFFSET);
+            high.setPoint(1, gateX + triangleSize, gateY + TRIANGLE_OUTER_OFFSET);
+            high.setPoint(2, gateX, gateY + TRIANGLE_INNER_OFFSET);
+        } else {
+            low.setPoint(0, gateX - TRIANGLE_OUTER_OFFSET, gateY - triangleSize);
+            low.setPoint(1, gateX - TRIANGLE_OUTER_OFFSET, gateY + triangleSize);
+            low.setPoint(2, gateX - TRIANGLE_INNER_OFFSET, gateY);
+            high.setPoint(0, gateX + TRIANGLE_OUTER_OFFSET, gateY - triangleSize);
+            high.setPoint(1, gateX + TRIANGLE_OUTER_OFFSET, gateY + triangleSize);
+            high.setPoint(2, gateX + TRIANGLE_INNER_OFFSET, gateY);
         }
-        
+    }
+    
+    // Dibuja los triángulos guardados, que se mantienen al mover o redimensionar el demonio
+    public void draw(Graphics g, int demonNumber) {
+        draw(g, leftTriangle, rightTriangle, positionX, positionY, triangleSize, horizontal, demonNumber);
+    }
+    
+    // Dibujar un demonio a partir de sus datos (p. ej. los de una SimulationSnapshot)
+    public static void drawAt(Graphics g, int gateX, int gateY, int triangleSize, boolean horizontal, int demonNumber) {
+        Triangle low = new Triangle(0, 0, 0, 0, 0, 0);
+        Triangle high = new Triangle(0, 0, 0, 0, 0, 0);
+        placeTriangles(low, high, gateX, gateY, triangleSize, horizontal);
+        draw(g, low, high, gateX, gateY, triangleSize, horizontal, demonNumber);
+    }
+    
+    private static void draw(Graphics g, Triangle low, Triangle high, int gateX, int gateY,
+                             int triangleSize, boolean horizontal, int demonNumber) {
         // Dibujar los triángulos rellenos
-        leftTriangle.fill(g, new Color(255, 100, 100, 200));
-        rightTriangle.fill(g, new Color(255, 100, 100, 200));
+        low.fill(g, TRIANGLE_FILL);
+        high.fill(g, TRIANGLE_FILL);
         
         // Dibujar el contorno de los triángulos
         g.setColor(Color.RED);
-        leftTriangle.draw(g);
-        rightTriangle.draw(g);
+        low.draw(g);
+        high.draw(g);
         
         // Dibujar una línea para representar la puerta/sensor
-        g.setColor(Color.RED);
         Graphics2D g2 = (Graphics2D) g;
         g2.setStroke(new BasicStroke(2));
-        g2.drawLine(dividerX, gateY - triangleSize, dividerX, gateY + triangleSize);
+        if (horizontal) {
+            g2.drawLine(gateX - triangleSize, gateY, gateX + triangleSize, gateY);
+        } else {
+            g2.drawLine(gateX, gateY - triangleSize, gateX, gateY + triangleSize);
+        }
         g2.setStroke(new BasicStroke(1));
         
         // Dibujar el número del demonio para identificación
         g.setFont(new Font("Arial", Font.BOLD, 12));
-        g.drawString("D" + demonNumber, dividerX - 20, gateY - triangleSize - 5);
+        if (horizontal) {
+            g.drawString("D" + demonNumber, gateX + triangleSize + 3, gateY - 5);
+        } else {
+            g.drawString("D" + demonNumber, gateX - 20, gateY - triangleSize - 5);
+        }
     }
     
+    /**
+     * Demonios de las paredes de cada cámara, a un lado u otro de la puerta,
+     * para que cada partícula consulte solo los de la suya
+     */
+    public static Demon[][] indexByChamber(List<Demon> demons, int chamberCount) {
+        ArrayList<ArrayList<Demon>> lists = new ArrayList<>();
+        for (int c = 0; c < chamberCount; c++) {
+            lists.add(new ArrayList<>());
+        }
+        for (Demon demon : demons) {
+            lists.get(demon.getLowChamber()).add(demon);
+            if (demon.getHighChamber() != demon.getLowChamber()) {
+                lists.get(demon.getHighChamber()).add(demon);
+            }
+        }
+        Demon[][] byChamber = new Demon[chamberCount][];
+        for (int c = 0; c < chamberCount; c++) {
+            byChamber[c] = lists.get(c).toArray(new Demon[0]);
+        }
+        return byChamber;
+    }
+    
+    /**
+     * Operar la puerta entre las dos cámaras que separa el demonio.
+     * Para un demonio en una pared horizontal, "izquierda" y "derecha" se
+     * refieren a la cámara de arriba y a la de abajo respectivamente.
+     */
     public void operateGate(ArrayList<Particle> leftChamber, ArrayList<Particle> rightChamber, 
                            int leftMargin, int containerWidth, double speedThreshold) {
-        // Definir el área de la puerta para este demonio
-        double gateY1 = positionY - triangleSize;
-        double gateY2 = positionY + triangleSize;
-        int gatePosX = positionX;
+        operateGate(leftChamber, rightChamber, speedThreshold);
+    }
+    
+    public void operateGate(ArrayList<Particle> leftChamber, ArrayList<Particle> rightChamber,
+                            double speedThreshold) {
+        resolvePolicy(speedThreshold);
         
-        // Verificar moléculas cerca de la puerta en la cámara izquierda
+        // Verificar moléculas cerca de la puerta en la cámara izquierda y después en la derecha
         for (int i = leftChamber.size() - 1; i >= 0; i--) {
             Particle m = leftChamber.get(i);
-            
-            // Si la molécula está cerca de la puerta y moviéndose hacia la derecha
-            if (m.getX() > gatePosX - 20 && m.getX() < gatePosX - 5 &&
-                m.getY() > gateY1 && m.getY() < gateY2 && 
-                m.getVelocityX() > 0) {
-                
-                // Solo permitir que las moléculas rápidas (rojas) pasen
-                if (m.getSpeed() >= speedThreshold) {
-                    // Mover molécula a la cámara derecha
-                    m.setX(gatePosX + 5);
-                    rightChamber.add(m);
-                    leftChamber.remove(i);
-                }
+            if (gate(m, true)) {
+                rightChamber.add(m);
+                leftChamber.remove(i);
             }
         }
-        
-        // Verificar moléculas cerca de la puerta en la cámara derecha
         for (int i = rightChamber.size() - 1; i >= 0; i--) {
             Particle m = rightChamber.get(i);
-            
-            // Si la molécula está cerca de la puerta y moviéndose hacia la izquierda
-            if (m.getX() > gatePosX + 5 && m.getX() < gatePosX + 20 &&
-                m.getY() > gateY1 && m.getY() < gateY2 && 
-                m.getVelocityX() < 0) {
-                
-                // Solo permitir que las moléculas lentas (azules) pasen
-                if (m.getSpeed() < speedThreshold) {
-                    // Mover molécula a la cámara izquierda
-                    m.setX(gatePosX - 10);
-                    leftChamber.add(m);
-                    rightChamber.remove(i);
-                }
+            if (gate(m, false)) {
+                leftChamber.add(m);
+                rightChamber.remove(i);
             }
         }
     }
     
+    /**
+     * Medir una sola partícula y, si la política la admite, pasarla al otro lado de la pared (cambia su
+     * posición y su cámara; moverla de lista es cosa de quien llama)
+     * @return true si la partícula cruzó la puerta
+     */
+    public boolean gateParticle(Particle m, double speedThreshold) {
+        int chamber = m.getChamber();
+        if (chamber != lowChamber && chamber != highChamber) {
+            return false;
+        }
+        resolvePolicy(speedThreshold);
+        return gate(m, chamber == lowChamber);
+    }
+    
+    /**
+     * Medir una partícula como venida del lado bajo (fromLow) o del alto, sin
+     * mirar su cámara: para las medias puertas de frontera, cuya otra cámara
+     * está en otro proceso
+     * @return true si la partícula cruzó la puerta
+     */
+    public boolean gateParticle(Particle m, boolean fromLow, double speedThreshold) {
+        resolvePolicy(speedThreshold);
+        return gate(m, fromLow);
+    }
+    
+    /**
+     * Medir una partícula de la cámara baja (fromLow) o de la alta y, si la
+     * política la admite, pasarla al otro lado de la pared.
+     *
+     * Cada entrada en la ventana es una sola medida (una sola decisión y un
+     * solo bit que borrar) aunque una partícula rechazada siga varios
+     * subpasos dentro: al medirla se marca con el id del demonio y la marca
+     * se borra cuando sale de la ventana. Una partícula que ya empieza dentro
+     * (recién creada o llegada de otro proceso) no lleva marca y se mide.
+     * @return true si la partícula cruzó la puerta
+     */
+    private boolean gate(Particle m, boolean fromLow) {
+        if (!inWindow(horizontal ? m.getY() : m.getX(), horizontal ? m.getX() : m.getY(),
+                      horizontal ? m.getVelocityY() : m.getVelocityX(), fromLow)) {
+            if (m.getWindowMark() == id) {
+                m.setWindowMark(0);
+            }
+            return false;
+        }
+        if (m.getWindowMark() == id) {
+            return false;
+        }
+        m.setWindowMark(id);
+        measurements++;
+        if (!admits(m, fromLow)) {
+            return false;
+        }
+        transfer(m, fromLow);
+        recordTransfer(fromLow, kineticEnergy(m));
+        return true;
+    }
+    
+    // La partícula está en la franja de su lado de la puerta y se mueve hacia ella
+    private boolean inWindow(double pos, double side, double velocity, boolean fromLow) {
+        // "gate" es la coordenada de la pared y la abertura va de along - triangleSize a along + triangleSize
+        int along = horizontal ? positionX : positionY;
+        if (side <= along - triangleSize || side >= along + triangleSize) {
+            return false;
+        }
+        int gate = horizontal ? positionY : positionX;
+        return fromLow ? pos > gate - outerWindow && pos < gate - innerWindow && velocity > 0
+                       : pos > gate + innerWindow && pos < gate + outerWindow && velocity < 0;
+    }
+    
+    /**
+     * Operar la puerta sobre un almacén por índices con todas las cámaras.
+     * Recorre el almacén una vez; solo cuentan las partículas de las dos
+     * cámaras del demonio.
+     */
+    public void operateGate(ParticleStore store, double speedThreshold) {
+        for (int i = 0; i < store.size(); i++) {
+            gateParticle(store, i, speedThreshold);
+        }
+    }
+    
+    /**
+     * Medir una sola partícula de un almacén, con la misma marca por entrada
+     * que gate(), y dejarla pasar si la política lo admite. La política se evalúa sobre un
+     * Particle reutilizado, que solo se carga para las partículas que entran
+     * en la ventana.
+     * @return true si la partícula cruzó la puerta
+     */
+    public boolean gateParticle(ParticleStore store, int i, double speedThreshold) {
+        int chamber = store.getChamber(i);
+        if (chamber != lowChamber && chamber != highChamber) {
+            return false;
+        }
+        resolvePolicy(speedThreshold);
+        boolean fromLow = chamber == lowChamber;
+        if (!inWindow(horizontal ? store.getY(i) : store.getX(i), horizontal ? store.getX(i) : store.getY(i),
+                      horizontal ? store.getVelocityY(i) : store.getVelocityX(i), fromLow)) {
+            if (store.getWindowMark(i) == id) {
+                store.setWindowMark(i, 0);
+            }
+            return false;
+        }
+        if (store.getWindowMark(i) == id) {
+            return false;
+        }
+        store.setWindowMark(i, id);
+        measurements++;
+        if (!admits(store.load(i, gateProbe), fromLow)) {
+            return false;
+        }
+        int offset = innerWindow + store.getRadius(i);
+        int gate = horizontal ? positionY : positionX;
+        int position = fromLow ? gate + offset : gate - offset;
+        if (horizontal) {
+            store.setY(i, position);
+        } else {
+            store.setX(i, position);
+        }
+        store.setChamber(i, fromLow ? highChamber : lowChamber);
+        store.setWindowMark(i, 0);
+        recordTransfer(fromLow, 0.5 * store.getSpeedSquared(i));
+        return true;
+    }
+    
+    // Sin política propia, la regla clásica con el umbral dado; solo se recrea si cambia el umbral
+    private void resolvePolicy(double speedThreshold) {
+        if (gatePolicy == null && (defaultPolicy == null || defaultPolicy.getSpeedThreshold() != speedThreshold)) {
+            defaultPolicy = GatePolicy.threshold(speedThreshold);
+            activate(defaultPolicy);
+        }
+    }
+    
+    // Fijar la política en uso y copiar su ventana
+    private void activate(GatePolicy policy) {
+        activePolicy = policy;
+        standardPolicy = policy instanceof StandardGatePolicy ? (StandardGatePolicy) policy : null;
+        innerWindow = policy.getInnerWindow();
+        outerWindow = policy.getOuterWindow();
+    }
+    
+    // Las políticas comunes se evalúan a través del tipo final StandardGatePolicy,
+    // de modo que la llamada dentro del bucle es siempre monomórfica
+    private boolean admits(Particle m, boolean fromLow) {
+        return standardPolicy != null ? standardPolicy.admits(m, fromLow) : activePolicy.admits(m, fromLow);
+    }
+    
+    // Colocar la partícula al otro lado de la pared, a la misma distancia del hueco
+    // en ambos sentidos (ventana interior más su radio), y actualizar su cámara
+    private void transfer(Particle m, boolean fromLow) {
+        int offset = innerWindow + m.getRadius();
+        int gate = horizontal ? positionY : positionX;
+        int position = fromLow ? gate + offset : gate - offset;
+        if (horizontal) {
+            m.setY(position);
+        } else {
+            m.setX(position);
+        }
+        m.setChamber(fromLow ? highChamber : lowChamber);
+        m.setWindowMark(0);
+    }
+    
+    // Energía cinética de una partícula de masa unitaria
+    private static double kineticEnergy(Particle m) {
+        return 0.5 * m.getSpeedSquared();
+    }
+    
+    // Acumular un cruce de la puerta y la energía cinética que lleva la partícula
+    private void recordTransfer(boolean fromLow, double energy) {
+        if (fromLow) {
+            transfersLeftToRight++;
+            energyMovedToRight += energy;
+        } else {
+            transfersRightToLeft++;
+            energyMovedToLeft += energy;
+        }
+    }
+    
+    // Contabilidad energética del demonio
+    public long getMeasurements() {
+        return measurements;
+    }
+    
+    public long getTransfersLeftToRight() {
+        return transfersLeftToRight;
+    }
+    
+    public long getTransfersRightToLeft() {
+        return transfersRightToLeft;
+    }
+    
+    public double getEnergyMovedToRight() {
+        return energyMovedToRight;
+    }
+    
+    public double getEnergyMovedToLeft() {
+        return energyMovedToLeft;
+    }
+    
+    // Coste de Landauer de borrar un bit por cada medida (una por entrada en la ventana): kT ln 2
+    public double getErasureCost() {
+        return measurements * temperature * LN_2;
+    }
+    
+    public double getTemperature() {
+        return temperature;
+    }
+    
+    public void setTemperature(double temperature) {
+        if (temperature < 0.0) {
+            throw new IllegalArgumentException("La temperatura no puede ser negativa");
+        }
+        this.temperature = temperature;
+    }
+    
+    public void resetCounters() {
+        measurements = 0;
+        transfersLeftToRight = 0;
+        transfersRightToLeft = 0;
+        energyMovedToRight = 0.0;
+        energyMovedToLeft = 0.0;
+    }
+    
     // Getters y setters
     public int getPositionX() {
         return positionX;
     }
     
     public void setPositionX(int positionX) {
+        // Desplazar los triángulos en lugar de reconstruirlos
+        int dx = positionX - this.positionX;
         this.positionX = positionX;
-        // Actualizar posición de los triángulos si existen
-        if (leftTriangle != null && rightTriangle != null) {
-            // Actualización pendiente para triangles...
-        }
+        leftTriangle.translate(dx, 0);
+        rightTriangle.translate(dx, 0);
     }
     
     public int getPositionY() {
@@ -110,17 +418,49 @@ public class Demon {
     }
     
     public void setPositionY(int positionY) {
+        int dy = positionY - this.positionY;
         this.positionY = positionY;
-        // Actualizar posición de los triángulos si existen
-        if (leftTriangle != null && rightTriangle != null) {
-            // Actualización pendiente para triangles...
-        }
+        leftTriangle.translate(0, dy);
+        rightTriangle.translate(0, dy);
+    }
+    
+    // Mover el demonio a una nueva posición
+    public void moveTo(int positionX, int positionY) {
+        setPositionX(positionX);
+        setPositionY(positionY);
     }
     
     public int getTriangleSize() {
         return triangleSize;
     }
     
+    // Cambiar el tamaño del demonio; también cambia la altura de la puerta
+    public void setTriangleSize(int triangleSize) {
+        this.triangleSize = Math.max(MIN_TRIANGLE_SIZE, triangleSize);
+        updateTriangles();
+    }
+    
+    // Verificar si un punto cae sobre el demonio (caja que envuelve ambos triángulos)
+    public boolean contains(int x, int y) {
+        if (horizontal) {
+            return Math.abs(x - positionX) <= triangleSize && Math.abs(y - positionY) <= TRIANGLE_OUTER_OFFSET;
+        }
+        return Math.abs(x - positionX) <= TRIANGLE_OUTER_OFFSET && Math.abs(y - positionY) <= triangleSize;
+    }
+    
+    // Pared y cámaras que separa el demonio
+    public boolean isHorizontal() {
+        return horizontal;
+    }
+    
+    public int getLowChamber() {
+        return lowChamber;
+    }
+    
+    public int getHighChamber() {
+        return highChamber;
+    }
+    
     public Triangle getLeftTriangle() {
         return leftTriangle;
     }
@@ -128,4 +468,28 @@ public class Demon {
     public Triangle getRightTriangle() {
         return rightTriangle;
     }
+    
+    // Anchura de la franja donde el demonio mide partículas (ventana exterior menos interior)
+    public int getGateWindowWidth() {
+        return outerWindow - innerWindow;
+    }
+    
+    public GatePolicy getGatePolicy() {
+        return gatePolicy;
+    }
+    
+    // La ventana de la política se lee aquí, una vez
+    public void setGatePolicy(GatePolicy gatePolicy) {
+        this.gatePolicy = gatePolicy;
+        if (gatePolicy != null) {
+            activate(gatePolicy);
+        } else if (defaultPolicy != null) {
+            activate(defaultPolicy);
+        } else {
+            activePolicy = null;
+            standardPolicy = null;
+            innerWindow = GatePolicy.DEFAULT_INNER_WINDOW;
+            outerWindow = GatePolicy.DEFAULT_OUTER_WINDOW;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+/**
+ * Pruebas de la contabilidad energética del demonio.
+ */
+public class DemonTest {
+
+    private Demon demon;
+    private ArrayList<Particle> left;
+    private ArrayList<Particle> right;
+
+    @BeforeEach
+    public void setUp() {
+        // Pared vertical en x = 200; ventana de medida 180-195 a la izquierda y 205-220 a la derecha
+        demon = new Demon(200, 100, false, 0, 1);
+        left = new ArrayList<>();
+        right = new ArrayList<>();
+    }
+
+    private void operate() {
+        demon.operateGate(left, right, Particle.FAST_SPEED_THRESHOLD);
+    }
+
+    @Test
+    public void testRejectedParticleIsMeasuredOncePerEntry() {
+        Particle slow = new Particle(181, 100, 5, 2, 0, 0);
+        left.add(slow);
+        operate();
+        assertEquals(1, demon.getMeasurements());
+
+        // Sigue en la ventana los subpasos siguientes: ni se vuelve a medir ni cuesta otro borrado
+        for (int i = 0; i < 4; i++) {
+            slow.move(1.0);
+            operate();
+        }
+        assertTrue(left.contains(slow));
+        assertEquals(1, demon.getMeasurements());
+        assertEquals(Math.log(2.0), demon.getErasureCost(), 1e-12);
+    }
+
+    @Test
+    public void testMembershipIsTrackedPerParticle() {
+        // Ya empieza dentro de la ventana (recién creada): se mide en el primer subpaso
+        Particle slow = new Particle(194, 100, 5, 2, 0, 0);
+        left.add(slow);
+        operate();
+        assertEquals(1, demon.getMeasurements());
+
+        // Sale de la ventana (la pared la rebota y se aleja) y vuelve a entrar: otra medida
+        slow.setX(194);
+        slow.reverseXVelocity();
+        operate();
+        slow.setX(170);
+        slow.reverseXVelocity();
+        operate();
+        slow.setX(182);
+        operate();
+        operate();
+        assertEquals(2, demon.getMeasurements());
+
+        // Un salto que nunca pasa por fuera de la ventana sigue siendo la misma entrada
+        Particle fastJump = new Particle(181, 100, 5, 13, 0, 0);
+        fastJump.setVelocity(0.5, 0);
+        left.add(fastJump);
+        operate();
+        fastJump.setX(194);
+        operate();
+        assertEquals(3, demon.getMeasurements());
+        assertTrue(left.contains(slow) && left.contains(fastJump));
+
+        // El marcado es por demonio: otro demonio sobre la misma pared la mide por su cuenta
+        Demon other = new Demon(200, 100, false, 0, 1);
+        other.operateGate(left, right, Particle.FAST_SPEED_THRESHOLD);
+        assertEquals(2, other.getMeasurements());
+    }
+
+    @Test
+    public void testTransfersCarryTheirKineticEnergy() {
+        Particle fast = new Particle(186, 100, 5, 6, 8, 0);   // Rapidez 10: pasa a la derecha
+        Particle slow = new Particle(218, 100, 5, -2, 0, 0);  // Rapidez 2: pasa a la izquierda
+        slow.setChamber(1);
+        Particle leaving = new Particle(190, 100, 5, -3, 0, 0); // Se aleja de la puerta: no se mide
+        left.add(fast);
+        left.add(leaving);
+        right.add(slow);
+        demon.setTemperature(2.0);
+        operate();
+
+        assertEquals(2, demon.getMeasurements());
+        assertEquals(1, demon.getTransfersLeftToRight());
+        assertEquals(1, demon.getTransfersRightToLeft());
+        assertEquals(50.0, demon.getEnergyMovedToRight(), 1e-12);
+        assertEquals(2.0, demon.getEnergyMovedToLeft(), 1e-12);
+        assertEquals(2 * 2.0 * Math.log(2.0), demon.getErasureCost(), 1e-12);
+        assertTrue(right.contains(fast) && left.contains(slow) && left.contains(leaving));
+
+        demon.resetCounters();
+        assertEquals(0, demon.getMeasurements());
+        assertEquals(0.0, demon.getErasureCost(), 0.0);
+    }
+
+    @Test
+    public void testTransfersLandAtTheSameDistanceOnBothSides() {
+        Particle fast = new Particle(190, 100, 5, 10, 0, 0);
+        Particle slow = new Particle(219, 100, 5, -2, 0, 0);
+        slow.setChamber(1);
+        left.add(fast);
+        right.add(slow);
+        operate();
+
+        // Ventana interior (5) más el radio (5) a cada lado de x = 200
+        assertEquals(210.0, fast.getX(), 0.0);
+        assertEquals(190.0, slow.getX(), 0.0);
+        assertEquals(1, fast.getChamber());
+        assertEquals(0, slow.getChamber());
+    }
+
+    @Test
+    public void testEngineMetricsSumTheDemonCounters() {
+        SimulationEngine engine = new SimulationEngine(50, 50, 700, 500, 2, 1, 27L);
+        engine.reset();
+        for (int i = 0; i < 300; i++) {
+            engine.step();
+        }
+        Demon d = engine.getDemons().get(0);
+        SimulationMetrics metrics = engine.getMetrics();
+        assertTrue(d.getMeasurements() > 0);
+        assertEquals(d.getMeasurements(), metrics.getMeasurements());
+        assertEquals(d.getTransfersLeftToRight(), metrics.getTransfersLeftToRight());
+        assertEquals(d.getErasureCost(), metrics.getErasureCost(), 1e-9);
+        assertTrue(metrics.getMeasurements() >= metrics.getTransfersLeftToRight() + metrics.getTransfersRightToLeft());
+    }
+}
@@ -0,0 +1,382 @@
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Un proceso de una simulación repartida en franjas verticales.
+ *
+ * El contenedor global de columnas x filas cámaras se divide entre nodos
+ * procesos: el nodo i es dueño de las columnas [i*columnas/nodos,
+ * (i+1)*columnas/nodos) y las simula con su propio SimulationEngine. Como
+ * las franjas coinciden con paredes de cámaras, una partícula solo puede
+ * pasar de una franja a otra por la puerta de un demonio: cada pared de
+ * frontera tiene un demonio por fila, partido en dos mitades, una en cada
+ * nodo. La mitad de cada lado deja salir hacia el vecino las partículas
+ * que admite; al final de cada paso los vecinos intercambian por un socket
+ * local (TCP o dominio Unix) las partículas que cruzaron y las insertan
+ * antes del paso siguiente. El intercambio hace además de barrera: todos
+ * los nodos avanzan al mismo ritmo.
+ *
+ * Dentro de cada franja las columnas se reparten de nuevo con la división
+ * entera de ChamberGrid, así que una pared interior puede quedar hasta un
+ * píxel desplazada respecto a la del contenedor global; las paredes de
+ * frontera coinciden siempre.
+ *
+ * Direcciones: con "tcp:puerto" el nodo i escucha en puerto + i; con
+ * "unix:/directorio" en /directorio/node-i.sock. Cada nodo escucha a su
+ * vecino derecho y se conecta al izquierdo.
+ */
+public class DomainNode implements AutoCloseable {
+    // x, y, vx, vy, radio, color
+    private static final int RECORD_BYTES = 4 * 8 + 2 + 1;
+    private static final long CONNECT_TIMEOUT_MS = 30_000;
+
+    private final int index, nodeCount;
+    private final int firstColumn, columns;
+    private final SimulationEngine engine;
+
+    // Mitades de los demonios de frontera (una por fila) y lo que admitieron en este paso
+    private final ArrayList<Demon> leftGates = new ArrayList<>();
+    private final ArrayList<Demon> rightGates = new ArrayList<>();
+    private final ArrayList<Particle> outboxLeft = new ArrayList<>();
+    private final ArrayList<Particle> outboxRight = new ArrayList<>();
+    private final ArrayList<Particle> inbox = new ArrayList<>();
+
+    private ServerSocketChannel serverChannel;
+    private SocketAddress listenAddress;
+    private SocketChannel leftChannel, rightChannel;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+
+    private long sentLeft, sentRight, receivedLeft, receivedRight;
+
+    /**
+     * @param width ancho del contenedor global
+     * @param globalColumns columnas del contenedor global; al menos una por nodo
+     * @param seed semilla del nodo; nodos distintos deberían usar semillas distintas
+     */
+    public DomainNode(int index, int nodeCount, int width, int height, int globalColumns, int rows, long seed) {
+        if (nodeCount < 1 || index < 0 || index >= nodeCount) {
+            throw new IllegalArgumentException("Nodo " + index + " fuera de 0-" + (nodeCount - 1));
+        }
+        if (globalColumns < nodeCount) {
+            throw new IllegalArgumentException("Hace falta al menos una columna por nodo: "
+                                               + globalColumns + " columnas para " + nodeCount + " nodos");
+        }
+        this.index = index;
+        this.nodeCount = nodeCount;
+        ChamberGrid global = new ChamberGrid(0, 0, width, height, globalColumns, rows);
+        firstColumn = index * globalColumns / nodeCount;
+        int endColumn = (index + 1) * globalColumns / nodeCount;
+        columns = endColumn - firstColumn;
+        int stripLeft = global.getWallX(firstColumn);
+        int stripRight = global.getWallX(endColumn);
+
+        engine = new SimulationEngine(stripLeft, 0, stripRight - stripLeft, height, columns, rows, seed);
+        engine.populateDefault();
+
+        // Un demonio por fila en cada pared vertical interior de la franja
+        ChamberGrid grid = engine.getChamberGrid();
+        for (int r = 0; r < rows; r++) {
+            int along = (grid.getWallY(r) + grid.getWallY(r + 1)) / 2;
+            for (int c = 0; c + 1 < columns; c++) {
+                engine.addDemonOnWall(r * columns + c, r * columns + c + 1, along);
+            }
+            // Mitades de frontera: la cámara al otro lado no existe en este proceso. El motor
+            // las opera en cada subpaso y deja lo que admiten en la bandeja del vecino
+            if (index > 0) {
+                int chamber = r * columns;
+                Demon gate = new Demon(stripLeft, along, false, chamber, chamber);
+                leftGates.add(gate);
+                engine.addBoundaryGate(gate, false, outboxLeft::add);
+            }
+            if (index + 1 < nodeCount) {
+                int chamber = r * columns + columns - 1;
+                Demon gate = new Demon(stripRight, along, false, chamber, chamber);
+                rightGates.add(gate);
+                engine.addBoundaryGate(gate, true, outboxRight::add);
+            }
+        }
+    }
+
+    /**
+     * Abrir el socket en el que este nodo espera a su vecino derecho
+     * @return la dirección real (con el puerto elegido si se pidió el 0)
+     */
+    public SocketAddress listen(SocketAddress address) throws IOException {
+        if (address instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+            serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            serverChannel = ServerSocketChannel.open();
+        }
+        serverChannel.bind(address);
+        listenAddress = serverChannel.getLocalAddress();
+        return listenAddress;
+    }
+
+    /**
+     * Conectarse al vecino izquierdo (reintentando mientras arranca) y
+     * esperar al derecho. El último nodo no necesita escuchar y el primero
+     * recibe null como dirección izquierda.
+     */
+    public void connect(SocketAddress leftAddress) throws IOException {
+        if (index > 0) {
+            long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MS;
+            while (leftChannel == null) {
+                try {
+                    leftChannel = SocketChannel.open(leftAddress);
+                } catch (IOException e) {
+                    if (System.currentTimeMillis() > deadline) {
+                        throw new IOException("No se pudo conectar con el nodo " + (index - 1) + " en " + leftAddress, e);
+                    }
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Conexión interrumpida", interrupted);
+                    }
+                }
+            }
+        }
+        if (index + 1 < nodeCount) {
+            if (serverChannel == null) {
+                throw new IllegalStateException("El nodo " + index + " debe escuchar antes de conectarse");
+            }
+            rightChannel = serverChannel.accept();
+        }
+    }
+
+    /**
+     * Avanzar un paso e intercambiar con los vecinos las partículas que
+     * cruzaron las fronteras. Primero con el izquierdo (leer y luego
+     * escribir) y después con el derecho (escribir y luego leer): el nodo 0
+     * empieza la cadena y ningún par de vecinos se queda esperándose.
+     */
+    public void step() throws IOException {
+        engine.step();
+
+        inbox.clear();
+        if (leftChannel != null) {
+            receivedLeft += receive(leftChannel);
+            sentLeft += send(leftChannel, outboxLeft);
+        }
+        if (rightChannel != null) {
+            sentRight += send(rightChannel, outboxRight);
+            receivedRight += receive(rightChannel);
+        }
+        // Las que salieron se reutilizan para las que llegan en los pasos siguientes
+        ParticlePool pool = engine.getParticlePool();
+        pool.releaseAll(outboxLeft);
+        pool.releaseAll(outboxRight);
+        outboxLeft.clear();
+        outboxRight.clear();
+        engine.insertParticles(inbox);
+    }
+
+    public void run(long steps) throws IOException {
+        for (long s = 0; s < steps; s++) {
+            step();
+        }
+    }
+
+    // Mensaje: long paso, int partículas y un registro por partícula
+    private int send(SocketChannel channel, List<Particle> particles) throws IOException {
+        int needed = 8 + 4 + particles.size() * RECORD_BYTES;
+        if (buffer.capacity() < needed) {
+            buffer = ByteBuffer.allocateDirect(Math.max(needed, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        buffer.putLong(engine.getStepCount());
+        buffer.putInt(particles.size());
+        for (Particle p : particles) {
+            buffer.putDouble(p.getX()).putDouble(p.getY());
+            buffer.putDouble(p.getVelocityX()).putDouble(p.getVelocityY());
+            buffer.putShort((short) p.getRadius());
+            buffer.put((byte) p.getColorId());
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return particles.size();
+    }
+
+    private int receive(SocketChannel channel) throws IOException {
+        buffer.clear().limit(12);
+        readFully(channel, buffer);
+        long step = buffer.getLong(0);
+        int count = buffer.getInt(8);
+        if (step != engine.getStepCount()) {
+            throw new IOException("Nodo desincronizado: paso " + step + " recibido en el paso " + engine.getStepCount());
+        }
+        int needed = count * RECORD_BYTES;
+        if (buffer.capacity() < needed) {
+            buffer = ByteBuffer.allocateDirect(Math.max(needed, buffer.capacity() * 2));
+        }
+        buffer.clear().limit(needed);
+        readFully(channel, buffer);
+        buffer.flip();
+        ParticlePool pool = engine.getParticlePool();
+        for (int i = 0; i < count; i++) {
+            double x = buffer.getDouble();
+            double y = buffer.getDouble();
+            double vx = buffer.getDouble();
+            double vy = buffer.getDouble();
+            int radius = buffer.getShort();
+            int colorId = buffer.get();
+            inbox.add(pool.acquire(x, y, radius, vx, vy, colorId));
+        }
+        return count;
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("El nodo vecino cerró la conexión");
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (leftChannel != null) {
+            leftChannel.close();
+        }
+        if (rightChannel != null) {
+            rightChannel.close();
+        }
+        if (serverChannel != null) {
+            serverChannel.close();
+            if (listenAddress instanceof UnixDomainSocketAddress) {
+                Files.deleteIfExists(((UnixDomainSocketAddress) listenAddress).getPath());
+            }
+        }
+    }
+
+    public SimulationEngine getEngine() {
+        return engine;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getFirstColumn() {
+        return firstColumn;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    // Mitades locales de los demonios de frontera; sus contadores cuentan solo las salidas de este nodo
+    public List<Demon> getLeftGates() {
+        return leftGates;
+    }
+
+    public List<Demon> getRightGates() {
+        return rightGates;
+    }
+
+    public long getSentLeft() { return sentLeft; }
+    public long getSentRight() { return sentRight; }
+    public long getReceivedLeft() { return receivedLeft; }
+    public long getReceivedRight() { return receivedRight; }
+
+    // Dirección del nodo i a partir de la base "tcp:puerto", "tcp:host:puerto" o "unix:/directorio"
+    public static SocketAddress nodeAddress(String base, int index) {
+        if (base.startsWith("unix:")) {
+            return UnixDomainSocketAddress.of(Path.of(base.substring(5), "node-" + index + ".sock"));
+        }
+        InetSocketAddress address = (InetSocketAddress) FrameServer.parseAddress(base);
+        InetAddress host = address.getAddress() != null ? address.getAddress() : InetAddress.getLoopbackAddress();
+        return new InetSocketAddress(host, address.getPort() + index);
+    }
+
+    /**
+     * Ejecutar un nodo:
+     *   DomainNode índice nodos dirección ancho alto columnas filas pasos [semilla]
+     * o lanzar todos los nodos como procesos de esta misma máquina y sumar sus resultados:
+     *   DomainNode local nodos dirección ancho alto columnas filas pasos [semilla]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 8) {
+            System.err.println("Uso: DomainNode índice|local nodos tcp:puerto|unix:/directorio ancho alto columnas filas pasos [semilla]");
+            System.exit(1);
+        }
+        if (args[0].equals("local")) {
+            System.exit(launchLocal(args, System.out));
+        }
+        int index = Integer.parseInt(args[0]);
+        int nodes = Integer.parseInt(args[1]);
+        int width = Integer.parseInt(args[3]);
+        int height = Integer.parseInt(args[4]);
+        int columns = Integer.parseInt(args[5]);
+        int rows = ChamberGrid.clampRows(Integer.parseInt(args[6]), height);
+        long steps = Long.parseLong(args[7]);
+        long seed = args.length > 8 ? Long.parseLong(args[8]) : System.nanoTime();
+
+        try (DomainNode node = new DomainNode(index, nodes, width, height, columns, rows, seed + index)) {
+            if (index + 1 < nodes) {
+                node.listen(nodeAddress(args[2], index));
+            }
+            node.connect(index > 0 ? nodeAddress(args[2], index - 1) : null);
+            long start = System.nanoTime();
+            node.run(steps);
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("node " + index + ": particles=" + node.getEngine().getParticleCount()
+                               + " sentLeft=" + node.sentLeft + " sentRight=" + node.sentRight
+                               + " receivedLeft=" + node.receivedLeft + " receivedRight=" + node.receivedRight
+                               + " ms=" + elapsed);
+        }
+    }
+
+    // Lanzar un proceso por nodo con el mismo java y classpath, copiando su salida en out;
+    // devuelve el código de salida
+    static int launchLocal(String[] args, PrintStream out) throws IOException, InterruptedException {
+        int nodes = Integer.parseInt(args[1]);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classpath = System.getProperty("java.class.path");
+        String seed = args.length > 8 ? args[8] : Long.toString(System.nanoTime());
+
+        ArrayList<Process> processes = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            ArrayList<String> command = new ArrayList<>(List.of(java, "-cp", classpath, "DomainNode", Integer.toString(i)));
+            command.addAll(List.of(args).subList(1, 8));
+            command.add(seed);
+            processes.add(new ProcessBuilder(command).redirectErrorStream(true).start());
+        }
+
+        long total = 0;
+        int status = 0;
+        for (Process process : processes) {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    out.println(line);
+                    int at = line.indexOf("particles=");
+                    if (at >= 0) {
+                        total += Long.parseLong(line.substring(at + 10, line.indexOf(' ', at)));
+                    }
+                }
+            }
+            status = Math.max(status, process.waitFor());
+        }
+        out.println("total particles=" + total);
+        return status;
+    }
+}
@@ -0,0 +1,131 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pruebas de la simulación repartida en franjas. Los nodos corren en hilos
+ * de la misma JVM, conectados por TCP local como lo estarían los procesos,
+ * o como procesos reales lanzados por launchLocal.
+ */
+public class DomainNodeTest {
+
+    @Test
+    public void testStripsCoverTheContainerAndShareBoundaryWalls() {
+        DomainNode left = new DomainNode(0, 2, 800, 400, 5, 2, 1L);
+        DomainNode right = new DomainNode(1, 2, 800, 400, 5, 2, 2L);
+
+        assertEquals(5, left.getColumns() + right.getColumns());
+        ChamberGrid leftGrid = left.getEngine().getChamberGrid();
+        ChamberGrid rightGrid = right.getEngine().getChamberGrid();
+        assertEquals(0, leftGrid.getWallX(0));
+        assertEquals(leftGrid.getWallX(left.getColumns()), rightGrid.getWallX(0));
+        assertEquals(800, rightGrid.getWallX(right.getColumns()));
+
+        // Una mitad de demonio por fila en cada lado de la frontera, en la misma pared
+        assertEquals(2, left.getRightGates().size());
+        assertEquals(2, right.getLeftGates().size());
+        assertTrue(left.getLeftGates().isEmpty());
+        assertEquals(left.getRightGates().get(0).getPositionX(), right.getLeftGates().get(0).getPositionX());
+    }
+
+    @Test
+    public void testParticlesAreConservedAcrossNodes() throws Exception {
+        int nodes = 3;
+        List<DomainNode> domain = new ArrayList<>();
+        List<SocketAddress> addresses = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            DomainNode node = new DomainNode(i, nodes, 900, 300, 6, 1, 100L + i);
+            domain.add(node);
+            addresses.add(node.listen(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)));
+        }
+        int initial = 0;
+        for (DomainNode node : domain) {
+            initial += node.getEngine().getParticleCount();
+        }
+
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            DomainNode node = domain.get(i);
+            SocketAddress leftAddress = i > 0 ? addresses.get(i - 1) : null;
+            Thread thread = new Thread(() -> {
+                try {
+                    node.connect(leftAddress);
+                    node.run(400);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(60_000);
+        }
+        for (DomainNode node : domain) {
+            node.close();
+        }
+        assertTrue(failures.isEmpty(), "Fallo en un nodo: " + failures);
+
+        int total = 0;
+        long crossings = 0;
+        for (DomainNode node : domain) {
+            total += node.getEngine().getParticleCount();
+            crossings += node.getSentRight() + node.getSentLeft();
+            assertEquals(400, node.getEngine().getStepCount());
+        }
+        assertEquals(initial, total);
+        assertTrue(crossings > 0);
+
+        // Lo que un nodo envía a su vecino es exactamente lo que el vecino recibe
+        for (int i = 0; i + 1 < nodes; i++) {
+            assertEquals(domain.get(i).getSentRight(), domain.get(i + 1).getReceivedLeft());
+            assertEquals(domain.get(i + 1).getSentLeft(), domain.get(i).getReceivedRight());
+        }
+    }
+
+    @Test
+    public void testLocalLaunchRunsOneProcessPerNode() throws Exception {
+        Path directory = Files.createTempDirectory("domain");
+        try {
+            ByteArrayOutputStream captured = new ByteArrayOutputStream();
+            String[] args = {"local", "2", "unix:" + directory, "600", "300", "4", "1", "300", "5"};
+            int status = DomainNode.launchLocal(args, new PrintStream(captured, true, StandardCharsets.UTF_8));
+            String output = captured.toString(StandardCharsets.UTF_8);
+
+            assertEquals(0, status, output);
+            // Sin agujeros ni fuentes se conservan las partículas iniciales de las 4 cámaras
+            assertTrue(output.lines().anyMatch(line -> line.equals("total particles=" + 4 * 50)), output);
+            assertTrue(field(output, "node 0:", "sentRight=") + field(output, "node 1:", "sentLeft=") > 0, output);
+            assertEquals(field(output, "node 0:", "sentRight="), field(output, "node 1:", "receivedLeft="));
+            assertEquals(field(output, "node 1:", "sentLeft="), field(output, "node 0:", "receivedRight="));
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    // Valor de un campo "nombre=valor" en la línea de resultados de un nodo
+    private static long field(String output, String node, String name) {
+        String line = output.lines().filter(l -> l.startsWith(node)).findFirst().orElseThrow();
+        int at = line.indexOf(name) + name.length();
+        int end = line.indexOf(' ', at);
+        return Long.parseLong(end < 0 ? line.substring(at) : line.substring(at, end));
+    }
+}
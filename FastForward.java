@@ -0,0 +1,133 @@
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Avance rápido: ejecuta pasos del motor seguidos, sin dibujar, hasta
+ * completar un número de pasos o hasta que una métrica converja.
+ *
+ * No depende de Swing: se ejecuta en el hilo que llame a run() (un hilo de
+ * trabajo en la interfaz, el hilo principal en pruebas). Mientras corre,
+ * nadie más debe modificar el motor. Las métricas se publican solo en los
+ * puntos de control (cada checkInterval pasos), que es también cuando se
+ * comprueba la convergencia, se informa del progreso y se atiende la
+ * cancelación pedida desde otro hilo.
+ */
+public class FastForward {
+
+    // Progreso en cada punto de control; se llama desde el hilo que ejecuta run()
+    public interface ProgressListener {
+        void progress(long stepsDone, long maxSteps, SimulationMetrics metrics);
+    }
+
+    public static final int DEFAULT_CHECK_INTERVAL = 100;
+
+    private final SimulationEngine engine;
+    private final long maxSteps;
+    private int checkInterval = DEFAULT_CHECK_INTERVAL;
+    private ProgressListener progressListener;
+
+    // Convergencia: la métrica cambia menos que la tolerancia en varios puntos de control seguidos
+    private ToDoubleFunction<SimulationMetrics> metric;
+    private double tolerance;
+    private int stableChecks;
+
+    private volatile boolean cancelled;
+    private long stepsRun;
+    private boolean converged;
+
+    public FastForward(SimulationEngine engine, long maxSteps) {
+        if (maxSteps < 1) {
+            throw new IllegalArgumentException("El número de pasos debe ser positivo: " + maxSteps);
+        }
+        this.engine = engine;
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Detenerse antes de maxSteps cuando la métrica se estabilice
+     * @param tolerance cambio máximo de la métrica entre dos puntos de control
+     * @param stableChecks puntos de control seguidos dentro de la tolerancia
+     */
+    public void setConvergence(ToDoubleFunction<SimulationMetrics> metric, double tolerance, int stableChecks) {
+        if (tolerance < 0.0 || stableChecks < 1) {
+            throw new IllegalArgumentException("Tolerancia o número de comprobaciones inválidos");
+        }
+        this.metric = metric;
+        this.tolerance = tolerance;
+        this.stableChecks = stableChecks;
+    }
+
+    // Ejecutar los pasos; devuelve cuántos se dieron
+    public long run() {
+        int savedInterval = engine.getMetricsInterval();
+        engine.setMetricsInterval(checkInterval);
+        try {
+            double previous = Double.NaN;
+            int stable = 0;
+            while (stepsRun < maxSteps && !cancelled) {
+                engine.step();
+                stepsRun++;
+                if (engine.getStepCount() % checkInterval != 0 && stepsRun < maxSteps) {
+                    continue;
+                }
+
+                // Punto de control: el motor acaba de publicar sus métricas (salvo en el último paso)
+                if (engine.getStepCount() % checkInterval != 0) {
+                    engine.publishMetrics();
+                }
+                SimulationMetrics metrics = engine.getMetrics();
+                if (progressListener != null) {
+                    progressListener.progress(stepsRun, maxSteps, metrics);
+                }
+                if (metric != null) {
+                    double value = metric.applyAsDouble(metrics);
+                    stable = Math.abs(value - previous) <= tolerance ? stable + 1 : 0;
+                    previous = value;
+                    if (stable >= stableChecks) {
+                        converged = true;
+                        break;
+                    }
+                }
+            }
+        } finally {
+            engine.setMetricsInterval(savedInterval);
+            engine.publishMetrics();
+        }
+        return stepsRun;
+    }
+
+    // Pedir que se detenga; puede llamarse desde cualquier hilo
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isConverged() {
+        return converged;
+    }
+
+    public long getStepsRun() {
+        return stepsRun;
+    }
+
+    public long getMaxSteps() {
+        return maxSteps;
+    }
+
+    public int getCheckInterval() {
+        return checkInterval;
+    }
+
+    public void setCheckInterval(int checkInterval) {
+        if (checkInterval < 1) {
+            throw new IllegalArgumentException("El intervalo de comprobación debe ser positivo");
+        }
+        this.checkInterval = checkInterval;
+    }
+
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+}
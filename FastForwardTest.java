@@ -0,0 +1,43 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del avance rápido sin interfaz gráfica.
+ */
+public class FastForwardTest {
+
+    private SimulationEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        engine = new SimulationEngine(50, 50, 700, 500, 2, 1, 20261019L);
+        engine.reset();
+    }
+
+    @Test
+    public void testRunsRequestedStepsAndPublishesFinalMetrics() {
+        FastForward task = new FastForward(engine, 250);
+        long[] lastReported = new long[1];
+        task.setProgressListener((done, max, metrics) -> lastReported[0] = done);
+
+        assertEquals(250, task.run());
+        assertEquals(250, engine.getStepCount());
+        assertEquals(250, lastReported[0]);
+        assertEquals(250, engine.getMetrics().getStepCount());
+        assertEquals(1, engine.getMetricsInterval(), "No se restauró el intervalo de métricas");
+        assertFalse(task.isConverged());
+    }
+
+    @Test
+    public void testStopsWhenMetricConvergesOrIsCancelled() {
+        FastForward constant = new FastForward(engine, 1_000_000);
+        constant.setConvergence(m -> 1.0, 0.0, 3);
+        assertEquals(4 * FastForward.DEFAULT_CHECK_INTERVAL, constant.run());
+        assertTrue(constant.isConverged());
+
+        FastForward cancelled = new FastForward(engine, 1_000_000);
+        cancelled.setProgressListener((done, max, metrics) -> cancelled.cancel());
+        assertEquals(FastForward.DEFAULT_CHECK_INTERVAL, cancelled.run());
+        assertTrue(cancelled.isCancelled());
+    }
+}
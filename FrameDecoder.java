@@ -0,0 +1,208 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Decodificación de los fotogramas de FrameEncoder.
+ *
+ * Mantiene las mismas posiciones cuantizadas que el codificador para
+ * reconstruir los fotogramas delta. Hasta recibir el primer fotograma clave
+ * los deltas se ignoran (decode devuelve null).
+ */
+public class FrameDecoder {
+
+    /**
+     * Un fotograma decodificado, inmutable: puede pasarse a otro hilo (el EDT)
+     * y convertirse allí en objetos dibujables.
+     */
+    public static final class Frame {
+        private final boolean keyframe;
+        private final long version;
+        private final long stepCount;
+        private final ChamberGrid grid;
+        private final int particleRadius;
+        private final float[] particleX, particleY;
+        private final int[] particleTag;
+        private final int[] holeData;  // x, y, radio, absorbidas, capacidad por agujero
+        private final int[] demonData; // x, y, tamaño, horizontal por demonio
+
+        private Frame(boolean keyframe, long version, long stepCount, ChamberGrid grid, int particleRadius,
+                      float[] particleX, float[] particleY, int[] particleTag, int[] holeData, int[] demonData) {
+            this.keyframe = keyframe;
+            this.version = version;
+            this.stepCount = stepCount;
+            this.grid = grid;
+            this.particleRadius = particleRadius;
+            this.particleX = particleX;
+            this.particleY = particleY;
+            this.particleTag = particleTag;
+            this.holeData = holeData;
+            this.demonData = demonData;
+        }
+
+        /**
+         * Reconstruir la escena con las clases de dibujo del simulador. Las
+         * partículas de la lista se reutilizan; su velocidad solo sirve para
+         * que conserven la clasificación rápida/lenta con la que se dibujan.
+         */
+        public void buildScene(ArrayList<Particle> particles, ArrayList<Hole> holes, ArrayList<Demon> demons) {
+            int n = particleX.length;
+            while (particles.size() > n) {
+                particles.remove(particles.size() - 1);
+            }
+            for (int i = 0; i < n; i++) {
+                double speed = (particleTag[i] & FrameEncoder.FAST_BIT) != 0 ? 2 * Particle.FAST_SPEED_THRESHOLD : 0.0;
+                if (i < particles.size()) {
+                    Particle p = particles.get(i);
+                    p.setX(particleX[i]);
+                    p.setY(particleY[i]);
+                    p.setVelocity(speed, 0.0);
+                } else {
+                    particles.add(new Particle(particleX[i], particleY[i], particleRadius, speed, 0.0, 0));
+                }
+                particles.get(i).setChamber(particleTag[i] & ~FrameEncoder.FAST_BIT);
+            }
+
+            holes.clear();
+            for (int i = 0; i < holeData.length; i += 5) {
+                Hole hole = new Hole(holeData[i], holeData[i + 1], holeData[i + 2], holeData[i + 4]);
+                hole.setMaxAbsorbed(holeData[i + 4]); // El constructor cambia una capacidad 0 por la de defecto
+                hole.setParticlesAbsorbed(holeData[i + 3]);
+                holes.add(hole);
+            }
+
+            demons.clear();
+            for (int i = 0; i < demonData.length; i += 4) {
+                Demon demon = new Demon(demonData[i], demonData[i + 1], demonData[i + 3] != 0, 0, 1);
+                demon.setTriangleSize(demonData[i + 2]);
+                demons.add(demon);
+            }
+        }
+
+        public boolean isKeyframe() { return keyframe; }
+        public long getVersion() { return version; }
+        public long getStepCount() { return stepCount; }
+        public ChamberGrid getChamberGrid() { return grid; }
+        public int getParticleCount() { return particleX.length; }
+        public float getParticleX(int i) { return particleX[i]; }
+        public float getParticleY(int i) { return particleY[i]; }
+        public int getParticleChamber(int i) { return particleTag[i] & ~FrameEncoder.FAST_BIT; }
+        public boolean isParticleFast(int i) { return (particleTag[i] & FrameEncoder.FAST_BIT) != 0; }
+        public int getHoleCount() { return holeData.length / 5; }
+        public int getDemonCount() { return demonData.length / 4; }
+    }
+
+    private ChamberGrid grid;
+    private int left, top, width, height;
+    private int particleRadius;
+    private int framesSinceKeyframe = -1; // -1 = aún no hay fotograma clave
+    private long previousStep, olderStep;
+
+    private int count;
+    private int[] previousX = new int[0];
+    private int[] previousY = new int[0];
+    private int[] olderX = new int[0];
+    private int[] olderY = new int[0];
+    private int[] previousTag = new int[0];
+
+    /**
+     * Decodificar un fotograma (sin el prefijo de longitud)
+     * @return el fotograma, o null si es un delta recibido antes del primer fotograma clave
+     */
+    public Frame decode(ByteBuffer in) throws IOException {
+        if (in.getInt() != FrameEncoder.MAGIC) {
+            throw new IOException("Fotograma no reconocido");
+        }
+        boolean keyframe = in.get() == FrameEncoder.KEYFRAME;
+        long version = in.getLong();
+        long stepCount = in.getLong();
+        if (keyframe) {
+            left = in.getInt();
+            top = in.getInt();
+            width = in.getInt();
+            height = in.getInt();
+            int columns = in.getInt();
+            int rows = in.getInt();
+            particleRadius = in.getShort();
+            if (grid == null || grid.getColumns() != columns || grid.getRows() != rows
+                || grid.getWallX(0) != left || grid.getWallY(0) != top
+                || grid.getWallX(columns) != left + width || grid.getWallY(rows) != top + height) {
+                grid = new ChamberGrid(left, top, width, height, columns, rows);
+            }
+        } else if (framesSinceKeyframe < 0) {
+            return null;
+        }
+
+        int n = in.getInt();
+        if (!keyframe && n != count) {
+            throw new IOException("Fotograma delta con " + n + " partículas; se esperaban " + count);
+        }
+        if (previousX.length < n) {
+            int capacity = Math.max(n, previousX.length * 2);
+            previousX = Arrays.copyOf(previousX, capacity);
+            previousY = Arrays.copyOf(previousY, capacity);
+            olderX = Arrays.copyOf(olderX, capacity);
+            olderY = Arrays.copyOf(olderY, capacity);
+            previousTag = Arrays.copyOf(previousTag, capacity);
+        }
+
+        float[] xs = new float[n];
+        float[] ys = new float[n];
+        int[] tags = new int[n];
+        boolean extrapolate = !keyframe && framesSinceKeyframe >= 1;
+        long elapsed = stepCount - previousStep;
+        long lastElapsed = previousStep - olderStep;
+        for (int i = 0; i < n; i++) {
+            int qx, qy, tag;
+            byte first = keyframe ? FrameEncoder.ESCAPE : in.get();
+            if (first == FrameEncoder.ESCAPE) {
+                qx = in.getShort() & 0xFFFF;
+                qy = in.getShort() & 0xFFFF;
+                tag = in.getShort() & 0xFFFF;
+            } else {
+                qx = (extrapolate ? FrameEncoder.predict(previousX[i], olderX[i], elapsed, lastElapsed) : previousX[i]) + first;
+                qy = (extrapolate ? FrameEncoder.predict(previousY[i], olderY[i], elapsed, lastElapsed) : previousY[i]) + in.get();
+                tag = previousTag[i];
+            }
+            olderX[i] = previousX[i];
+            olderY[i] = previousY[i];
+            previousX[i] = qx;
+            previousY[i] = qy;
+            previousTag[i] = tag;
+
+            xs[i] = (float) FrameEncoder.dequantize(qx, left, width);
+            ys[i] = (float) FrameEncoder.dequantize(qy, top, height);
+            tags[i] = tag;
+        }
+
+        int holes = in.getShort() & 0xFFFF;
+        int[] holeData = new int[holes * 5];
+        for (int i = 0; i < holes; i++) {
+            holeData[5 * i] = (int) Math.round(FrameEncoder.dequantize(in.getShort() & 0xFFFF, left, width));
+            holeData[5 * i + 1] = (int) Math.round(FrameEncoder.dequantize(in.getShort() & 0xFFFF, top, height));
+            holeData[5 * i + 2] = in.getShort() & 0xFFFF;
+            holeData[5 * i + 3] = in.getShort() & 0xFFFF;
+            holeData[5 * i + 4] = in.getShort() & 0xFFFF;
+            if (holeData[5 * i + 3] > holeData[5 * i + 4]) {
+                throw new IOException("Agujero con " + holeData[5 * i + 3] + " absorbidas de capacidad "
+                                      + holeData[5 * i + 4]);
+            }
+        }
+
+        int demons = in.getShort() & 0xFFFF;
+        int[] demonData = new int[demons * 4];
+        for (int i = 0; i < demons; i++) {
+            demonData[4 * i] = (int) Math.round(FrameEncoder.dequantize(in.getShort() & 0xFFFF, left, width));
+            demonData[4 * i + 1] = (int) Math.round(FrameEncoder.dequantize(in.getShort() & 0xFFFF, top, height));
+            demonData[4 * i + 2] = in.getShort() & 0xFFFF;
+            demonData[4 * i + 3] = in.get();
+        }
+
+        count = n;
+        olderStep = previousStep;
+        previousStep = stepCount;
+        framesSinceKeyframe = keyframe ? 0 : framesSinceKeyframe + 1;
+        return new Frame(keyframe, version, stepCount, grid, particleRadius, xs, ys, tags, holeData, demonData);
+    }
+}
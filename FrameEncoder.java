@@ -0,0 +1,228 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Codificación compacta de instantáneas para enviarlas por un socket.
+ *
+ * Cada fotograma va precedido de su longitud (int) y es un fotograma clave
+ * o un fotograma delta:
+ *
+ *   int MAGIC, byte tipo, long versión, long paso
+ *   [clave] int izquierda, arriba, ancho, alto, columnas, filas; short radio de partícula
+ *   int partículas, y por partícula:
+ *     [clave] u16 x, u16 y, u16 etiqueta
+ *     [delta] byte dx, byte dy, o bien ESCAPE seguido de u16 x, u16 y, u16 etiqueta
+ *   u16 agujeros, y por agujero: u16 x, u16 y, u16 radio, u16 absorbidas, u16 capacidad
+ *   u16 demonios, y por demonio: u16 x, u16 y, u16 tamaño, byte horizontal
+ *
+ * Las posiciones se cuantizan a 16 bits sobre el contenedor. La etiqueta
+ * lleva la cámara en los 15 bits bajos y el bit de rápida en el alto. En
+ * los fotogramas delta cada partícula se codifica como la diferencia con su
+ * posición extrapolada: la anterior más el último desplazamiento, escalado
+ * por los pasos transcurridos (el servidor puede saltarse pasos). En
+ * movimiento rectilíneo la diferencia es casi siempre cero y cabe en un
+ * byte; los rebotes y los cambios de cámara o de clasificación usan el
+ * registro completo.
+ * Los recuentos, radios y tamaños que no caben en 16 bits hacen fallar la
+ * codificación; las absorbidas y la capacidad de un agujero se saturan.
+ * El codificador guarda los mismos valores cuantizados que reconstruye el
+ * decodificador, así que los deltas no acumulan error.
+ *
+ * Se emite un fotograma clave al empezar, cada keyframeInterval fotogramas,
+ * cuando cambia el número de partículas o la geometría del contenedor, y
+ * cuando se pide con forceKeyframe() (p. ej. al conectarse un cliente).
+ */
+public class FrameEncoder {
+    public static final int MAGIC = 0x4D584631; // "MXF1"
+    public static final byte KEYFRAME = 0;
+    public static final byte DELTA = 1;
+    public static final byte ESCAPE = Byte.MIN_VALUE;
+    public static final int FAST_BIT = 0x8000;
+    public static final int QUANT_MAX = 0xFFFF;
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 60;
+
+    // Tamaños máximos para reservar el búfer de una sola vez
+    private static final int HEADER_BYTES = 4 + 4 + 1 + 8 + 8 + 6 * 4 + 2 + 4;
+    private static final int PARTICLE_BYTES = 7;
+    private static final int HOLE_BYTES = 10;
+    private static final int DEMON_BYTES = 7;
+
+    private int keyframeInterval = DEFAULT_KEYFRAME_INTERVAL;
+    private boolean forceKeyframe = true;
+    private ChamberGrid lastGrid;
+    private int framesSinceKeyframe;
+    private long previousStep, olderStep;
+
+    // Posiciones cuantizadas y etiquetas de los dos fotogramas anteriores
+    private int count;
+    private int[] previousX = new int[0];
+    private int[] previousY = new int[0];
+    private int[] olderX = new int[0];
+    private int[] olderY = new int[0];
+    private int[] previousTag = new int[0];
+
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+
+    /**
+     * Codificar una instantánea
+     * @return búfer directo, listo para leer, con la longitud y el fotograma;
+     *         se reutiliza en la siguiente llamada
+     */
+    public ByteBuffer encode(SimulationSnapshot snapshot) {
+        ChamberGrid grid = snapshot.getChamberGrid();
+        int n = snapshot.getParticleCount();
+        boolean keyframe = forceKeyframe || grid != lastGrid || n != count
+                           || framesSinceKeyframe >= keyframeInterval;
+
+        int needed = HEADER_BYTES + n * PARTICLE_BYTES + 2 + snapshot.getHoleCount() * HOLE_BYTES
+                     + 2 + snapshot.getDemonCount() * DEMON_BYTES;
+        if (buffer.capacity() < needed) {
+            buffer = ByteBuffer.allocateDirect(Math.max(needed, buffer.capacity() * 2));
+        }
+        if (previousX.length < n) {
+            int capacity = Math.max(n, previousX.length * 2);
+            previousX = new int[capacity];
+            previousY = new int[capacity];
+            olderX = new int[capacity];
+            olderY = new int[capacity];
+            previousTag = new int[capacity];
+        }
+
+        int left = grid.getWallX(0);
+        int top = grid.getWallY(0);
+        int width = grid.getWallX(grid.getColumns()) - left;
+        int height = grid.getWallY(grid.getRows()) - top;
+
+        buffer.clear();
+        buffer.putInt(0); // Longitud, se rellena al final
+        buffer.putInt(MAGIC);
+        buffer.put(keyframe ? KEYFRAME : DELTA);
+        buffer.putLong(snapshot.getVersion());
+        buffer.putLong(snapshot.getStepCount());
+        if (keyframe) {
+            buffer.putInt(left).putInt(top).putInt(width).putInt(height);
+            buffer.putInt(grid.getColumns()).putInt(grid.getRows());
+            buffer.putShort((short) (n > 0 ? snapshot.getParticleRadius(0) : SimulationEngine.PARTICLE_RADIUS));
+        }
+
+        buffer.putInt(n);
+        boolean extrapolate = !keyframe && framesSinceKeyframe >= 1;
+        long step = snapshot.getStepCount();
+        long elapsed = step - previousStep;
+        long lastElapsed = previousStep - olderStep;
+        for (int i = 0; i < n; i++) {
+            int qx = quantize(snapshot.getParticleX(i), left, width);
+            int qy = quantize(snapshot.getParticleY(i), top, height);
+            int chamber = snapshot.getParticleChamber(i);
+            if (chamber >= FAST_BIT) {
+                throw new IllegalArgumentException("El número de cámara no cabe en 15 bits: " + chamber);
+            }
+            int tag = chamber | (snapshot.isParticleFast(i) ? FAST_BIT : 0);
+
+            if (keyframe) {
+                putFull(qx, qy, tag);
+            } else {
+                int predictedX = extrapolate ? predict(previousX[i], olderX[i], elapsed, lastElapsed) : previousX[i];
+                int predictedY = extrapolate ? predict(previousY[i], olderY[i], elapsed, lastElapsed) : previousY[i];
+                int dx = qx - predictedX;
+                int dy = qy - predictedY;
+                if (tag == previousTag[i] && fitsInByte(dx) && fitsInByte(dy)) {
+                    buffer.put((byte) dx);
+                    buffer.put((byte) dy);
+                } else {
+                    buffer.put(ESCAPE);
+                    putFull(qx, qy, tag);
+                }
+            }
+            olderX[i] = previousX[i];
+            olderY[i] = previousY[i];
+            previousX[i] = qx;
+            previousY[i] = qy;
+            previousTag[i] = tag;
+        }
+
+        putU16(snapshot.getHoleCount(), "El número de agujeros");
+        for (int i = 0; i < snapshot.getHoleCount(); i++) {
+            buffer.putShort((short) quantize(snapshot.getHoleX(i), left, width));
+            buffer.putShort((short) quantize(snapshot.getHoleY(i), top, height));
+            putU16(snapshot.getHoleRadius(i), "El radio de un agujero");
+            // Los contadores solo se muestran: se saturan sin cambiar si el agujero está lleno
+            int capacity = Math.max(0, Math.min(snapshot.getHoleCapacity(i), QUANT_MAX));
+            int absorbed = snapshot.getHoleAbsorbed(i);
+            absorbed = absorbed >= snapshot.getHoleCapacity(i) ? capacity : Math.min(absorbed, capacity - 1);
+            buffer.putShort((short) Math.max(0, absorbed));
+            buffer.putShort((short) capacity);
+        }
+
+        putU16(snapshot.getDemonCount(), "El número de demonios");
+        for (int i = 0; i < snapshot.getDemonCount(); i++) {
+            buffer.putShort((short) quantize(snapshot.getDemonX(i), left, width));
+            buffer.putShort((short) quantize(snapshot.getDemonY(i), top, height));
+            putU16(snapshot.getDemonSize(i), "El tamaño de un demonio");
+            buffer.put((byte) (snapshot.isDemonHorizontal(i) ? 1 : 0));
+        }
+
+        buffer.putInt(0, buffer.position() - 4);
+        buffer.flip();
+
+        count = n;
+        olderStep = previousStep;
+        previousStep = step;
+        lastGrid = grid;
+        framesSinceKeyframe = keyframe ? 0 : framesSinceKeyframe + 1;
+        forceKeyframe = false;
+        return buffer;
+    }
+
+    // Campo u16 que no admite recorte: un valor fuera de rango corrompería el flujo
+    private void putU16(int value, String field) {
+        if (value < 0 || value > QUANT_MAX) {
+            throw new IllegalArgumentException(field + " no cabe en 16 bits: " + value);
+        }
+        buffer.putShort((short) value);
+    }
+
+    private void putFull(int qx, int qy, int tag) {
+        buffer.putShort((short) qx);
+        buffer.putShort((short) qy);
+        buffer.putShort((short) tag);
+    }
+
+    // Posición extrapolada con el último desplazamiento, escalado de lastElapsed a elapsed pasos
+    static int predict(int previous, int older, long elapsed, long lastElapsed) {
+        if (lastElapsed <= 0) {
+            return previous;
+        }
+        return (int) (previous + Math.round((double) (previous - older) * elapsed / lastElapsed));
+    }
+
+    // El valor ESCAPE queda reservado
+    private static boolean fitsInByte(int delta) {
+        return delta > Byte.MIN_VALUE && delta <= Byte.MAX_VALUE;
+    }
+
+    // Coordenada a 16 bits sobre [origin, origin + extent]
+    public static int quantize(double value, int origin, int extent) {
+        long q = Math.round((value - origin) * QUANT_MAX / extent);
+        return (int) Math.max(0, Math.min(QUANT_MAX, q));
+    }
+
+    public static double dequantize(int q, int origin, int extent) {
+        return origin + (double) q * extent / QUANT_MAX;
+    }
+
+    // El siguiente fotograma será clave
+    public void forceKeyframe() {
+        forceKeyframe = true;
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    public void setKeyframeInterval(int keyframeInterval) {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("El intervalo de fotogramas clave debe ser positivo");
+        }
+        this.keyframeInterval = keyframeInterval;
+    }
+}
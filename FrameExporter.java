@@ -0,0 +1,253 @@
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.imageio.ImageIO;
+
+/**
+ * Exportación de fotogramas sin ventana.
+ *
+ * Cada N pasos el motor publica una instantánea (SimulationSnapshot) y el
+ * exportador la retiene y la encarga, junto con una imagen tomada de un
+ * conjunto fijo de imágenes reutilizadas, a un grupo de hilos en segundo
+ * plano que la dibujan (con TileRenderer, igual que Canvas) y la codifican.
+ * El bucle de pasos no dibuja ni lee nada más: si todas las imágenes están
+ * ocupadas porque la codificación va atrasada, el fotograma se descarta y
+ * se cuenta, así que nunca se bloquea.
+ *
+ * El exportador activa las instantáneas del motor.
+ *
+ * Salida: una secuencia PNG (frame_000000.png, ...) o fotogramas RGB sin
+ * compresión, 3 bytes por píxel (frame_000000.rgb, ...), que se pueden
+ * concatenar y pasar a un codificador de vídeo como rawvideo rgb24.
+ *
+ * El tamaño de los fotogramas se fija al crear el exportador; si el motor
+ * cambia de dimensiones hay que crear otro.
+ */
+public class FrameExporter implements AutoCloseable {
+    public enum Format { PNG, RAW_RGB }
+
+    private final SimulationEngine engine;
+    private final File outputDirectory;
+    private final Format format;
+    private final int stepsPerFrame;
+    private final int width, height;
+
+    private final ThreadLocal<TileRenderer> renderers = ThreadLocal.withInitial(TileRenderer::new);
+    private final BlockingQueue<BufferedImage> freeImages;
+    private final ExecutorService encoders;
+    private Color fastColor = Color.RED;
+    private Color slowColor = Color.BLUE;
+
+    private long framesRendered;
+    private final AtomicLong framesWritten = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+    private final AtomicReference<IOException> firstError = new AtomicReference<>();
+
+    /**
+     * @param stepsPerFrame pasos del motor entre dos fotogramas
+     * @param encoderThreads hilos de codificación
+     * @param bufferedFrames imágenes reutilizables; limita los fotogramas pendientes de codificar
+     */
+    public FrameExporter(SimulationEngine engine, File outputDirectory, Format format,
+                         int stepsPerFrame, int encoderThreads, int bufferedFrames) throws IOException {
+        if (stepsPerFrame < 1 || encoderThreads < 1 || bufferedFrames < 1) {
+            throw new IllegalArgumentException("Los pasos por fotograma, hilos e imágenes deben ser positivos");
+        }
+        if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio " + outputDirectory);
+        }
+        this.engine = engine;
+        this.outputDirectory = outputDirectory;
+        this.format = format;
+        this.stepsPerFrame = stepsPerFrame;
+        engine.setSnapshotsEnabled(true);
+
+        // La misma región que muestra Canvas: el contenedor con sus márgenes
+        ChamberGrid grid = engine.getChamberGrid();
+        this.width = grid.getWallX(grid.getColumns()) + grid.getWallX(0);
+        this.height = grid.getWallY(grid.getRows()) + grid.getWallY(0);
+
+        freeImages = new ArrayBlockingQueue<>(bufferedFrames);
+        for (int i = 0; i < bufferedFrames; i++) {
+            freeImages.add(TileRenderer.ensureImage(null, width, height));
+        }
+        encoders = Executors.newFixedThreadPool(encoderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "frame-encoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Avanzar el motor varios pasos, exportando un fotograma cada stepsPerFrame pasos
+    public void run(long steps) throws IOException {
+        // El motor publica justo en los pasos que se exportan, no en los intermedios
+        int savedInterval = engine.getMetricsInterval();
+        engine.setMetricsInterval(stepsPerFrame);
+        try {
+            for (long i = 0; i < steps; i++) {
+                engine.step();
+                if (engine.getStepCount() % stepsPerFrame == 0) {
+                    captureFrame();
+                }
+            }
+        } finally {
+            engine.setMetricsInterval(savedInterval);
+        }
+        rethrowEncodingError();
+    }
+
+    /**
+     * Encargar el dibujo y la codificación del estado actual; false si el
+     * fotograma se descartó. Desde el hilo que avanza el motor.
+     */
+    public boolean captureFrame() {
+        BufferedImage image = freeImages.poll();
+        if (image == null) {
+            framesDropped.incrementAndGet();
+            return false;
+        }
+        SimulationSnapshot snapshot = currentSnapshot();
+        Color fast = fastColor;
+        Color slow = slowColor;
+
+        long frameNumber = framesRendered++;
+        encoders.execute(() -> {
+            try (SimulationSnapshot frame = snapshot) {
+                renderers.get().render(image, 0, 0, frame, fast, slow);
+                writeFrame(image, frameNumber);
+                framesWritten.incrementAndGet();
+            } catch (IOException e) {
+                firstError.compareAndSet(null, e);
+            } finally {
+                freeImages.add(image);
+            }
+        });
+        return true;
+    }
+
+    // Instantánea retenida del paso actual; se publica si la última es de un paso anterior o hubo ediciones
+    private SimulationSnapshot currentSnapshot() {
+        engine.publishPendingSnapshot();
+        SimulationSnapshot snapshot = engine.acquireSnapshot();
+        if (snapshot.getStepCount() != engine.getStepCount()) {
+            snapshot.release();
+            engine.publishMetrics();
+            snapshot = engine.acquireSnapshot();
+        }
+        return snapshot;
+    }
+
+    private void writeFrame(BufferedImage image, long frameNumber) throws IOException {
+        String name = String.format("frame_%06d.%s", frameNumber, format == Format.PNG ? "png" : "rgb");
+        File file = new File(outputDirectory, name);
+        if (format == Format.PNG) {
+            if (!ImageIO.write(image, "png", file)) {
+                throw new IOException("No hay codificador PNG disponible");
+            }
+            return;
+        }
+
+        // Píxeles TYPE_INT_RGB (0xRRGGBB) a bytes R, G, B
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        byte[] row = new byte[width * 3];
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+            for (int y = 0; y < height; y++) {
+                int offset = y * width;
+                for (int x = 0; x < width; x++) {
+                    int rgb = pixels[offset + x];
+                    row[3 * x] = (byte) (rgb >> 16);
+                    row[3 * x + 1] = (byte) (rgb >> 8);
+                    row[3 * x + 2] = (byte) rgb;
+                }
+                out.write(row);
+            }
+        }
+    }
+
+    private void rethrowEncodingError() throws IOException {
+        IOException error = firstError.get();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    // Esperar a que terminen las codificaciones pendientes y liberar los hilos
+    @Override
+    public void close() throws IOException {
+        encoders.shutdown();
+        try {
+            encoders.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rethrowEncodingError();
+    }
+
+    public void setParticleColors(Color fastColor, Color slowColor) {
+        this.fastColor = fastColor;
+        this.slowColor = slowColor;
+    }
+
+    public long getFramesRendered() {
+        return framesRendered;
+    }
+
+    public long getFramesWritten() {
+        return framesWritten.get();
+    }
+
+    public long getFramesDropped() {
+        return framesDropped.get();
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Exportar una ejecución desde la línea de comandos:
+     * FrameExporter dir ancho alto columnas filas pasos pasosPorFotograma [png|raw]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 7) {
+            System.err.println("Uso: FrameExporter dir ancho alto columnas filas pasos pasosPorFotograma [png|raw]");
+            System.exit(1);
+        }
+        int width = Integer.parseInt(args[1]);
+        int height = Integer.parseInt(args[2]);
+        int columns = ChamberGrid.clampColumns(Integer.parseInt(args[3]), width);
+        int rows = ChamberGrid.clampRows(Integer.parseInt(args[4]), height);
+        long steps = Long.parseLong(args[5]);
+        int stepsPerFrame = Integer.parseInt(args[6]);
+        Format format = args.length > 7 && args[7].equalsIgnoreCase("raw") ? Format.RAW_RGB : Format.PNG;
+
+        SimulationEngine engine = new SimulationEngine(50, 50, width, height, columns, rows);
+        engine.reset();
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        FrameExporter exporter = new FrameExporter(engine, new File(args[0]), format,
+                                                   stepsPerFrame, threads, 2 * threads);
+        try {
+            exporter.run(steps);
+        } finally {
+            exporter.close();
+        }
+        System.out.println(exporter.getFramesWritten() + " frames written, " +
+                           exporter.getFramesDropped() + " dropped");
+    }
+}
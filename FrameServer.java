@@ -0,0 +1,290 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * Servidor de fotogramas: envía la simulación a visores en otros procesos.
+ *
+ * Un hilo propio, con NIO sin bloqueo, acepta clientes por TCP local o por
+ * un socket de dominio Unix y, cada frameInterval milisegundos, toma la
+ * última instantánea publicada por el motor y la envía codificada con
+ * FrameEncoder (posiciones de 16 bits y deltas). El motor no dibuja nada y
+ * no espera nunca al servidor: solo publica instantáneas.
+ *
+ * Un cliente que no puede recibir un fotograma entero se queda con el resto
+ * en un búfer propio y se salta los fotogramas siguientes hasta vaciarlo;
+ * entonces vuelve a sincronizarse con un fotograma clave. Los clientes
+ * nuevos también esperan al siguiente fotograma clave, que se fuerza al
+ * conectarse.
+ *
+ * Direcciones: "tcp:puerto", "tcp:host:puerto" o "unix:/ruta/al/socket".
+ */
+public class FrameServer implements AutoCloseable {
+    public static final int DEFAULT_FRAME_INTERVAL_MS = 40;
+
+    // Estado de cada visor conectado; solo lo toca el hilo del servidor
+    private static final class Client {
+        final SocketChannel channel;
+        ByteBuffer backlog;   // Resto de un fotograma que no cupo en el socket; se reutiliza
+        boolean stalled;      // Tiene un resto pendiente en backlog
+        boolean synced;       // Ya recibió un fotograma clave y puede seguir los deltas
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        // Copiar el resto al búfer propio del cliente; solo se amplía si no cabe
+        void keep(ByteBuffer rest) {
+            if (backlog == null || backlog.capacity() < rest.remaining()) {
+                int capacity = backlog == null ? 0 : 2 * backlog.capacity();
+                backlog = ByteBuffer.allocate(Math.max(rest.remaining(), capacity));
+            }
+            backlog.clear();
+            backlog.put(rest).flip();
+            stalled = true;
+        }
+    }
+
+    private final SimulationEngine engine;
+    private final SocketAddress address;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final FrameEncoder encoder = new FrameEncoder();
+    private final ArrayList<Client> clients = new ArrayList<>();
+    private final Thread thread;
+    private final int frameInterval;
+
+    private volatile boolean running = true;
+    private long lastVersion = -1;
+    private volatile long framesSent;
+
+    /**
+     * @param engine motor con las instantáneas activadas
+     * @param frameInterval milisegundos entre dos fotogramas
+     */
+    public FrameServer(SimulationEngine engine, SocketAddress address, int frameInterval) throws IOException {
+        if (!engine.isSnapshotsEnabled()) {
+            throw new IllegalArgumentException("El motor debe publicar instantáneas");
+        }
+        if (frameInterval < 1) {
+            throw new IllegalArgumentException("El intervalo entre fotogramas debe ser positivo");
+        }
+        this.engine = engine;
+        this.address = address;
+        this.frameInterval = frameInterval;
+
+        if (address instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+            serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            serverChannel = ServerSocketChannel.open();
+        }
+        serverChannel.bind(address);
+        serverChannel.configureBlocking(false);
+        selector = Selector.open();
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        thread = new Thread(this::serve, "frame-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void serve() {
+        long nextFrame = System.nanoTime();
+        try {
+            while (running) {
+                long wait = Math.max(1, (nextFrame - System.nanoTime()) / 1_000_000);
+                selector.select(wait);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isWritable()) {
+                        flushBacklog((Client) key.attachment(), key);
+                    }
+                }
+                selector.selectedKeys().clear();
+
+                if (System.nanoTime() - nextFrame >= 0) {
+                    nextFrame += frameInterval * 1_000_000L;
+                    sendFrame();
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            // El servidor se cerró o el selector falló: terminar el hilo
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        Client client = new Client(channel);
+        channel.register(selector, 0, client);
+        clients.add(client);
+        encoder.forceKeyframe();
+    }
+
+    // Codificar la última instantánea, si es nueva, y enviarla a los clientes al día
+    private void sendFrame() {
+        if (clients.isEmpty()) {
+            return;
+        }
+        ByteBuffer frame;
+        try (SimulationSnapshot snapshot = engine.acquireSnapshot()) {
+            if (snapshot == null || snapshot.getVersion() == lastVersion) {
+                return;
+            }
+            lastVersion = snapshot.getVersion();
+            frame = encoder.encode(snapshot);
+        }
+        boolean keyframe = frame.get(8) == FrameEncoder.KEYFRAME; // Tras la longitud y MAGIC
+
+        for (int i = clients.size() - 1; i >= 0; i--) {
+            Client client = clients.get(i);
+            if (client.stalled) {
+                client.synced = false; // Se salta este fotograma: perderá la cadena de deltas
+                continue;
+            }
+            if (!client.synced && !keyframe) {
+                continue;
+            }
+            client.synced = true;
+            ByteBuffer view = frame.duplicate();
+            try {
+                client.channel.write(view);
+                if (view.hasRemaining()) {
+                    // El resto se copia: el búfer del codificador se reutiliza en el siguiente fotograma
+                    client.keep(view);
+                    client.channel.keyFor(selector).interestOps(SelectionKey.OP_WRITE);
+                }
+            } catch (IOException e) {
+                disconnect(client);
+            }
+        }
+        framesSent++;
+    }
+
+    private void flushBacklog(Client client, SelectionKey key) {
+        try {
+            client.channel.write(client.backlog);
+            if (!client.backlog.hasRemaining()) {
+                client.stalled = false;
+                key.interestOps(0);
+                if (!client.synced) {
+                    encoder.forceKeyframe();
+                }
+            }
+        } catch (IOException e) {
+            disconnect(client);
+        }
+    }
+
+    private void disconnect(Client client) {
+        clients.remove(client);
+        try {
+            client.channel.close();
+        } catch (IOException e) {
+            // Ya estaba cerrado
+        }
+    }
+
+    // Detener el hilo del servidor y cerrar todas las conexiones
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Client client : new ArrayList<>(clients)) {
+            disconnect(client);
+        }
+        selector.close();
+        serverChannel.close();
+        if (address instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+    }
+
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    public SocketAddress getLocalAddress() throws IOException {
+        return serverChannel.getLocalAddress();
+    }
+
+    public FrameEncoder getEncoder() {
+        return encoder;
+    }
+
+    // Interpretar "tcp:puerto", "tcp:host:puerto" o "unix:/ruta"
+    public static SocketAddress parseAddress(String text) {
+        if (text.startsWith("unix:")) {
+            return UnixDomainSocketAddress.of(Path.of(text.substring(5)));
+        }
+        if (text.startsWith("tcp:")) {
+            String rest = text.substring(4);
+            int colon = rest.lastIndexOf(':');
+            if (colon < 0) {
+                return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(rest));
+            }
+            return new InetSocketAddress(rest.substring(0, colon), Integer.parseInt(rest.substring(colon + 1)));
+        }
+        throw new IllegalArgumentException("Dirección no válida (tcp:puerto, tcp:host:puerto o unix:/ruta): " + text);
+    }
+
+    /**
+     * Ejecutar una simulación sin ventana y servir sus fotogramas:
+     * FrameServer dirección ancho alto columnas filas [pasosPorSegundo]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 5) {
+            System.err.println("Uso: FrameServer tcp:puerto|unix:/ruta ancho alto columnas filas [pasosPorSegundo]");
+            System.exit(1);
+        }
+        int width = Integer.parseInt(args[1]);
+        int height = Integer.parseInt(args[2]);
+        int columns = ChamberGrid.clampColumns(Integer.parseInt(args[3]), width);
+        int rows = ChamberGrid.clampRows(Integer.parseInt(args[4]), height);
+        int stepsPerSecond = args.length > 5 ? Integer.parseInt(args[5]) : 20;
+
+        SimulationEngine engine = new SimulationEngine(50, 50, width, height, columns, rows);
+        engine.reset();
+        engine.setSnapshotsEnabled(true);
+        try (FrameServer server = new FrameServer(engine, parseAddress(args[0]), DEFAULT_FRAME_INTERVAL_MS)) {
+            System.out.println("Serving frames on " + server.getLocalAddress());
+            long period = 1_000_000_000L / Math.max(1, stepsPerSecond);
+            long next = System.nanoTime();
+            while (true) {
+                engine.step();
+                next += period;
+                long sleep = next - System.nanoTime();
+                if (sleep > 0) {
+                    Thread.sleep(sleep / 1_000_000, (int) (sleep % 1_000_000));
+                } else {
+                    next = System.nanoTime(); // Atrasado: no intentar recuperar pasos
+                }
+            }
+        }
+    }
+}
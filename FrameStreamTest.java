@@ -0,0 +1,99 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+
+/**
+ * Pruebas de la codificación de fotogramas y del servidor de fotogramas.
+ */
+public class FrameStreamTest {
+
+    private SimulationEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        engine = new SimulationEngine(50, 50, 700, 500, 2, 1, 20261019L);
+        engine.reset();
+        engine.addHole(200, 200).setMaxAbsorbed(0); // Lleno: se transmite pero no cambia el número de partículas
+        engine.setSnapshotsEnabled(true);
+    }
+
+    @Test
+    public void testDeltaFramesReconstructQuantizedPositions() throws Exception {
+        FrameEncoder encoder = new FrameEncoder();
+        FrameDecoder decoder = new FrameDecoder();
+        double tolerance = 700.0 / FrameEncoder.QUANT_MAX;
+        int keyBytes = 0;
+        int deltaBytes = 0;
+
+        for (int frame = 0; frame < 20; frame++) {
+            try (SimulationSnapshot snapshot = engine.acquireSnapshot()) {
+                ByteBuffer encoded = encoder.encode(snapshot);
+                int size = encoded.getInt();
+                if (frame == 0) keyBytes = size; else if (frame == 10) deltaBytes = size;
+                FrameDecoder.Frame decoded = decoder.decode(encoded);
+
+                assertEquals(frame == 0, decoded.isKeyframe());
+                assertEquals(snapshot.getStepCount(), decoded.getStepCount());
+                assertEquals(snapshot.getParticleCount(), decoded.getParticleCount());
+                for (int i = 0; i < snapshot.getParticleCount(); i++) {
+                    assertEquals(snapshot.getParticleX(i), decoded.getParticleX(i), tolerance);
+                    assertEquals(snapshot.getParticleY(i), decoded.getParticleY(i), tolerance);
+                    assertEquals(snapshot.getParticleChamber(i), decoded.getParticleChamber(i));
+                    assertEquals(snapshot.isParticleFast(i), decoded.isParticleFast(i));
+                }
+                assertEquals(snapshot.getHoleCount(), decoded.getHoleCount());
+                assertEquals(snapshot.getDemonCount(), decoded.getDemonCount());
+            }
+            engine.step();
+        }
+        assertTrue(deltaBytes < keyBytes / 2, "Los deltas deberían ocupar bastante menos: " + deltaBytes + " / " + keyBytes);
+    }
+
+    @Test
+    public void testHoleCountersSaturateWithoutChangingFullness() throws Exception {
+        Hole big = engine.addHole(400, 300);
+        big.setMaxAbsorbed(100000);
+        big.setParticlesAbsorbed(70000);
+        engine.publishPendingSnapshot();
+
+        try (SimulationSnapshot snapshot = engine.acquireSnapshot()) {
+            ByteBuffer encoded = new FrameEncoder().encode(snapshot);
+            encoded.getInt();
+            FrameDecoder.Frame decoded = new FrameDecoder().decode(encoded);
+            ArrayList<Hole> holes = new ArrayList<>();
+            decoded.buildScene(new ArrayList<>(), holes, new ArrayList<>());
+            Hole full = holes.get(0);
+            Hole saturated = holes.get(1);
+            assertEquals(FrameEncoder.QUANT_MAX, saturated.getMaxAbsorbed());
+            assertEquals(FrameEncoder.QUANT_MAX - 1, saturated.getParticlesAbsorbed());
+            assertFalse(saturated.isFull());
+            assertTrue(full.isFull());
+        }
+    }
+
+    @Test
+    public void testServerStreamsKeyframeToNewClient() throws Exception {
+        InetSocketAddress any = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (FrameServer server = new FrameServer(engine, any, 5);
+             SocketChannel channel = SocketChannel.open(server.getLocalAddress())) {
+            FrameDecoder decoder = new FrameDecoder();
+            for (int frame = 0; frame < 3; frame++) {
+                engine.step();
+                ByteBuffer length = ByteBuffer.allocate(4);
+                while (length.hasRemaining()) assertTrue(channel.read(length) >= 0);
+                ByteBuffer payload = ByteBuffer.allocate(length.getInt(0));
+                while (payload.hasRemaining()) assertTrue(channel.read(payload) >= 0);
+                payload.flip();
+
+                FrameDecoder.Frame decoded = decoder.decode(payload);
+                assertNotNull(decoded, "El primer fotograma para un cliente nuevo debe ser clave");
+                assertEquals(frame == 0, decoded.isKeyframe());
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+import javax.swing.*;
+import java.awt.*;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Visor de una simulación servida por FrameServer en otro proceso.
+ *
+ * Un hilo lee y decodifica los fotogramas; el panel se repinta con el
+ * último recibido (los intermedios se descartan si el dibujo va atrasado)
+ * usando SceneRenderer, el mismo código de dibujo que Canvas.
+ */
+public class FrameViewer extends JPanel {
+    private final AtomicReference<FrameDecoder.Frame> latestFrame = new AtomicReference<>();
+    private volatile String connectionStatus = "Connecting...";
+
+    // Objetos de dibujo reutilizados entre fotogramas (solo en el EDT)
+    private final ArrayList<Particle> particles = new ArrayList<>();
+    private final ArrayList<Hole> holes = new ArrayList<>();
+    private final ArrayList<Demon> demons = new ArrayList<>();
+    private final List<ArrayList<Particle>> chambers = List.of(particles);
+    private FrameDecoder.Frame currentFrame; // Último fotograma convertido en objetos
+    private Color fastColor = Color.RED;
+    private Color slowColor = Color.BLUE;
+
+    public FrameViewer() {
+        setBackground(Color.WHITE);
+        setPreferredSize(new Dimension(800, 600));
+    }
+
+    // Leer fotogramas hasta que se cierre la conexión; se ejecuta en un hilo propio
+    public void receive(SocketAddress address) {
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            connectionStatus = "Connected to " + address;
+            FrameDecoder decoder = new FrameDecoder();
+            ByteBuffer length = ByteBuffer.allocateDirect(4);
+            ByteBuffer payload = ByteBuffer.allocateDirect(1 << 16);
+            while (true) {
+                length.clear();
+                readFully(channel, length);
+                int size = length.getInt(0);
+                if (payload.capacity() < size) {
+                    payload = ByteBuffer.allocateDirect(Math.max(size, payload.capacity() * 2));
+                }
+                payload.clear().limit(size);
+                readFully(channel, payload);
+                payload.flip();
+
+                FrameDecoder.Frame frame = decoder.decode(payload);
+                if (frame != null && latestFrame.getAndSet(frame) == null) {
+                    repaint();
+                }
+            }
+        } catch (EOFException e) {
+            connectionStatus = "Server closed the connection";
+        } catch (IOException e) {
+            connectionStatus = "Connection failed: " + e.getMessage();
+        }
+        repaint();
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        FrameDecoder.Frame frame = latestFrame.getAndSet(null);
+        if (frame != null) {
+            frame.buildScene(particles, holes, demons);
+            currentFrame = frame;
+        }
+
+        g.setColor(Color.DARK_GRAY);
+        g.setFont(new Font("Arial", Font.BOLD, 14));
+        if (currentFrame == null) {
+            g.drawString(connectionStatus, 20, 30);
+            return;
+        }
+        SceneRenderer.drawScene(g, currentFrame.getChamberGrid(), chambers, holes, demons, fastColor, slowColor);
+
+        g.setColor(Color.DARK_GRAY);
+        g.setFont(new Font("Arial", Font.BOLD, 14));
+        g.drawString("Step " + currentFrame.getStepCount() + " | Particles: " + currentFrame.getParticleCount()
+                     + " | " + connectionStatus, 20, 30);
+    }
+
+    public void setParticleColors(Color fastColor, Color slowColor) {
+        this.fastColor = fastColor;
+        this.slowColor = slowColor;
+        repaint();
+    }
+
+    /**
+     * Abrir un visor:
+     * FrameViewer tcp:puerto|tcp:host:puerto|unix:/ruta
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Uso: FrameViewer tcp:puerto|tcp:host:puerto|unix:/ruta");
+            System.exit(1);
+        }
+        SocketAddress address = FrameServer.parseAddress(args[0]);
+        FrameViewer viewer = new FrameViewer();
+        SwingUtilities.invokeLater(() -> {
+            JFrame frame = new JFrame("Maxwell's Demon Viewer");
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.add(viewer);
+            frame.pack();
+            frame.setLocationRelativeTo(null);
+            frame.setVisible(true);
+        });
+        Thread receiver = new Thread(() -> viewer.receive(address), "frame-viewer");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+}
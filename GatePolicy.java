@@ -0,0 +1,90 @@
+import java.util.SplittableRandom;
+
+/**
+ * Política de apertura de la puerta de un demonio.
+ *
+ * Las políticas comunes (umbral, dirección, ventana, probabilística, coste
+ * energético y por colorId) se construyen con los métodos de fábrica y son
+ * todas instancias de StandardGatePolicy, una clase final: el demonio las
+ * evalúa siempre a través de ese único tipo concreto, por lo que la llamada
+ * por partícula es monomórfica aunque cada demonio use una política distinta.
+ * Las implementaciones propias de esta interfaz también se aceptan, pero se
+ * evalúan por la ruta genérica. El demonio lee la ventana una sola vez, al
+ * fijar la política, así que debe ser constante.
+ */
+public interface GatePolicy {
+    // Ventana por defecto alrededor de la puerta (en píxeles)
+    int DEFAULT_INNER_WINDOW = 5;
+    int DEFAULT_OUTER_WINDOW = 20;
+
+    /**
+     * Decide si la partícula puede cruzar la puerta
+     * @param p partícula situada en la ventana de la puerta
+     * @param leftToRight true si cruza de izquierda a derecha, false en sentido contrario
+     * @return true si el demonio abre la puerta para esta partícula
+     */
+    boolean admits(Particle p, boolean leftToRight);
+
+    // Distancia mínima a la puerta para que una partícula sea considerada
+    default int getInnerWindow() {
+        return DEFAULT_INNER_WINDOW;
+    }
+
+    // Distancia máxima a la puerta para que una partícula sea considerada
+    default int getOuterWindow() {
+        return DEFAULT_OUTER_WINDOW;
+    }
+
+    // Regla clásica: rápidas hacia la derecha, lentas hacia la izquierda
+    static StandardGatePolicy threshold(double speedThreshold) {
+        return new StandardGatePolicy(StandardGatePolicy.THRESHOLD, speedThreshold,
+                                      true, true, 1.0, 0.0, 0L,
+                                      DEFAULT_INNER_WINDOW, DEFAULT_OUTER_WINDOW);
+    }
+
+    // Deja pasar cualquier partícula en las direcciones permitidas
+    static StandardGatePolicy direction(boolean allowLeftToRight, boolean allowRightToLeft) {
+        return new StandardGatePolicy(StandardGatePolicy.DIRECTION, 0.0,
+                                      allowLeftToRight, allowRightToLeft, 1.0, 0.0, 0L,
+                                      DEFAULT_INNER_WINDOW, DEFAULT_OUTER_WINDOW);
+    }
+
+    // Regla clásica, pero el demonio acierta solo con la probabilidad indicada (sin semilla fija)
+    static StandardGatePolicy probabilistic(double speedThreshold, double probability) {
+        return probabilistic(speedThreshold, probability, new SplittableRandom().nextLong());
+    }
+
+    // Con semilla: los aciertos y fallos del demonio se repiten en cada ejecución
+    static StandardGatePolicy probabilistic(double speedThreshold, double probability, long seed) {
+        if (probability < 0.0 || probability > 1.0) {
+            throw new IllegalArgumentException("La probabilidad debe estar entre 0 y 1");
+        }
+        return new StandardGatePolicy(StandardGatePolicy.PROBABILISTIC, speedThreshold,
+                                      true, true, probability, 0.0, 0L,
+                                      DEFAULT_INNER_WINDOW, DEFAULT_OUTER_WINDOW, new SplittableRandom(seed));
+    }
+
+    // Regla clásica limitada por un presupuesto de energía: cada apertura cuesta energía
+    static StandardGatePolicy energyCost(double speedThreshold, double energyBudget, double costPerTransfer) {
+        if (energyBudget < 0.0 || costPerTransfer < 0.0) {
+            throw new IllegalArgumentException("El presupuesto y el coste no pueden ser negativos");
+        }
+        return new StandardGatePolicy(StandardGatePolicy.ENERGY_COST, speedThreshold,
+                                      true, true, energyBudget, costPerTransfer, 0L,
+                                      DEFAULT_INNER_WINDOW, DEFAULT_OUTER_WINDOW);
+    }
+
+    // Solo pasan (en ambos sentidos) las partículas cuyo colorId esté en la lista
+    static StandardGatePolicy colorIds(int... colorIds) {
+        long mask = 0L;
+        for (int id : colorIds) {
+            if (id < 0 || id >= Particle.getColorCount()) {
+                throw new IllegalArgumentException("colorId fuera de rango: " + id);
+            }
+            mask |= 1L << id;
+        }
+        return new StandardGatePolicy(StandardGatePolicy.COLOR_ID, 0.0,
+                                      true, true, 1.0, 0.0, mask,
+                                      DEFAULT_INNER_WINDOW, DEFAULT_OUTER_WINDOW);
+    }
+}
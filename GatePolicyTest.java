@@ -0,0 +1,131 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+/**
+ * Pruebas de las políticas de la puerta de los demonios.
+ */
+public class GatePolicyTest {
+
+    // Demonio en la pared vertical x = 200 entre las cámaras 0 y 1; ventana por defecto 5-20
+    private Demon demon;
+    private ArrayList<Particle> left;
+    private ArrayList<Particle> right;
+
+    @BeforeEach
+    public void setUp() {
+        demon = new Demon(200, 100, false, 0, 1);
+        left = new ArrayList<>();
+        right = new ArrayList<>();
+    }
+
+    // Partícula que acaba de entrar en la ventana izquierda, acercándose a la puerta
+    private Particle leftParticle(double speed, int colorId) {
+        Particle p = new Particle(180 + Math.min(speed, 14), 100, 5, speed, 0, colorId);
+        left.add(p);
+        return p;
+    }
+
+    // Partícula que acaba de entrar en la ventana derecha, acercándose a la puerta
+    private Particle rightParticle(double speed, int colorId) {
+        Particle p = new Particle(220 - Math.min(speed, 14), 100, 5, -speed, 0, colorId);
+        p.setChamber(1);
+        right.add(p);
+        return p;
+    }
+
+    private void operate(double speedThreshold) {
+        demon.operateGate(left, right, 0, 400, speedThreshold);
+    }
+
+    @Test
+    public void testDefaultThresholdIsNotFrozenIntoTheDemon() {
+        Particle medium = leftParticle(7, 0);
+        operate(8.0);
+        assertNull(demon.getGatePolicy());
+        assertTrue(left.contains(medium), "Más lenta que el umbral: no pasa a la derecha");
+
+        // Con otro umbral del contenedor una partícula igual ya es rápida
+        // (la primera ya se midió en esta entrada en la ventana)
+        Particle next = leftParticle(7, 0);
+        operate(6.0);
+        assertTrue(left.contains(medium));
+        assertTrue(right.contains(next));
+        // Ventana interior (5) más el radio (5) al otro lado del hueco
+        assertEquals(210.0, next.getX(), 0.0);
+        assertEquals(1, next.getChamber());
+        assertNull(demon.getGatePolicy());
+    }
+
+    @Test
+    public void testDirectionColorAndEnergyPolicies() {
+        demon.setGatePolicy(GatePolicy.direction(false, true));
+        Particle toRight = leftParticle(9, 0);
+        Particle toLeft = rightParticle(9, 0);
+        operate(Particle.FAST_SPEED_THRESHOLD);
+        assertTrue(left.contains(toRight));
+        assertTrue(left.contains(toLeft));
+
+        setUp();
+        demon.setGatePolicy(GatePolicy.colorIds(3, 7));
+        Particle allowed = leftParticle(1, 7);
+        Particle blocked = leftParticle(9, 4);
+        operate(Particle.FAST_SPEED_THRESHOLD);
+        assertTrue(right.contains(allowed));
+        assertTrue(left.contains(blocked));
+
+        setUp();
+        StandardGatePolicy energy = GatePolicy.energyCost(Particle.FAST_SPEED_THRESHOLD, 2.5, 1.0);
+        demon.setGatePolicy(energy);
+        for (int i = 0; i < 4; i++) {
+            leftParticle(9, i);
+        }
+        operate(Particle.FAST_SPEED_THRESHOLD);
+        assertEquals(2, right.size(), "El presupuesto alcanza para dos aperturas");
+        assertEquals(0.5, energy.getRemainingEnergy(), 1e-12);
+    }
+
+    @Test
+    public void testSeededProbabilisticPolicyRepeats() {
+        int[] admitted = new int[2];
+        for (int run = 0; run < 2; run++) {
+            setUp();
+            demon.setGatePolicy(GatePolicy.probabilistic(Particle.FAST_SPEED_THRESHOLD, 0.5, 42L));
+            for (int i = 0; i < 200; i++) {
+                leftParticle(9, i % 50);
+            }
+            operate(Particle.FAST_SPEED_THRESHOLD);
+            admitted[run] = right.size();
+        }
+        assertEquals(admitted[0], admitted[1]);
+        assertTrue(admitted[0] > 50 && admitted[0] < 150, "Aproximadamente la mitad acierta: " + admitted[0]);
+    }
+
+    @Test
+    public void testCustomPolicyUsesItsOwnWindow() {
+        // Política propia (ruta genérica) con una ventana más estrecha que la partícula
+        demon.setGatePolicy(new GatePolicy() {
+            @Override
+            public boolean admits(Particle p, boolean leftToRight) {
+                return true;
+            }
+
+            @Override
+            public int getOuterWindow() {
+                return 10;
+            }
+        });
+        Particle outside = leftParticle(1, 0);
+        Particle inside = new Particle(191, 100, 5, 1, 0, 0);
+        left.add(inside);
+        operate(Particle.FAST_SPEED_THRESHOLD);
+        assertTrue(left.contains(outside));
+        assertTrue(right.contains(inside));
+        assertEquals(5, demon.getGateWindowWidth());
+
+        StandardGatePolicy narrow = GatePolicy.threshold(5.0).withWindow(2, 30);
+        assertEquals(2, narrow.getInnerWindow());
+        assertThrows(IllegalArgumentException.class, () -> GatePolicy.threshold(5.0).withWindow(10, 10));
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Pruebas de contacto para círculos, triángulos y rectángulos.
+ *
+ * Convención única: el centro de un círculo es su (x, y), el mismo punto
+ * alrededor del cual se dibuja. Todas las pruebas comparan distancias al
+ * cuadrado (sin Math.sqrt ni Math.pow) y descartan primero por la caja
+ * envolvente, que es lo que resuelve la mayoría de los casos negativos.
+ */
+public final class Geometry {
+
+    private Geometry() {
+    }
+
+    // Punto dentro de un círculo (borde incluido)
+    public static boolean circleContainsPoint(double cx, double cy, double radius, double px, double py) {
+        double dx = px - cx;
+        double dy = py - cy;
+        if (dx > radius || dx < -radius || dy > radius || dy < -radius) {
+            return false;
+        }
+        return dx * dx + dy * dy <= radius * radius;
+    }
+
+    // Dos círculos se tocan o se solapan
+    public static boolean circlesOverlap(double cx1, double cy1, double r1, double cx2, double cy2, double r2) {
+        return circleContainsPoint(cx1, cy1, r1 + r2, cx2, cy2);
+    }
+
+    // Distancia al cuadrado entre dos puntos
+    public static double distanceSquared(double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        return dx * dx + dy * dy;
+    }
+
+    // Punto dentro de un triángulo de vértices enteros (bordes incluidos).
+    // Usa los signos de los productos cruzados, exactos en aritmética entera.
+    public static boolean triangleContainsPoint(int x1, int y1, int x2, int y2, int x3, int y3, int px, int py) {
+        if (px < Math.min(x1, Math.min(x2, x3)) || px > Math.max(x1, Math.max(x2, x3)) ||
+            py < Math.min(y1, Math.min(y2, y3)) || py > Math.max(y1, Math.max(y2, y3))) {
+            return false;
+        }
+        long d1 = cross(x1, y1, x2, y2, px, py);
+        long d2 = cross(x2, y2, x3, y3, px, py);
+        long d3 = cross(x3, y3, x1, y1, px, py);
+        boolean hasNegative = d1 < 0 || d2 < 0 || d3 < 0;
+        boolean hasPositive = d1 > 0 || d2 > 0 || d3 > 0;
+        return !(hasNegative && hasPositive);
+    }
+
+    private static long cross(int ax, int ay, int bx, int by, int px, int py) {
+        return (long) (bx - ax) * (py - ay) - (long) (by - ay) * (px - ax);
+    }
+
+    // Punto dentro de un rectángulo alineado con los ejes (bordes incluidos)
+    public static boolean rectangleContainsPoint(int x, int y, int width, int height, int px, int py) {
+        return px >= x && px <= x + width && py >= y && py <= y + height;
+    }
+}
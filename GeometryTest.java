@@ -0,0 +1,143 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * Pruebas basadas en propiedades del núcleo de geometría.
+ * Comparan las pruebas de contacto nuevas (distancias al cuadrado, productos
+ * cruzados enteros) con las fórmulas originales sobre miles de casos
+ * aleatorios con semilla fija.
+ */
+public class GeometryTest {
+
+    private static final int CASES = 20000;
+    private Random random;
+
+    @BeforeEach
+    public void setUp() {
+        random = new Random(20261019L);
+    }
+
+    // Fórmula original de Circle.contains
+    private static boolean oldCircleContains(double cx, double cy, int radius, int px, int py) {
+        double distance = Math.sqrt(Math.pow(px - cx, 2) + Math.pow(py - cy, 2));
+        return distance <= radius;
+    }
+
+    // Fórmula original de Hole.canAbsorb: tomaba (x, y) de la partícula como su esquina
+    // superior izquierda y medía desde (x + radio, y + radio)
+    private static boolean oldCanAbsorb(double hx, double hy, int holeRadius, double px, double py, int particleRadius) {
+        double distance = Math.sqrt(Math.pow((px + particleRadius) - hx, 2) + Math.pow((py + particleRadius) - hy, 2));
+        return distance <= holeRadius + particleRadius;
+    }
+
+    // Fórmula original de Triangle.contains (áreas baricéntricas)
+    private static boolean oldTriangleContains(int x1, int y1, int x2, int y2, int x3, int y3, int x, int y) {
+        double abc = Math.abs((x1 * (y2 - y3) + x2 * (y3 - y1) + x3 * (y1 - y2)) / 2.0);
+        double pbc = Math.abs((x * (y2 - y3) + x2 * (y3 - y) + x3 * (y - y2)) / 2.0);
+        double pac = Math.abs((x1 * (y - y3) + x * (y3 - y1) + x3 * (y1 - y)) / 2.0);
+        double pab = Math.abs((x1 * (y2 - y) + x2 * (y - y1) + x * (y1 - y2)) / 2.0);
+        return Math.abs(pbc + pac + pab - abc) < 0.1;
+    }
+
+    // Coordenada aleatoria en pasos de 1/8 (exacta en double)
+    private double coordinate(int range) {
+        return random.nextInt(range * 8) / 8.0;
+    }
+
+    @Test
+    public void testCircleContainsMatchesOriginalFormula() {
+        for (int i = 0; i < CASES; i++) {
+            double cx = coordinate(800);
+            double cy = coordinate(600);
+            int radius = 1 + random.nextInt(30);
+            int px = (int) cx - 40 + random.nextInt(80);
+            int py = (int) cy - 40 + random.nextInt(80);
+            Circle circle = new Circle(cx, cy, radius);
+
+            assertEquals(oldCircleContains(cx, cy, radius, px, py), circle.contains(px, py),
+                         "Circle.contains difiere en el caso " + i);
+        }
+    }
+
+    // Única diferencia con la fórmula original: el centro de la partícula es su (x, y),
+    // así que la partícula en (x, y) equivale a la original en (x - radio, y - radio)
+    @Test
+    public void testCanAbsorbMatchesOriginalFormulaWithCentredParticles() {
+        for (int i = 0; i < CASES; i++) {
+            double hx = coordinate(800);
+            double hy = coordinate(600);
+            int holeRadius = 5 + random.nextInt(20);
+            double px = hx - 40 + coordinate(80);
+            double py = hy - 40 + coordinate(80);
+            Hole hole = new Hole((int) hx, (int) hy, holeRadius, 1000);
+            Particle particle = new Particle(px, py, 5, 1.0, 1.0, 0);
+
+            assertEquals(oldCanAbsorb((int) hx, (int) hy, holeRadius, px - 5, py - 5, 5), hole.canAbsorb(particle),
+                         "Hole.canAbsorb difiere en el caso " + i);
+        }
+    }
+
+    @Test
+    public void testCanAbsorbUsesTheParticleCentre() {
+        Hole hole = new Hole(100, 100, 15, 1000);
+        // Con la esquina en (84, 84) la fórmula original medía desde (89, 89) y la absorbía
+        assertTrue(oldCanAbsorb(100, 100, 15, 84, 84, 5));
+        assertFalse(hole.canAbsorb(new Particle(84, 84, 5, 0.0, 0.0, 0)));
+        // Y al revés en el lado opuesto: el centro (114, 114) está a menos de 20 del agujero
+        assertFalse(oldCanAbsorb(100, 100, 15, 114, 114, 5));
+        assertTrue(hole.canAbsorb(new Particle(114, 114, 5, 0.0, 0.0, 0)));
+    }
+
+    @Test
+    public void testFullHoleNeverAbsorbs() {
+        Hole hole = new Hole(100, 100, 15, 1);
+        assertTrue(hole.absorbParticle());
+        Particle particle = new Particle(100, 100, 5, 1.0, 0.0, 0);
+        assertFalse(hole.canAbsorb(particle), "Un agujero lleno no debería absorber");
+    }
+
+    @Test
+    public void testTriangleContainsMatchesOriginalFormula() {
+        int checked = 0;
+        while (checked < CASES) {
+            int x1 = random.nextInt(400), y1 = random.nextInt(400);
+            int x2 = random.nextInt(400), y2 = random.nextInt(400);
+            int x3 = random.nextInt(400), y3 = random.nextInt(400);
+            // Los triángulos degenerados no tienen interior; la fórmula original no los trata bien
+            if ((long) (x2 - x1) * (y3 - y1) - (long) (y2 - y1) * (x3 - x1) == 0) continue;
+
+            int px = random.nextInt(440) - 20;
+            int py = random.nextInt(440) - 20;
+            Triangle triangle = new Triangle(x1, y1, x2, y2, x3, y3);
+
+            assertEquals(oldTriangleContains(x1, y1, x2, y2, x3, y3, px, py), triangle.contains(px, py),
+                         "Triangle.contains difiere en el caso " + checked);
+            checked++;
+        }
+    }
+
+    @Test
+    public void testTriangleIncludesVerticesAndEdges() {
+        Triangle triangle = new Triangle(0, 0, 10, 0, 0, 10);
+        assertTrue(triangle.contains(0, 0));
+        assertTrue(triangle.contains(10, 0));
+        assertTrue(triangle.contains(5, 5));
+        assertFalse(triangle.contains(6, 5));
+    }
+
+    @Test
+    public void testRectangleContainsMatchesOriginalFormula() {
+        for (int i = 0; i < CASES; i++) {
+            int x = random.nextInt(500), y = random.nextInt(500);
+            int width = random.nextInt(100), height = random.nextInt(100);
+            int px = x - 20 + random.nextInt(width + 40);
+            int py = y - 20 + random.nextInt(height + 40);
+            Rectangle rectangle = new Rectangle(x, y, width, height);
+
+            boolean expected = px >= x && px <= x + width && py >= y && py <= y + height;
+            assertEquals(expected, rectangle.contains(px, py), "Rectangle.contains difiere en el caso " + i);
+        }
+    }
+}
@@ -6,6 +6,20 @@ public class Hole extends Circle {
     private int particlesAbsorbed; // Contador de partículas absorbidas
     private boolean isFull; // Indicador de capacidad máxima alcanzada
     
+    // Campo de atracción opcional (0 = desactivado)
+    private double fieldStrength;
+    private int fieldCutoff = 100; // Radio máximo de influencia del campo
+    
+    // Vaciado opcional: el contador baja a este ritmo (partículas por unidad de tiempo)
+    private double drainRate;
+    private double drainProgress; // Fracción de partícula acumulada entre pasos
+    
+    // Ciclo de vida: el agujero se evapora al cumplir su vida (0 = nunca). Si libera
+    // partículas, lo que se vacía o queda al evaporarse vuelve al contenedor en lugar de perderse.
+    private double lifetime;
+    private boolean releasesParticles;
+    private Runnable timingListener; // El motor reprograma sus temporizadores al cambiar el ritmo o la vida
+    
     public Hole(int x, int y, int radius, int maxAbsorbed) {
         super(x, y, radius);
         this.maxAbsorbed = maxAbsorbed > 0 ? maxAbsorbed : 10; // Valor por defecto: 10
@@ -20,6 +34,11 @@ public class Hole extends Circle {
     
     @Override
     public void draw(Graphics g) {
+        drawAt(g, getX(), getY(), getRadius(), particlesAbsorbed, maxAbsorbed, isFull);
+    }
+    
+    // Dibujar un agujero a partir de sus datos (p. ej. los de una SimulationSnapshot)
+    public static void drawAt(Graphics g, double x, double y, int radius, int absorbed, int capacity, boolean isFull) {
         Graphics2D g2 = (Graphics2D) g;
         
         // Color base del agujero según su estado
@@ -32,8 +51,8 @@ public class Hole extends Circle {
         
         // Crear un gradiente radial para efecto de agujero negro
         RadialGradientPaint paint = new RadialGradientPaint(
-            new Point2D.Float((float)getX(), (float)getY()),
-            getRadius(),
+            new Point2D.Float((float)x, (float)y),
+            radius,
             new float[] {0.0f, 0.7f, 1.0f},
             new Color[] {
                 baseColor,                      // Centro
@@ -43,8 +62,8 @@ public class Hole extends Circle {
         );
         
         g2.setPaint(paint);
-        g2.fillOval((int)getX() - getRadius(), (int)getY() - getRadius(), 
-                   getRadius() * 2, getRadius() * 2);
+        g2.fillOval((int)x - radius, (int)y - radius, 
+                   radius * 2, radius * 2);
         
         // Dibujar anillo/resplandor exterior
         if (isFull) {
@@ -52,29 +71,31 @@ public class Hole extends Circle {
         } else {
             g2.setColor(new Color(100, 0, 100, 100)); // Resplandor normal
         }
+        Stroke originalStroke = g2.getStroke();
         g2.setStroke(new BasicStroke(2));
-        g2.drawOval((int)getX() - getRadius() - 2, (int)getY() - getRadius() - 2, 
-                    (getRadius() + 2) * 2, (getRadius() + 2) * 2);
+        g2.drawOval((int)x - radius - 2, (int)y - radius - 2, 
+                    (radius + 2) * 2, (radius + 2) * 2);
+        g2.setStroke(originalStroke); // No afectar lo que se dibuje después
         
         // Mostrar contador de absorción
         g2.setColor(Color.WHITE);
         g2.setFont(new Font("Arial", Font.BOLD, 10));
-        String countText = particlesAbsorbed + "/" + maxAbsorbed;
+        String countText = absorbed + "/" + capacity;
         int textWidth = g2.getFontMetrics().stringWidth(countText);
-        g2.drawString(countText, (int)getX() - textWidth/2, (int)getY() + 4);
+        g2.drawString(countText, (int)x - textWidth/2, (int)y + 4);
     }
     
     // Verificar si una partícula está dentro del radio de absorción
-    // y si el agujero puede absorber más
+    // y si el agujero puede absorber más (ambos centros en su x, y)
     public boolean canAbsorb(Particle p) {
         if (isFull) return false;
-        
-        double distance = Math.sqrt(
-            Math.pow((p.getX() + p.getRadius()) - getX(), 2) + 
-            Math.pow((p.getY() + p.getRadius()) - getY(), 2)
-        );
-        
-        return distance <= getRadius() + p.getRadius();
+        return Geometry.circlesOverlap(getX(), getY(), getRadius(), p.getX(), p.getY(), p.getRadius());
+    }
+
+    // Lo mismo para la partícula i de un almacén por índices
+    public boolean canAbsorb(ParticleStore store, int i) {
+        if (isFull) return false;
+        return Geometry.circlesOverlap(getX(), getY(), getRadius(), store.getX(i), store.getY(i), store.getRadius(i));
     }
     
     // Método para absorber una partícula
@@ -92,6 +113,97 @@ public class Hole extends Circle {
         return true;
     }
     
+    /**
+     * Vaciar el agujero durante un intervalo dt. Un agujero lleno que baja de
+     * su capacidad vuelve a abrirse y a absorber.
+     * @return partículas que dejaron de contar
+     */
+    public int drain(double dt) {
+        if (drainRate <= 0.0 || particlesAbsorbed == 0) {
+            drainProgress = 0.0; // Un agujero vacío no acumula vaciado para más tarde
+            return 0;
+        }
+        drainProgress += drainRate * dt;
+        int drained = (int) Math.min(particlesAbsorbed, Math.floor(drainProgress));
+        drainProgress -= drained;
+        setParticlesAbsorbed(particlesAbsorbed - drained);
+        return drained;
+    }
+    
+    public double getDrainRate() {
+        return drainRate;
+    }
+    
+    public void setDrainRate(double drainRate) {
+        if (drainRate < 0.0) {
+            throw new IllegalArgumentException("El ritmo de vaciado no puede ser negativo");
+        }
+        this.drainRate = drainRate;
+        timingChanged();
+    }
+    
+    public double getLifetime() {
+        return lifetime;
+    }
+    
+    // Tiempo simulado hasta que el agujero se evapora, contado desde ahora (0 = nunca)
+    public void setLifetime(double lifetime) {
+        if (lifetime < 0.0) {
+            throw new IllegalArgumentException("La vida de un agujero no puede ser negativa");
+        }
+        this.lifetime = lifetime;
+        timingChanged();
+    }
+    
+    public boolean isReleasingParticles() {
+        return releasesParticles;
+    }
+    
+    public void setReleasingParticles(boolean releasesParticles) {
+        this.releasesParticles = releasesParticles;
+    }
+    
+    void setTimingListener(Runnable timingListener) {
+        this.timingListener = timingListener;
+    }
+    
+    private void timingChanged() {
+        if (timingListener != null) {
+            timingListener.run();
+        }
+    }
+    
+    // Fracción de capacidad libre: el campo se debilita a medida que el agujero se llena
+    public double getRemainingCapacityFraction() {
+        if (isFull) return 0.0;
+        return (double) (maxAbsorbed - particlesAbsorbed) / maxAbsorbed;
+    }
+    
+    // Intensidad efectiva del campo teniendo en cuenta la capacidad restante
+    public double getEffectiveFieldStrength() {
+        return fieldStrength * getRemainingCapacityFraction();
+    }
+    
+    public boolean hasField() {
+        return fieldStrength > 0.0 && !isFull;
+    }
+    
+    public double getFieldStrength() {
+        return fieldStrength;
+    }
+    
+    public void setFieldStrength(double fieldStrength) {
+        this.fieldStrength = Math.max(0.0, fieldStrength);
+    }
+    
+    public int getFieldCutoff() {
+        return fieldCutoff;
+    }
+    
+    public void setFieldCutoff(int fieldCutoff) {
+        this.fieldCutoff = Math.max(getRadius(), fieldCutoff);
+    }
+    
     // Getters y setters
     public boolean isFull() {
         return isFull;
@@ -110,6 +222,12 @@ public class Hole extends Circle {
         return particlesAbsorbed;
     }
     
+    // Fijar el contador de absorción (p. ej. al reconstruir un agujero recibido por la red)
+    public void setParticlesAbsorbed(int particlesAbsorbed) {
+        this.particlesAbsorbed = Math.max(0, particlesAbsorbed);
+        this.isFull = (this.particlesAbsorbed >= maxAbsorbed);
+    }
+    
     public void resetAbsorptionCount() {
         this.particlesAbsorbed = 0;
         this.isFull = false;
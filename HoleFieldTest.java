@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+/**
+ * Pruebas del campo de atracción y de la absorción de los agujeros a través de su rejilla.
+ */
+public class HoleFieldTest {
+
+    @Test
+    public void testFieldPullsNearbyParticlesTowardTheHole() {
+        SimulationEngine engine = new SimulationEngine(50, 50, 700, 500, 1, 1, 30L);
+        engine.setHoleGravityEnabled(true);
+        Hole hole = engine.addHole(400, 300);
+        Particle near = engine.addParticle(440, 300, false);
+        near.setVelocity(0, 0);
+        Particle far = engine.addParticle(100, 100, false);
+        far.setVelocity(0, 0);
+
+        engine.step();
+        assertTrue(near.getVelocityX() < 0, "Atraída hacia el agujero, a su izquierda");
+        assertEquals(0.0, near.getVelocityY(), 1e-12);
+        assertEquals(0.0, far.getVelocityX(), 0.0, "Fuera del radio de corte no hay campo");
+
+        // Un agujero lleno deja de atraer
+        hole.setMaxAbsorbed(1);
+        hole.absorbParticle();
+        near.setVelocity(0, 0);
+        engine.step();
+        assertEquals(0.0, near.getVelocityX(), 0.0);
+    }
+
+    @Test
+    public void testAbsorptionFindsEveryOverlapAmongManyHoles() {
+        SimulationEngine engine = new SimulationEngine(50, 50, 1400, 1000, 2, 2, 31L);
+        engine.setHoleGravityEnabled(true);
+        engine.fillRegion(60, 60, 1380, 980, 20000, false);
+        engine.scatterHoles(60, 60, 1380, 980, 300);
+        ArrayList<Hole> holes = engine.getBlackHoles();
+        // Agujeros de tamaños distintos: la rejilla debe cubrir el mayor alcance
+        for (int i = 0; i < holes.size(); i += 3) {
+            holes.get(i).setRadius(30);
+        }
+
+        for (int step = 0; step < 20; step++) {
+            engine.step();
+            for (ArrayList<Particle> chamber : engine.getChambers()) {
+                for (Particle p : chamber) {
+                    for (Hole h : holes) {
+                        assertFalse(h.canAbsorb(p), "Partícula solapada con un agujero abierto tras el paso " + step);
+                    }
+                }
+            }
+        }
+
+        long absorbed = 0;
+        for (Hole h : holes) {
+            absorbed += h.getParticlesAbsorbed();
+        }
+        assertTrue(absorbed > 0);
+        assertEquals(absorbed, engine.getParticlesAbsorbed());
+        assertEquals(20000 - absorbed, engine.getParticleCount());
+    }
+}
@@ -0,0 +1,68 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rejilla de los agujeros abiertos (que atraen o absorben), reconstruida una
+ * vez por paso. La usan el paso de SimulationEngine y el de StoreSimulation.
+ *
+ * La celda mide el mayor alcance (radio de corte del campo o distancia de
+ * absorción), así cada partícula solo consulta los agujeros de las 3x3
+ * celdas que la rodean y el paso cuesta O(partículas + agujeros). La rejilla
+ * se recrea solo si la celda se queda corta o sobra mucho.
+ */
+public class HoleGrid {
+    private final int left, top, width, height;
+    private final ArrayList<Hole> open = new ArrayList<>(); // Reutilizada en cada reconstrucción
+    private SpatialGrid<Hole> grid;
+
+    public HoleGrid(int left, int top, int width, int height) {
+        this.left = left;
+        this.top = top;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Reconstruir la rejilla con los agujeros que no están llenos
+     * @param maxParticleRadius mayor radio de las partículas; acota la distancia de absorción
+     * @return la rejilla, o null si no hay ningún agujero abierto
+     */
+    public SpatialGrid<Hole> build(List<Hole> holes, int maxParticleRadius) {
+        open.clear();
+        int reach = 0;
+        for (Hole bh : holes) {
+            if (!bh.isFull()) {
+                open.add(bh);
+                reach = Math.max(reach, bh.getRadius() + maxParticleRadius);
+                if (bh.hasField()) {
+                    reach = Math.max(reach, bh.getFieldCutoff());
+                }
+            }
+        }
+        if (open.isEmpty()) return null;
+
+        if (grid == null || grid.getCellSize() < reach || grid.getCellSize() > 2 * reach) {
+            grid = new SpatialGrid<>(left, top, width, height, reach);
+        }
+        grid.build(open);
+        return grid;
+    }
+
+    // Primer agujero de las celdas vecinas que puede absorber la partícula i de un almacén,
+    // según la última reconstrucción; null si ninguno
+    public Hole findAbsorber(ParticleStore store, int i) {
+        int col = grid.columnOf(store.getX(i));
+        int row = grid.rowOf(store.getY(i));
+        for (int r = Math.max(0, row - 1); r <= Math.min(grid.getRows() - 1, row + 1); r++) {
+            for (int c = Math.max(0, col - 1); c <= Math.min(grid.getColumns() - 1, col + 1); c++) {
+                for (int h = grid.cellBegin(c, r); h < grid.cellEnd(c, r); h++) {
+                    Hole bh = grid.get(h);
+                    if (bh.canAbsorb(store, i)) {
+                        return bh;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
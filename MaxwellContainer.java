@@ -3,12 +3,18 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class MaxwellContainer extends JFrame {
     // Constantes
@@ -16,29 +22,30 @@ public class MaxwellContainer extends JFrame {
     private final int LEFT_MARGIN = 50;
     private final int BOTTOM_MARGIN = 50;
     private final int RIGHT_MARGIN = 50;
-    private final double SPEED_THRESHOLD = 5.0;
-    private final int BLACK_HOLE_RADIUS = 15;
+    
+    // Periodo mínimo entre dos repintados pedidos por acciones o mensajes de estado
+    private static final int REFRESH_PERIOD_MS = 50;
     
     // Colores de partículas
     private Color fastParticleColor = Color.RED;
     private Color slowParticleColor = Color.BLUE;
     
-    // Dimensiones del contenedor
-    private int containerWidth = 700;
-    private int containerHeight = 500;
-    
-    // Lists para almacenar objetos
-    private final ArrayList<Particle> leftChamber = new ArrayList<>();
-    private final ArrayList<Particle> rightChamber = new ArrayList<>();
-    private final ArrayList<Demon> demons = new ArrayList<>();
-    private final ArrayList<Hole> blackHoles = new ArrayList<>();
+    // Motor de la simulación: cámaras, demonios, agujeros negros y física.
+    // Por defecto un contenedor de 700x500 con dos cámaras (izquierda y derecha)
+    private final SimulationEngine engine = new SimulationEngine(LEFT_MARGIN, TOP_MARGIN, 700, 500, 2, 1);
     
     // Componentes de UI
     private Canvas simulationPanel;
     private Timer timer;
+    private Timer repaintTimer;
+    private Timer statusTimer;
     private JDialog statusWindow;
     private JTextField widthField;
     private JTextField heightField;
+    private JTextField chamberColumnsField;
+    private JTextField chamberRowsField;
+    private JTextField batchSizeField;
+    private JTextField fastForwardStepsField;
     private JButton fastColorButton;
     private JButton slowColorButton;
     
@@ -51,19 +58,29 @@ public class MaxwellContainer extends JFrame {
     private boolean removeParticleMode = false;
     private boolean addBlackHoleMode = false;
     private boolean removeBlackHoleMode = false;
+    private boolean fillFastRegionMode = false;
+    private boolean fillSlowRegionMode = false;
+    private boolean clearRegionMode = false;
+    private boolean scatterHolesMode = false;
     private boolean isSimulatorVisible = true;
+    private Demon draggedDemon = null;
+    private FastForward fastForwardTask = null; // Avance rápido en curso (solo se toca desde el EDT)
+    private int selectionStartX, selectionStartY; // Esquina inicial de la selección rectangular
     
     // Variables de estado
     private String statusMessage = "";
-    private final Random random = new Random();
     
     public MaxwellContainer() {
         setTitle("Maxwell's Demon Simulator");
         setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
-        setSize(containerWidth + LEFT_MARGIN + RIGHT_MARGIN, 
-                containerHeight + TOP_MARGIN + BOTTOM_MARGIN + 130);
+        setSize(getContainerWidth() + LEFT_MARGIN + RIGHT_MARGIN, 
+                getContainerHeight() + TOP_MARGIN + BOTTOM_MARGIN + 160);
         setLayout(new BorderLayout());
         
+        // La interfaz dibuja y muestra las instantáneas que publica el motor, no sus listas vivas;
+        // con el simulador oculto se desactivan y solo se publican las métricas
+        engine.setSnapshotsEnabled(true);
+        
         // Listener de ventana para manejar cierre
         addWindowListener(new WindowAdapter() {
             @Override
@@ -72,6 +89,14 @@ public class MaxwellContainer extends JFrame {
             }
         });
         
+        // Repintado agrupado: varias peticiones dentro de un periodo producen un solo repintado
+        repaintTimer = new Timer(REFRESH_PERIOD_MS, e -> {
+            if (isSimulatorVisible) {
+                simulationPanel.repaint();
+            }
+        });
+        repaintTimer.setRepeats(false);
+        
         // Inicializar componentes UI
         setupUI();
         
@@ -106,15 +131,23 @@ public class MaxwellContainer extends JFrame {
         // Panel para dimensiones
         JPanel dimensionPanel = new JPanel();
         JLabel widthLabel = new JLabel("Container Width:");
-        widthField = new JTextField(String.valueOf(containerWidth), 5);
+        widthField = new JTextField(String.valueOf(getContainerWidth()), 5);
         JLabel heightLabel = new JLabel("Container Height:");
-        heightField = new JTextField(String.valueOf(containerHeight), 5);
+        heightField = new JTextField(String.valueOf(getContainerHeight()), 5);
+        JLabel chambersLabel = new JLabel("Chambers:");
+        chamberColumnsField = new JTextField(String.valueOf(engine.getColumns()), 2);
+        JLabel chambersByLabel = new JLabel("x");
+        chamberRowsField = new JTextField(String.valueOf(engine.getRows()), 2);
         JButton applyDimensionsButton = new JButton("Create Container");
         
         dimensionPanel.add(widthLabel);
         dimensionPanel.add(widthField);
         dimensionPanel.add(heightLabel);
         dimensionPanel.add(heightField);
+        dimensionPanel.add(chambersLabel);
+        dimensionPanel.add(chamberColumnsField);
+        dimensionPanel.add(chambersByLabel);
+        dimensionPanel.add(chamberRowsField);
         dimensionPanel.add(applyDimensionsButton);
         
         // Panel para selección de colores
@@ -166,6 +199,33 @@ public class MaxwellContainer extends JFrame {
         });
         colorPanel.add(cancelColorButton);
         
+        // Número de partículas o agujeros de las operaciones por región
+        colorPanel.add(new JLabel("Batch:"));
+        batchSizeField = new JTextField("100", 4);
+        colorPanel.add(batchSizeField);
+        
+        // Activar/desactivar el campo de atracción de los agujeros negros
+        JCheckBox holeGravityCheckBox = new JCheckBox("Hole Gravity");
+        holeGravityCheckBox.addActionListener(e -> setHoleGravityEnabled(holeGravityCheckBox.isSelected()));
+        colorPanel.add(holeGravityCheckBox);
+        
+        // Avance rápido: N pasos sin dibujar, o hasta que el reparto entre cámaras se estabilice
+        colorPanel.add(new JLabel("Steps:"));
+        fastForwardStepsField = new JTextField("10000", 6);
+        colorPanel.add(fastForwardStepsField);
+        JCheckBox untilStableCheckBox = new JCheckBox("Until Stable");
+        colorPanel.add(untilStableCheckBox);
+        JButton fastForwardButton = new JButton("Fast Forward");
+        fastForwardButton.addActionListener(e -> {
+            try {
+                fastForward(Long.parseLong(fastForwardStepsField.getText().trim()), untilStableCheckBox.isSelected());
+            } catch (NumberFormatException ex) {
+                lastActionSuccessful = false;
+                setStatusMessage("Invalid number of steps: " + fastForwardStepsField.getText());
+            }
+        });
+        colorPanel.add(fastForwardButton);
+        
         // Organizar paneles superiores
         JPanel topControlPanel = new JPanel(new BorderLayout());
         topControlPanel.add(dimensionPanel, BorderLayout.NORTH);
@@ -205,25 +265,9 @@ public class MaxwellContainer extends JFrame {
         return luminance > 128 ? Color.BLACK : Color.WHITE;
     }
     
-    // Actualizar colores de todas las partículas existentes
-    private void updateParticleColors() {
-        try {
-            for (Particle p : leftChamber) {
-                p.setBaseColor(p.getSpeed() >= SPEED_THRESHOLD ? fastParticleColor : slowParticleColor);
-            }
-            for (Particle p : rightChamber) {
-                p.setBaseColor(p.getSpeed() >= SPEED_THRESHOLD ? fastParticleColor : slowParticleColor);
-            }
-            lastActionSuccessful = true;
-        } catch (Exception e) {
-            lastActionSuccessful = false;
-            setStatusMessage("Failed to update particle colors: " + e.getMessage());
-        }
-    }
-    
     private void setupStatusWindow() {
         statusWindow = new JDialog(this, "Maxwell's Demon Simulator Status");
-        statusWindow.setSize(400, 200);
+        statusWindow.setSize(400, 280);
         statusWindow.setLocationRelativeTo(null);
         JPanel statusPanel = new JPanel(new BorderLayout());
         JTextArea statusText = new JTextArea();
@@ -239,36 +283,48 @@ public class MaxwellContainer extends JFrame {
         statusPanel.add(statusButtonPanel, BorderLayout.SOUTH);
         statusWindow.add(statusPanel);
         
-        // Timer para actualizar la ventana de estado
-        Timer statusTimer = new Timer(1000, e -> {
-            if (!isSimulatorVisible) {
-                int leftCount = leftChamber.size();
-                int rightCount = rightChamber.size();
-                int redCount = countRedMolecules();
-                int blueCount = countBlueMolecules();
-                
-                statusText.setText(String.format(
-                    "Simulador ejecutándose en segundo plano\n" +
-                    "-----------------------------------\n" +
-                    "Partículas Izquierda: %d\n" +
-                    "Partículas Derecha: %d\n" +
-                    "Partículas Rápidas: %d\n" +
-                    "Partículas Lentas: %d\n" +
-                    "Demonios: %d\n" +
-                    "Agujeros Negros: %d\n",
-                    leftCount, rightCount, redCount, blueCount,
-                    demons.size(), blackHoles.size()
-                ));
+        // Timer para actualizar la ventana de estado. Solo corre mientras el simulador
+        // está oculto y lee las últimas métricas publicadas por el motor, sin recorrer
+        // partículas; si no se publicaron otras, el texto no se rehace.
+        SimulationMetrics[] shown = {null};
+        statusTimer = new Timer(1000, e -> {
+            SimulationMetrics metrics = engine.getMetrics();
+            if (metrics == shown[0]) {
+                return;
             }
+            shown[0] = metrics;
+            statusText.setText(String.format(
+                "Simulador ejecutándose en segundo plano\n" +
+                "-----------------------------------\n" +
+                "Paso: %d\n" +
+                "Cámaras: %d\n" +
+                "Partículas Izquierda: %d\n" +
+                "Partículas Derecha: %d\n" +
+                "Partículas Rápidas: %d\n" +
+                "Partículas Lentas: %d\n" +
+                "Demonios: %d\n" +
+                "Agujeros Negros: %d\n" +
+                "Medidas de los demonios: %d\n" +
+                "Transferencias (I→D / D→I): %d / %d\n" +
+                "Energía neta a la derecha: %.2f\n" +
+                "Coste de borrado (Landauer): %.2f\n",
+                metrics.getStepCount(), metrics.getChamberCount(),
+                metrics.getLeftCount(), metrics.getRightCount(),
+                metrics.getFastCount(), metrics.getSlowCount(),
+                metrics.getDemonCount(), metrics.getBlackHoleCount(),
+                metrics.getMeasurements(), metrics.getTransfersLeftToRight(),
+                metrics.getTransfersRightToLeft(), metrics.getNetEnergyToRight(),
+                metrics.getErasureCost()
+            ));
         });
-        statusTimer.start();
+        statusTimer.setInitialDelay(0);
         
         showSimButton.addActionListener(e -> showSimulator());
         exitButton.addActionListener(e -> confirmExit());
     }
     
     private void setupControlPanel(JButton applyDimensionsButton) {
-        JPanel controlPanel = new JPanel(new GridLayout(3, 4, 5, 5));
+        JPanel controlPanel = new JPanel(new GridLayout(4, 4, 5, 5));
         JButton startButton = new JButton("Start Simulation");
         JButton resetButton = new JButton("Reset");
         JButton addDemonButton = new JButton("Add Demon");
@@ -281,6 +337,10 @@ public class MaxwellContainer extends JFrame {
         JButton toggleVisibilityButton = new JButton("Ocultar Simulador");
         JButton exitSimulatorButton = new JButton("Terminar Simulador");
         JButton cancelButton = new JButton("Cancel Action");
+        JButton fillFastRegionButton = new JButton("Fill Fast Region");
+        JButton fillSlowRegionButton = new JButton("Fill Slow Region");
+        JButton clearRegionButton = new JButton("Clear Region");
+        JButton scatterHolesButton = new JButton("Scatter Holes");
         
         // Primera fila de controles
         controlPanel.add(startButton);
@@ -300,6 +360,12 @@ public class MaxwellContainer extends JFrame {
         controlPanel.add(removeBlackHoleButton);
         controlPanel.add(cancelButton);
         
+        // Cuarta fila: operaciones por región (arrastrar para seleccionar)
+        controlPanel.add(fillFastRegionButton);
+        controlPanel.add(fillSlowRegionButton);
+        controlPanel.add(clearRegionButton);
+        controlPanel.add(scatterHolesButton);
+        
         add(controlPanel, BorderLayout.SOUTH);
         
         // Configurar listener para botón de inicio/pausa
@@ -321,20 +387,12 @@ public class MaxwellContainer extends JFrame {
         
         // Configurar listener para botón de reset
         resetButton.addActionListener(e -> {
-            try {
-                timer.stop();
-                startButton.setText("Start Simulation");
-                initializeMolecules();
-                demons.clear();
-                blackHoles.clear();
-                addDemon();
-                simulationPanel.repaint();
+            timer.stop();
+            startButton.setText("Start Simulation");
+            mutate(SimulationEngine::reset, () -> {
                 lastActionSuccessful = true;
                 setStatusMessage("Simulation reset successfully");
-            } catch (Exception ex) {
-                lastActionSuccessful = false;
-                setStatusMessage("Failed to reset simulation: " + ex.getMessage());
-            }
+            }, "Failed to reset simulation: ");
         });
         
         // Configurar listener para el botón de aplicar dimensiones
@@ -363,25 +421,15 @@ public class MaxwellContainer extends JFrame {
         // Configurar listener para añadir demonio
         addDemonButton.addActionListener(e -> {
             addDemon();
-            simulationPanel.repaint();
+            requestRepaint();
         });
         
         // Configurar listener para eliminar demonio
         removeDemonButton.addActionListener(e -> {
-            try {
-                if (!demons.isEmpty()) {
-                    demons.remove(demons.size() - 1);
-                    simulationPanel.repaint();
-                    lastActionSuccessful = true;
-                    setStatusMessage("Demon removed");
-                } else {
-                    lastActionSuccessful = false;
-                    setStatusMessage("No demons to remove");
-                }
-            } catch (Exception ex) {
-                lastActionSuccessful = false;
-                setStatusMessage("Failed to remove demon: " + ex.getMessage());
-            }
+            mutateAndGet(SimulationEngine::removeLastDemon, removed -> {
+                lastActionSuccessful = removed;
+                setStatusMessage(removed ? "Demon removed" : "No demons to remove");
+            }, "Failed to remove demon: ");
         });
         
         // Configurar listeners para manipulación de partículas
@@ -426,6 +474,38 @@ public class MaxwellContainer extends JFrame {
             lastActionSuccessful = true;
         });
         
+        fillFastRegionButton.addActionListener(e -> {
+            resetInteractionModes();
+            fillFastRegionMode = true;
+            setCursor(Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR));
+            setStatusMessage("Drag a region to fill it with fast particles");
+            lastActionSuccessful = true;
+        });
+        
+        fillSlowRegionButton.addActionListener(e -> {
+            resetInteractionModes();
+            fillSlowRegionMode = true;
+            setCursor(Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR));
+            setStatusMessage("Drag a region to fill it with slow particles");
+            lastActionSuccessful = true;
+        });
+        
+        clearRegionButton.addActionListener(e -> {
+            resetInteractionModes();
+            clearRegionMode = true;
+            setCursor(Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR));
+            setStatusMessage("Drag a region to delete its particles and black holes");
+            lastActionSuccessful = true;
+        });
+        
+        scatterHolesButton.addActionListener(e -> {
+            resetInteractionModes();
+            scatterHolesMode = true;
+            setCursor(Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR));
+            setStatusMessage("Drag a region to scatter black holes in it");
+            lastActionSuccessful = true;
+        });
+        
         cancelButton.addActionListener(e -> {
             resetInteractionModes();
             setCursor(Cursor.getDefaultCursor());
@@ -440,39 +520,44 @@ public class MaxwellContainer extends JFrame {
                 // Obtener nuevas dimensiones desde los campos de texto
                 int newWidth = Integer.parseInt(widthField.getText());
                 int newHeight = Integer.parseInt(heightField.getText());
+                int newColumns = Integer.parseInt(chamberColumnsField.getText());
+                int newRows = Integer.parseInt(chamberRowsField.getText());
                 
                 // Validar dimensiones (asegurar que sean razonables)
                 if (newWidth < 200) newWidth = 200;
                 if (newHeight < 150) newHeight = 150;
                 
-                // Actualizar dimensiones del contenedor
-                containerWidth = newWidth;
-                containerHeight = newHeight;
+                // Validar cámaras: al menos dos y ninguna más pequeña que el mínimo
+                newColumns = ChamberGrid.clampColumns(newColumns, newWidth);
+                newRows = ChamberGrid.clampRows(newRows, newHeight);
+                if (newColumns * newRows < 2) newColumns = 2;
+                chamberColumnsField.setText(String.valueOf(newColumns));
+                chamberRowsField.setText(String.valueOf(newRows));
                 
-                // Actualizar tamaño del rectángulo del contenedor en el canvas
-                simulationPanel.updateContainerSize(containerWidth, containerHeight);
-                
-                // Actualizar tamaño del frame para acomodar el nuevo tamaño del contenedor
-                setSize(containerWidth + LEFT_MARGIN + RIGHT_MARGIN, 
-                       containerHeight + TOP_MARGIN + BOTTOM_MARGIN + 130);
-                
-                // Detener la simulación y reiniciar
-                timer.stop();
-                
-                // Limpiar partículas y entidades existentes
-                leftChamber.clear();
-                rightChamber.clear();
-                demons.clear();
-                blackHoles.clear();
-                
-                // Reinicializar la simulación
-                initializeMolecules();
-                addDemon();
-                
-                // Actualizar la interfaz
-                statusMessage = "Container size updated to " + containerWidth + "x" + containerHeight;
-                lastActionSuccessful = true;
-                simulationPanel.repaint();
+                // Actualizar dimensiones del contenedor (vacía cámaras, demonios y agujeros)
+                int width = newWidth, height = newHeight;
+                int columns = newColumns, rows = newRows;
+                mutate(engine -> engine.resize(width, height, columns, rows), () -> {
+                    // Actualizar tamaño del rectángulo del contenedor en el canvas
+                    simulationPanel.updateContainerSize(getContainerWidth(), getContainerHeight());
+                    
+                    // Actualizar tamaño del frame para acomodar el nuevo tamaño del contenedor
+                    setSize(getContainerWidth() + LEFT_MARGIN + RIGHT_MARGIN, 
+                           getContainerHeight() + TOP_MARGIN + BOTTOM_MARGIN + 160);
+                    
+                    // Detener la simulación y reiniciar
+                    timer.stop();
+                    
+                    // Reinicializar la simulación
+                    initializeMolecules();
+                    addDemon();
+                    
+                    // Actualizar la interfaz
+                    statusMessage = "Container size updated to " + getContainerWidth() + "x" + getContainerHeight() +
+                                    " (" + engine.getChamberGrid().getChamberCount() + " chambers)";
+                    lastActionSuccessful = true;
+                    requestRepaint();
+                }, "Failed to resize container: ");
                 
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(null, 
@@ -491,8 +576,8 @@ public class MaxwellContainer extends JFrame {
                 int x = e.getX();
                 int y = e.getY();
                 
-                if (x >= LEFT_MARGIN && x <= LEFT_MARGIN + containerWidth &&
-                    y >= TOP_MARGIN && y <= TOP_MARGIN + containerHeight) {
+                if (x >= LEFT_MARGIN && x <= LEFT_MARGIN + getContainerWidth() &&
+                    y >= TOP_MARGIN && y <= TOP_MARGIN + getContainerHeight()) {
                     
                     if (addRedParticleMode) {
                         addParticle(x, y, true);
@@ -511,262 +596,310 @@ public class MaxwellContainer extends JFrame {
                 }
             }
         });
-    }
-    
-    // Métodos de lógica de simulación
-    private void updateSimulation() {
-        updateMolecules(leftChamber, true);
-        updateMolecules(rightChamber, false);
         
-        for (Demon demon : demons) {
-            demon.operateGate(leftChamber, rightChamber, LEFT_MARGIN, containerWidth, SPEED_THRESHOLD);
-        }
+        // Arrastrar demonios a lo largo de la pared y redimensionarlos con la rueda del ratón
+        MouseAdapter demonDragHandler = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                draggedDemon = isInteractionModeActive() ? null : findDemonAt(e.getX(), e.getY());
+            }
+            
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (draggedDemon != null) {
+                    moveDemon(draggedDemon, draggedDemon.isHorizontal() ? e.getX() : e.getY());
+                    setStatusMessage("Demon moved");
+                }
+            }
+            
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                draggedDemon = null;
+            }
+            
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                Demon demon = isInteractionModeActive() ? null : findDemonAt(e.getX(), e.getY());
+                if (demon != null) {
+                    resizeDemon(demon, demon.getTriangleSize() - 2 * e.getWheelRotation());
+                }
+            }
+        };
+        simulationPanel.addMouseListener(demonDragHandler);
+        simulationPanel.addMouseMotionListener(demonDragHandler);
+        simulationPanel.addMouseWheelListener(demonDragHandler);
         
-        checkBlackHoleCollisions();
+        // Selección rectangular para las operaciones por región
+        MouseAdapter regionHandler = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (isRegionModeActive()) {
+                    selectionStartX = e.getX();
+                    selectionStartY = e.getY();
+                    simulationPanel.setSelection(selectionRectangle(e.getX(), e.getY()));
+                }
+            }
+            
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (isRegionModeActive()) {
+                    simulationPanel.setSelection(selectionRectangle(e.getX(), e.getY()));
+                }
+            }
+            
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                if (isRegionModeActive()) {
+                    Rectangle region = selectionRectangle(e.getX(), e.getY());
+                    simulationPanel.setSelection(null);
+                    applyRegionOperation(region);
+                }
+            }
+        };
+        simulationPanel.addMouseListener(regionHandler);
+        simulationPanel.addMouseMotionListener(regionHandler);
     }
     
-    private void initializeMolecules() {
+    private boolean isRegionModeActive() {
+        return fillFastRegionMode || fillSlowRegionMode || clearRegionMode || scatterHolesMode;
+    }
+    
+    // Rectángulo entre la esquina inicial y el punto actual, recortado al contenedor
+    private Rectangle selectionRectangle(int x, int y) {
+        int minX = Math.max(LEFT_MARGIN, Math.min(selectionStartX, x));
+        int minY = Math.max(TOP_MARGIN, Math.min(selectionStartY, y));
+        int maxX = Math.min(LEFT_MARGIN + getContainerWidth(), Math.max(selectionStartX, x));
+        int maxY = Math.min(TOP_MARGIN + getContainerHeight(), Math.max(selectionStartY, y));
+        return new Rectangle(minX, minY, Math.max(0, maxX - minX), Math.max(0, maxY - minY));
+    }
+    
+    private void applyRegionOperation(Rectangle region) {
+        int count;
         try {
-            leftChamber.clear();
-            rightChamber.clear();
-            
-            for (int i = 0; i < 50; i++) {
-                leftChamber.add(createRandomParticle(true));
-                rightChamber.add(createRandomParticle(false));
-            }
-            lastActionSuccessful = true;
-        } catch (Exception e) {
+            count = Math.max(0, Integer.parseInt(batchSizeField.getText().trim()));
+        } catch (NumberFormatException ex) {
             lastActionSuccessful = false;
-            setStatusMessage("Failed to initialize molecules: " + e.getMessage());
+            setStatusMessage("Batch size must be a number");
+            return;
+        }
+        
+        if (fillFastRegionMode) {
+            fillRegion(region, count, true);
+        } else if (fillSlowRegionMode) {
+            fillRegion(region, count, false);
+        } else if (clearRegionMode) {
+            clearRegion(region);
+        } else if (scatterHolesMode) {
+            scatterHoles(region, count);
         }
     }
     
-    private Particle createRandomParticle(boolean inLeftChamber) {
-        double x, y;
-        
-        if (inLeftChamber) {
-            x = LEFT_MARGIN + random.nextDouble() * (containerWidth / 2 - 20);
-            y = TOP_MARGIN + random.nextDouble() * (containerHeight - 20);
+    /**
+     * Llenar una región con partículas rápidas o lentas como una sola mutación:
+     * el índice se invalida una vez y el panel se repinta una vez
+     */
+    private void fillRegion(Rectangle region, int count, boolean isFast) {
+        mutate(engine -> engine.fillRegion(region.getX(), region.getY(), region.getWidth(), region.getHeight(),
+                                           count, isFast), () -> {
+            lastActionSuccessful = true;
+            setStatusMessage(count + (isFast ? " fast" : " slow") + " particles added");
+        }, "Failed to fill region: ");
+    }
+    
+    // Eliminar todas las partículas y agujeros negros de una región en una sola pasada por cámara
+    private void clearRegion(Rectangle region) {
+        double minX = region.getX();
+        double minY = region.getY();
+        mutateAndGet(engine -> {
+            int holesBefore = engine.getBlackHoles().size();
+            int particles = engine.clearRegion(minX, minY, minX + region.getWidth(), minY + region.getHeight());
+            return new int[] {particles, holesBefore - engine.getBlackHoles().size()};
+        }, removed -> {
+            lastActionSuccessful = true;
+            setStatusMessage(removed[0] + " particles and " + removed[1] + " black holes removed");
+        }, "Failed to clear region: ");
+    }
+    
+    // Repartir agujeros negros al azar dentro de una región
+    private void scatterHoles(Rectangle region, int count) {
+        mutate(engine -> engine.scatterHoles(region.getX(), region.getY(), region.getWidth(), region.getHeight(),
+                                             count), () -> {
+            lastActionSuccessful = true;
+            setStatusMessage(count + " black holes added");
+        }, "Failed to scatter black holes: ");
+    }
+    
+    private boolean isInteractionModeActive() {
+        return addRedParticleMode || addBlueParticleMode || removeParticleMode ||
+               addBlackHoleMode || removeBlackHoleMode || isRegionModeActive() ||
+               simulationPanel.isColorPaletteVisible();
+    }
+    
+    // Buscar el demonio bajo el cursor (el último dibujado queda encima)
+    private Demon findDemonAt(int x, int y) {
+        return engine.findDemonAt(x, y);
+    }
+    
+    // Mover un demonio a lo largo de su pared, manteniendo la puerta dentro del tramo de pared
+    private void moveDemon(Demon demon, int position) {
+        mutate(engine -> engine.moveDemon(demon, position), () -> {
+            lastActionSuccessful = true;
+            requestRepaint();
+        }, "Failed to move demon: ");
+    }
+    
+    // Cambiar el tamaño de un demonio sin que la puerta sobresalga del contenedor
+    private void resizeDemon(Demon demon, int size) {
+        mutate(engine -> engine.resizeDemon(demon, size), () -> {
+            lastActionSuccessful = true;
+            setStatusMessage("Demon size: " + demon.getTriangleSize());
+        }, "Failed to resize demon: ");
+    }
+    
+    /**
+     * Modificar el motor a través de su cola de órdenes y reaccionar cuando la
+     * orden se haya aplicado. El EDT es el dueño del motor salvo durante un
+     * avance rápido: normalmente es él quien vacía la cola y la respuesta se
+     * ejecuta antes de volver; durante un avance rápido la orden la aplica el
+     * hilo de trabajo en su siguiente límite de tic y la respuesta llega
+     * después al EDT.
+     * @param onApplied se ejecuta en el EDT con el resultado de la orden
+     * @param failure prefijo del mensaje de estado si la orden lanza una excepción
+     */
+    private <T> void mutateAndGet(Function<SimulationEngine, T> change, Consumer<T> onApplied, String failure) {
+        CompletableFuture<T> applied = submit(change);
+        if (applied.isDone()) {
+            respond(applied, onApplied, failure);
         } else {
-            x = LEFT_MARGIN + (containerWidth / 2) + random.nextDouble() * (containerWidth / 2 - 20);
-            y = TOP_MARGIN + random.nextDouble() * (containerHeight - 20);
+            applied.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> respond(applied, onApplied, failure)));
         }
-        
-        double velocityX = (random.nextDouble() - 0.5) * 10;
-        double velocityY = (random.nextDouble() - 0.5) * 10;
-        double speed = Math.sqrt(velocityX * velocityX + velocityY * velocityY);
-        
-        // Generar un colorId aleatorio entre 0-49
-        int colorId = random.nextInt(50);
-        
-        // Asignar color base según velocidad
-        Color baseColor = (speed >= SPEED_THRESHOLD) ? fastParticleColor : slowParticleColor;
-        
-        Particle p = new Particle(x, y, 5, velocityX, velocityY, speed, colorId);
-        p.setBaseColor(baseColor);
-        return p;
     }
     
-    private void updateMolecules(ArrayList<Particle> molecules, boolean isLeftChamber) {
-        int dividerX = LEFT_MARGIN + containerWidth / 2;
-        
-        for (Particle molecule : molecules) {
-            molecule.move();
-            
-            if (isLeftChamber) {
-                if (molecule.getX() < LEFT_MARGIN) {
-                    molecule.setX(LEFT_MARGIN);
-                    molecule.reverseXVelocity();
-                } else if (molecule.getX() > dividerX - 10) {
-                    molecule.setX(dividerX - 10);
-                    molecule.reverseXVelocity();
-                }
-            } else {
-                if (molecule.getX() < dividerX) {
-                    molecule.setX(dividerX);
-                    molecule.reverseXVelocity();
-                } else if (molecule.getX() > LEFT_MARGIN + containerWidth - 10) {
-                    molecule.setX(LEFT_MARGIN + containerWidth - 10);
-                    molecule.reverseXVelocity();
-                }
-            }
-            
-            if (molecule.getY() < TOP_MARGIN) {
-                molecule.setY(TOP_MARGIN);
-                molecule.reverseYVelocity();
-            } else if (molecule.getY() > TOP_MARGIN + containerHeight - 10) {
-                molecule.setY(TOP_MARGIN + containerHeight - 10);
-                molecule.reverseYVelocity();
+    // Igual que mutateAndGet() para órdenes sin resultado
+    private void mutate(SimulationEngine.Command command, Runnable onApplied, String failure) {
+        mutateAndGet(engine -> {
+            command.apply(engine);
+            return null;
+        }, ignored -> onApplied.run(), failure);
+    }
+    
+    /**
+     * Enviar una orden al motor. El futuro se completa con su resultado (o su
+     * excepción) cuando se aplica en un límite de tic, en el hilo que avanza el
+     * motor en ese momento.
+     */
+    private <T> CompletableFuture<T> submit(Function<SimulationEngine, T> change) {
+        CompletableFuture<T> applied = new CompletableFuture<>();
+        engine.post(engine -> {
+            try {
+                applied.complete(change.apply(engine));
+            } catch (RuntimeException e) {
+                applied.completeExceptionally(e);
             }
+        });
+        if (fastForwardTask == null) {
+            engine.drainCommands();
+            engine.publishPendingSnapshot();
         }
+        return applied;
     }
     
-    private void checkBlackHoleCollisions() {
-        for (Hole bh : blackHoles) {
-            if (bh.isFull()) continue; // Saltar agujeros negros llenos
-            
-            for (int i = leftChamber.size() - 1; i >= 0; i--) {
-                Particle m = leftChamber.get(i);
-                if (bh.canAbsorb(m)) {
-                    if (bh.absorbParticle()) {
-                        leftChamber.remove(i);
-                    }
-                }
-            }
-            
-            for (int i = rightChamber.size() - 1; i >= 0; i--) {
-                Particle m = rightChamber.get(i);
-                if (bh.canAbsorb(m)) {
-                    if (bh.absorbParticle()) {
-                        rightChamber.remove(i);
-                    }
-                }
-            }
+    private <T> void respond(CompletableFuture<T> applied, Consumer<T> onApplied, String failure) {
+        T result;
+        try {
+            result = applied.join();
+        } catch (CompletionException e) {
+            lastActionSuccessful = false;
+            setStatusMessage(failure + e.getCause().getMessage());
+            return;
         }
+        onApplied.accept(result);
+    }
+    
+    // Métodos de lógica de simulación
+    private void updateSimulation() {
+        engine.step();
+    }
+    
+    private void initializeMolecules() {
+        // 50 partículas por cámara con velocidades uniformes, como siempre
+        mutate(SimulationEngine::populateDefault, () -> lastActionSuccessful = true,
+               "Failed to initialize molecules: ");
+    }
+    
+    /**
+     * Reemplazar todas las partículas usando un inicializador configurado
+     * (cantidad, distribución de velocidades y espacial, semilla)
+     */
+    public void initializeParticles(ParticleInitializer initializer) {
+        mutate(engine -> engine.initializeParticles(initializer), () -> lastActionSuccessful = true,
+               "Failed to initialize molecules: ");
     }
     
     // Métodos de utilidad
     private void addDemon() {
-        try {
-            int minY = TOP_MARGIN + 50;
-            int maxY = TOP_MARGIN + containerHeight - 50;
-            
-            if (maxY <= minY) {
-                maxY = TOP_MARGIN + containerHeight - 20;
-                minY = TOP_MARGIN + 20;
-            }
-            
-            int randomY = minY + random.nextInt(Math.max(1, maxY - minY));
-            demons.add(new Demon(LEFT_MARGIN + containerWidth / 2, randomY));
+        // Elegir al azar una de las paredes interiores entre cámaras vecinas
+        mutate(SimulationEngine::addRandomDemon, () -> {
             lastActionSuccessful = true;
             setStatusMessage("Demon added successfully");
-        } catch (Exception e) {
-            lastActionSuccessful = false;
-            setStatusMessage("Failed to add demon: " + e.getMessage());
-        }
+        }, "Failed to add demon: ");
     }
     
-    private void addBlackHole(int x, int y) {
-        try {
-            // Verificar si estamos dentro de los límites válidos
-            if (x < LEFT_MARGIN || x > LEFT_MARGIN + containerWidth ||
-                y < TOP_MARGIN || y > TOP_MARGIN + containerHeight) {
-                lastActionSuccessful = false;
-                setStatusMessage("Cannot add black hole outside container");
-                return;
-            }
-            
-            // Generar un límite aleatorio entre 5 y 15 partículas
-            int absorptionLimit = 5 + random.nextInt(11);
-            blackHoles.add(new Hole(x, y, BLACK_HOLE_RADIUS, absorptionLimit));
-            setStatusMessage("Black hole added (capacity: " + absorptionLimit + ")");
+    /**
+     * Añade un demonio en la pared que separa dos cámaras vecinas
+     * @param low cámara a la izquierda (o encima) de la pared
+     * @param high cámara a la derecha (o debajo) de la pared
+     * @param along posición a lo largo de la pared, o -1 para una posición aleatoria
+     */
+    public void addDemonOnWall(int low, int high, int along) {
+        mutate(engine -> engine.addDemonOnWall(low, high, along), () -> {
             lastActionSuccessful = true;
-            simulationPanel.repaint();
-        } catch (Exception e) {
+            setStatusMessage("Demon added successfully");
+        }, "");
+    }
+    
+    private void addBlackHole(int x, int y) {
+        // Verificar si estamos dentro de los límites válidos
+        if (!engine.isInside(x, y)) {
             lastActionSuccessful = false;
-            setStatusMessage("Failed to add black hole: " + e.getMessage());
+            setStatusMessage("Cannot add black hole outside container");
+            return;
         }
+        
+        mutateAndGet(engine -> engine.addHole(x, y), hole -> {
+            lastActionSuccessful = true;
+            setStatusMessage("Black hole added (capacity: " + hole.getMaxAbsorbed() + ")");
+        }, "Failed to add black hole: ");
     }
     
     private void removeBlackHole(int x, int y) {
-        try {
-            for (int i = 0; i < blackHoles.size(); i++) {
-                Hole bh = blackHoles.get(i);
-                if (bh.contains(x, y)) {
-                    blackHoles.remove(i);
-                    setStatusMessage("Black hole removed");
-                    lastActionSuccessful = true;
-                    simulationPanel.repaint();
-                    return;
-                }
-            }
-            setStatusMessage("No black hole found at that position");
-            lastActionSuccessful = false;
-        } catch (Exception e) {
-            lastActionSuccessful = false;
-            setStatusMessage("Failed to remove black hole: " + e.getMessage());
-        }
+        // Seleccionar el agujero más cercano al clic a través del índice espacial
+        mutateAndGet(engine -> engine.removeHoleAt(x, y), hole -> {
+            lastActionSuccessful = hole != null;
+            setStatusMessage(hole != null ? "Black hole removed" : "No black hole found at that position");
+        }, "Failed to remove black hole: ");
     }
     
     private void addParticle(int x, int y, boolean isFast) {
-        try {
-            // Verificar si estamos dentro de los límites válidos
-            if (x < LEFT_MARGIN || x > LEFT_MARGIN + containerWidth ||
-                y < TOP_MARGIN || y > TOP_MARGIN + containerHeight) {
-                lastActionSuccessful = false;
-                setStatusMessage("Cannot add particle outside container");
-                return;
-            }
-            
-            double velocityX = (random.nextDouble() - 0.5) * 8;
-            double velocityY = (random.nextDouble() - 0.5) * 8;
-            double speed;
-            
-            if (isFast) {
-                speed = SPEED_THRESHOLD + 2 + random.nextDouble() * 4;
-            } else {
-                speed = 1 + random.nextDouble() * (SPEED_THRESHOLD - 1.5);
-            }
-            
-            // Generar un colorId aleatorio entre 0-49
-            int colorId = random.nextInt(50);
-            
-            // Crear la partícula y establecer el color base según tipo
-            Particle newParticle = new Particle(x, y, 5, velocityX, velocityY, speed, colorId);
-            newParticle.setBaseColor(isFast ? fastParticleColor : slowParticleColor);
-            
-            int dividerX = LEFT_MARGIN + containerWidth / 2;
-            if (x < dividerX) {
-                leftChamber.add(newParticle);
-            } else {
-                rightChamber.add(newParticle);
-            }
-            
-            lastActionSuccessful = true;
-            simulationPanel.repaint();
-        } catch (Exception e) {
+        // Verificar si estamos dentro de los límites válidos
+        if (!engine.isInside(x, y)) {
             lastActionSuccessful = false;
-            setStatusMessage("Failed to add particle: " + e.getMessage());
+            setStatusMessage("Cannot add particle outside container");
+            return;
         }
+        
+        mutate(engine -> engine.addParticle(x, y, isFast), () -> {
+            lastActionSuccessful = true;
+            requestRepaint();
+        }, "Failed to add particle: ");
     }
     
     private void removeParticle(int x, int y) {
-        try {
-            // Check left chamber
-            for (int i = 0; i < leftChamber.size(); i++) {
-                Particle m = leftChamber.get(i);
-                if (isPointOnParticle(x, y, m)) {
-                    leftChamber.remove(i);
-                    setStatusMessage("Particle removed");
-                    lastActionSuccessful = true;
-                    simulationPanel.repaint();
-                    return;
-                }
-            }
-            
-            // Check right chamber
-            for (int i = 0; i < rightChamber.size(); i++) {
-                Particle m = rightChamber.get(i);
-                if (isPointOnParticle(x, y, m)) {
-                    rightChamber.remove(i);
-                    setStatusMessage("Particle removed");
-                    lastActionSuccessful = true;
-                    simulationPanel.repaint();
-                    return;
-                }
-            }
-            
-            setStatusMessage("No particle found at that position");
-            lastActionSuccessful = false;
-        } catch (Exception e) {
-            lastActionSuccessful = false;
-            setStatusMessage("Failed to remove particle: " + e.getMessage());
-        }
-    }
-    
-    private boolean isPointOnParticle(int x, int y, Particle p) {
-        // Utilizamos el método contains de Circle
-        return p.contains(x, y);
+        // Seleccionar la partícula más cercana al clic a través del índice espacial
+        mutateAndGet(engine -> engine.removeParticleAt(x, y), removed -> {
+            lastActionSuccessful = removed;
+            setStatusMessage(removed ? "Particle removed" : "No particle found at that position");
+        }, "Failed to remove particle: ");
     }
     
     private void resetInteractionModes() {
@@ -775,28 +908,136 @@ public class MaxwellContainer extends JFrame {
         removeParticleMode = false;
         addBlackHoleMode = false;
         removeBlackHoleMode = false;
+        fillFastRegionMode = false;
+        fillSlowRegionMode = false;
+        clearRegionMode = false;
+        scatterHolesMode = false;
         setCursor(Cursor.getDefaultCursor());
         setStatusMessage("");
     }
     
+    /**
+     * Avanzar la simulación sin dibujar en un hilo de trabajo. Un diálogo modal
+     * muestra el progreso y permite cancelar; mientras tanto el Canvas no dibuja
+     * la escena y al terminar se repinta con el estado final.
+     * @param untilStable detenerse antes si la fracción de partículas en la primera cámara se estabiliza
+     */
+    private void fastForward(long steps, boolean untilStable) {
+        if (fastForwardTask != null) {
+            lastActionSuccessful = false;
+            setStatusMessage("A fast-forward is already running");
+            return;
+        }
+        if (steps < 1) {
+            lastActionSuccessful = false;
+            setStatusMessage("The number of steps must be positive");
+            return;
+        }
+        
+        boolean wasRunning = timer.isRunning();
+        timer.stop();
+        resetInteractionModes();
+        setCursor(Cursor.getDefaultCursor());
+        
+        FastForward task = new FastForward(engine, steps);
+        if (untilStable) {
+            task.setConvergence(m -> m.getParticleCount() == 0 ? 0.0 : (double) m.getLeftCount() / m.getParticleCount(),
+                                0.01, 5);
+        }
+        fastForwardTask = task;
+        requestRepaint();
+        
+        // Diálogo de progreso con botón de cancelar
+        JDialog progressDialog = new JDialog(this, "Fast Forward", true);
+        progressDialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        JProgressBar progressBar = new JProgressBar(0, 1000);
+        progressBar.setStringPainted(true);
+        JButton cancelFastForwardButton = new JButton("Cancel");
+        cancelFastForwardButton.addActionListener(e -> task.cancel());
+        JPanel progressPanel = new JPanel(new BorderLayout(5, 5));
+        progressPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        progressPanel.add(progressBar, BorderLayout.CENTER);
+        progressPanel.add(cancelFastForwardButton, BorderLayout.SOUTH);
+        progressDialog.add(progressPanel);
+        progressDialog.pack();
+        progressDialog.setLocationRelativeTo(this);
+        
+        SwingWorker<Long, Long> worker = new SwingWorker<Long, Long>() {
+            @Override
+            protected Long doInBackground() {
+                task.setProgressListener((done, max, metrics) -> publish(done));
+                return task.run();
+            }
+            
+            @Override
+            protected void process(List<Long> chunks) {
+                // Solo interesa el último valor; los anteriores ya quedaron atrás
+                long done = chunks.get(chunks.size() - 1);
+                progressBar.setValue((int) (1000 * done / steps));
+                progressBar.setString(done + " / " + steps + " steps");
+            }
+            
+            @Override
+            protected void done() {
+                fastForwardTask = null;
+                progressDialog.dispose();
+                try {
+                    long done = get();
+                    lastActionSuccessful = true;
+                    if (task.isConverged()) {
+                        setStatusMessage("Fast-forward converged after " + done + " steps");
+                    } else if (task.isCancelled()) {
+                        setStatusMessage("Fast-forward cancelled after " + done + " steps");
+                    } else {
+                        setStatusMessage("Fast-forwarded " + done + " steps");
+                    }
+                } catch (InterruptedException | ExecutionException ex) {
+                    lastActionSuccessful = false;
+                    setStatusMessage("Fast-forward failed: " + ex.getMessage());
+                }
+                if (wasRunning) {
+                    timer.start();
+                }
+            }
+        };
+        worker.execute();
+        progressDialog.setVisible(true);
+    }
+    
+    // Mientras hay un avance rápido en curso el motor cambia en otro hilo y no se dibuja
+    public boolean isFastForwarding() {
+        return fastForwardTask != null;
+    }
+    
     private void setStatusMessage(String message) {
         statusMessage = message;
-        if (isSimulatorVisible) {
-            simulationPanel.repaint();
+        requestRepaint();
+    }
+    
+    // Pedir un repintado; las peticiones se agrupan en uno por periodo y se ignoran con el simulador oculto
+    private void requestRepaint() {
+        if (isSimulatorVisible && !repaintTimer.isRunning()) {
+            repaintTimer.start();
         }
     }
     
     private void hideSimulator() {
         isSimulatorVisible = false;
+        repaintTimer.stop();
+        // Oculto no se dibuja nada: el motor deja de copiar su estado en instantáneas
+        mutate(engine -> engine.setSnapshotsEnabled(false), () -> { }, "");
         setVisible(false);
         statusWindow.setVisible(true);
+        statusTimer.start();
     }
     
     private void showSimulator() {
         isSimulatorVisible = true;
+        statusTimer.stop();
+        mutate(engine -> engine.setSnapshotsEnabled(true), this::requestRepaint, "");
         setVisible(true);
         statusWindow.setVisible(false);
-        simulationPanel.repaint();
+        requestRepaint();
     }
     
     private void confirmExit() {
@@ -810,6 +1051,8 @@ public class MaxwellContainer extends JFrame {
         
         if (response == JOptionPane.YES_OPTION) {
             timer.stop();
+            statusTimer.stop();
+            repaintTimer.stop();
             statusWindow.dispose();
             dispose();
             System.exit(0);
@@ -818,25 +1061,33 @@ public class MaxwellContainer extends JFrame {
     
     // Métodos para contar y acceder a propiedades
     public int countRedMolecules() {
-        int count = 0;
-        for (Particle m : leftChamber) {
-            if (m.getSpeed() >= SPEED_THRESHOLD) count++;
-        }
-        for (Particle m : rightChamber) {
-            if (m.getSpeed() >= SPEED_THRESHOLD) count++;
-        }
-        return count;
+        return engine.countFast();
     }
     
     public int countBlueMolecules() {
-        int count = 0;
-        for (Particle m : leftChamber) {
-            if (m.getSpeed() < SPEED_THRESHOLD) count++;
-        }
-        for (Particle m : rightChamber) {
-            if (m.getSpeed() < SPEED_THRESHOLD) count++;
-        }
-        return count;
+        return engine.countSlow();
+    }
+    
+    // Activar o desactivar el campo de atracción en todos los agujeros negros
+    public void setHoleGravityEnabled(boolean enabled) {
+        mutate(engine -> engine.setHoleGravityEnabled(enabled), () -> {
+            lastActionSuccessful = true;
+            setStatusMessage(enabled ? "Hole gravity enabled" : "Hole gravity disabled");
+        }, "Failed to toggle hole gravity: ");
+    }
+    
+    // Métricas agregadas de la simulación, incluida la contabilidad de los demonios
+    public SimulationMetrics getMetrics() {
+        return engine.getMetrics();
+    }
+    
+    /**
+     * Última instantánea publicada por el motor, retenida; hay que cerrarla al
+     * terminar de leerla. Se puede leer desde cualquier hilo, también durante
+     * un avance rápido.
+     */
+    public SimulationSnapshot acquireSnapshot() {
+        return engine.acquireSnapshot();
     }
     
     // Métodos para establecer colores de partículas desde la paleta
@@ -845,7 +1096,6 @@ public class MaxwellContainer extends JFrame {
             fastParticleColor = color;
             fastColorButton.setBackground(fastParticleColor);
             fastColorButton.setForeground(getContrastColor(fastParticleColor));
-            updateParticleColors();
             lastActionSuccessful = true;
             setStatusMessage("Color de partículas rápidas actualizado");
         } else {
@@ -855,7 +1105,7 @@ public class MaxwellContainer extends JFrame {
             lastActionSuccessful = false;
             setStatusMessage("Error: colores de partículas deben ser diferentes");
         }
-        simulationPanel.repaint();
+        requestRepaint();
     }
 
     public void setSlowParticleColor(Color color) {
@@ -863,7 +1113,6 @@ public class MaxwellContainer extends JFrame {
             slowParticleColor = color;
             slowColorButton.setBackground(slowParticleColor);
             slowColorButton.setForeground(getContrastColor(slowParticleColor));
-            updateParticleColors();
             lastActionSuccessful = true;
             setStatusMessage("Color de partículas lentas actualizado");
         } else {
@@ -873,19 +1122,23 @@ public class MaxwellContainer extends JFrame {
             lastActionSuccessful = false;
             setStatusMessage("Error: colores de partículas deben ser diferentes");
         }
-        simulationPanel.repaint();
+        requestRepaint();
     }
     
     // Getters para el Canvas y otras clases
-    public ArrayList<Particle> getLeftChamber() { return leftChamber; }
-    public ArrayList<Particle> getRightChamber() { return rightChamber; }
-    public ArrayList<Demon> getDemons() { return demons; }
-    public ArrayList<Hole> getBlackHoles() { return blackHoles; }
-    public int getContainerWidth() { return containerWidth; }
-    public int getContainerHeight() { return containerHeight; }
+    // Izquierda y derecha son las dos primeras cámaras (compatibilidad con el modo de dos cámaras)
+    public ArrayList<Particle> getLeftChamber() { return engine.getChambers().get(0); }
+    public ArrayList<Particle> getRightChamber() { return engine.getChambers().get(1); }
+    public ArrayList<ArrayList<Particle>> getChambers() { return engine.getChambers(); }
+    public ChamberGrid getChamberGrid() { return engine.getChamberGrid(); }
+    public ArrayList<Demon> getDemons() { return engine.getDemons(); }
+    public ArrayList<Hole> getBlackHoles() { return engine.getBlackHoles(); }
+    public SimulationEngine getEngine() { return engine; }
+    public int getContainerWidth() { return engine.getWidth(); }
+    public int getContainerHeight() { return engine.getHeight(); }
     public int getLeftMargin() { return LEFT_MARGIN; }
     public int getTopMargin() { return TOP_MARGIN; }
-    public double getSpeedThreshold() { return SPEED_THRESHOLD; }
+    public double getSpeedThreshold() { return SimulationEngine.SPEED_THRESHOLD; }
     public String getStatusMessage() { return statusMessage; }
     public Color getFastParticleColor() { return fastParticleColor; }
     public Color getSlowParticleColor() { return slowParticleColor; }
@@ -0,0 +1,59 @@
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cola sin bloqueos de varios productores y un solo consumidor (algoritmo
+ * de Vyukov con nodo centinela).
+ *
+ * offer() puede llamarse desde cualquier hilo: cada productor solo hace un
+ * getAndSet sobre la cola y un enlace volátil, sin bucles de reintento.
+ * poll() e isEmpty() solo puede llamarlos el hilo consumidor. Un elemento
+ * cuyo productor aún no ha completado el enlace no es visible todavía; el
+ * consumidor lo verá en su siguiente pasada, nunca se pierde.
+ */
+public class MpscQueue<T> {
+
+    private static final class Node<T> {
+        T value;
+        volatile Node<T> next;
+
+        Node(T value) {
+            this.value = value;
+        }
+    }
+
+    private final AtomicReference<Node<T>> tail;
+    private Node<T> head; // Centinela; solo lo toca el consumidor
+
+    public MpscQueue() {
+        Node<T> stub = new Node<>(null);
+        head = stub;
+        tail = new AtomicReference<>(stub);
+    }
+
+    // Encolar desde cualquier hilo
+    public void offer(T value) {
+        if (value == null) {
+            throw new NullPointerException("La cola no admite elementos nulos");
+        }
+        Node<T> node = new Node<>(value);
+        Node<T> previous = tail.getAndSet(node);
+        previous.next = node;
+    }
+
+    // Sacar el elemento más antiguo; null si no hay ninguno visible (solo el consumidor)
+    public T poll() {
+        Node<T> next = head.next;
+        if (next == null) {
+            return null;
+        }
+        T value = next.value;
+        next.value = null; // El nodo pasa a ser el centinela
+        head = next;
+        return value;
+    }
+
+    // Solo el consumidor
+    public boolean isEmpty() {
+        return head.next == null;
+    }
+}
@@ -0,0 +1,61 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la cola de órdenes y de su vaciado en el motor.
+ */
+public class MpscQueueTest {
+
+    @Test
+    public void testConcurrentProducersKeepPerProducerOrder() throws InterruptedException {
+        MpscQueue<int[]> queue = new MpscQueue<>();
+        int producers = 4;
+        int perProducer = 20000;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int id = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    queue.offer(new int[] {id, i});
+                }
+            });
+            threads[p].start();
+        }
+
+        // El consumidor vacía mientras los productores siguen encolando
+        int[] next = new int[producers];
+        int received = 0;
+        while (received < producers * perProducer) {
+            int[] item = queue.poll();
+            if (item == null) {
+                Thread.yield();
+                continue;
+            }
+            assertEquals(next[item[0]]++, item[1], "Orden alterado para el productor " + item[0]);
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testPostedCommandsApplyAtNextStep() {
+        SimulationEngine engine = new SimulationEngine(50, 50, 700, 500, 2, 1, 20261019L);
+        engine.reset();
+        int before = engine.getParticleCount();
+
+        engine.post(e -> e.addParticle(100, 100, true));
+        engine.post(e -> e.addParticle(10, 10, true)); // Fuera del contenedor: falla
+        assertEquals(before, engine.getParticleCount(), "La orden se aplicó antes del límite de tic");
+
+        int[] errors = new int[1];
+        engine.setCommandErrorHandler(e -> errors[0]++);
+        engine.step();
+        assertEquals(before + 1, engine.getParticleCount());
+        assertEquals(1, errors[0]);
+        assertEquals(0, engine.drainCommands());
+    }
+}
@@ -0,0 +1,307 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * Almacén de partículas fuera del montón de Java.
+ *
+ * Cada campo es una columna propia (x, y, vx, vy como double; marca de
+ * ventana como int; radio y cámara como short; color como byte) en un
+ * búfer directo o en una región de un archivo proyectado en memoria. El recolector no recorre ni copia
+ * estos datos, así que decenas de millones de partículas no alargan las
+ * pausas ni obligan a un montón enorme; con un archivo, el sistema operativo
+ * pagina los datos y el estado puede superar la RAM y sobrevivir a un
+ * reinicio (al volver a abrir el archivo se recuperan las partículas).
+ *
+ * Formato del archivo: una cabecera de 64 bytes (int MAGIC, versión,
+ * capacidad, partículas) seguida de las columnas, cada una con sitio para
+ * toda la capacidad. La capacidad se fija al crear el almacén; como cada
+ * columna es un único búfer, no puede pasar de MAX_CAPACITY partículas.
+ *
+ * No es seguro para varios hilos, como el motor.
+ */
+public final class OffHeapParticleStore implements ParticleStore, AutoCloseable {
+    public static final int MAGIC = 0x4D585053; // "MXPS"
+    public static final int FORMAT_VERSION = 2;
+    public static final int HEADER_BYTES = 64;
+    public static final int RECORD_BYTES = 4 * 8 + 4 + 2 + 2 + 1;
+    public static final int MAX_CAPACITY = Integer.MAX_VALUE / 8;
+
+    private static final int COUNT_OFFSET = 12;
+
+    private final int capacity;
+    private int count;
+
+    private final FileChannel file;     // null = memoria directa
+    private final ByteBuffer header;    // Solo con archivo
+    private final ArrayList<MappedByteBuffer> regions = new ArrayList<>();
+
+    private final DoubleBuffer x, y, velocityX, velocityY;
+    private final IntBuffer windowMark;
+    private final ShortBuffer radius, chamber;
+    private final ByteBuffer colorId;
+
+    // Almacén en memoria directa
+    public static OffHeapParticleStore allocate(int capacity) {
+        checkCapacity(capacity);
+        return new OffHeapParticleStore(capacity);
+    }
+
+    /**
+     * Abrir un almacén proyectado sobre un archivo. Si el archivo ya contiene
+     * un almacén se recuperan su capacidad y sus partículas (la capacidad
+     * pedida se ignora); si no existe o está vacío se crea con esa capacidad.
+     */
+    public static OffHeapParticleStore open(Path path, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                                               StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            int count = 0;
+            if (channel.size() >= HEADER_BYTES) {
+                ByteBuffer existing = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+                channel.read(existing, 0);
+                if (existing.getInt(0) != MAGIC || existing.getInt(4) != FORMAT_VERSION) {
+                    throw new IOException("El archivo no es un almacén de partículas: " + path);
+                }
+                capacity = existing.getInt(8);
+                count = existing.getInt(COUNT_OFFSET);
+                if (count < 0 || count > capacity
+                    || channel.size() < HEADER_BYTES + (long) capacity * RECORD_BYTES) {
+                    throw new IOException("Almacén de partículas dañado: " + path);
+                }
+            } else {
+                checkCapacity(capacity);
+            }
+            return new OffHeapParticleStore(channel, capacity, count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void checkCapacity(int capacity) {
+        if (capacity < 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacidad fuera de 0-" + MAX_CAPACITY + ": " + capacity);
+        }
+    }
+
+    private OffHeapParticleStore(int capacity) {
+        this.capacity = capacity;
+        this.file = null;
+        this.header = null;
+        x = direct(capacity * 8).asDoubleBuffer();
+        y = direct(capacity * 8).asDoubleBuffer();
+        velocityX = direct(capacity * 8).asDoubleBuffer();
+        velocityY = direct(capacity * 8).asDoubleBuffer();
+        windowMark = direct(capacity * 4).asIntBuffer();
+        radius = direct(capacity * 2).asShortBuffer();
+        chamber = direct(capacity * 2).asShortBuffer();
+        colorId = direct(capacity);
+    }
+
+    private OffHeapParticleStore(FileChannel file, int capacity, int count) throws IOException {
+        this.capacity = capacity;
+        this.count = count;
+        this.file = file;
+        header = map(0, HEADER_BYTES);
+        header.putInt(0, MAGIC).putInt(4, FORMAT_VERSION).putInt(8, capacity).putInt(COUNT_OFFSET, count);
+
+        long offset = HEADER_BYTES;
+        x = map(offset, capacity * 8).asDoubleBuffer();
+        offset += capacity * 8L;
+        y = map(offset, capacity * 8).asDoubleBuffer();
+        offset += capacity * 8L;
+        velocityX = map(offset, capacity * 8).asDoubleBuffer();
+        offset += capacity * 8L;
+        velocityY = map(offset, capacity * 8).asDoubleBuffer();
+        offset += capacity * 8L;
+        windowMark = map(offset, capacity * 4).asIntBuffer();
+        offset += capacity * 4L;
+        radius = map(offset, capacity * 2).asShortBuffer();
+        offset += capacity * 2L;
+        chamber = map(offset, capacity * 2).asShortBuffer();
+        offset += capacity * 2L;
+        colorId = map(offset, capacity);
+    }
+
+    private static ByteBuffer direct(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Proyectar una región del archivo (lo amplía si hace falta)
+    private ByteBuffer map(long offset, int bytes) throws IOException {
+        MappedByteBuffer region = file.map(FileChannel.MapMode.READ_WRITE, offset, bytes);
+        regions.add(region);
+        return region.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public double getX(int i) {
+        return x.get(check(i));
+    }
+
+    @Override
+    public double getY(int i) {
+        return y.get(check(i));
+    }
+
+    @Override
+    public double getVelocityX(int i) {
+        return velocityX.get(check(i));
+    }
+
+    @Override
+    public double getVelocityY(int i) {
+        return velocityY.get(check(i));
+    }
+
+    @Override
+    public int getRadius(int i) {
+        return radius.get(check(i));
+    }
+
+    @Override
+    public int getColorId(int i) {
+        return colorId.get(check(i));
+    }
+
+    @Override
+    public int getChamber(int i) {
+        return chamber.get(check(i));
+    }
+
+    @Override
+    public int getWindowMark(int i) {
+        return windowMark.get(check(i));
+    }
+
+    @Override
+    public void setX(int i, double value) {
+        x.put(check(i), value);
+    }
+
+    @Override
+    public void setY(int i, double value) {
+        y.put(check(i), value);
+    }
+
+    @Override
+    public void setVelocity(int i, double vx, double vy) {
+        velocityX.put(check(i), vx);
+        velocityY.put(i, vy);
+    }
+
+    @Override
+    public void setChamber(int i, int value) {
+        chamber.put(check(i), (short) value);
+    }
+
+    @Override
+    public void setWindowMark(int i, int mark) {
+        windowMark.put(check(i), mark);
+    }
+
+    // Avance sin pasar por los accesores: una lectura y una escritura por columna
+    @Override
+    public void move(int i, double dt) {
+        check(i);
+        x.put(i, x.get(i) + velocityX.get(i) * dt);
+        y.put(i, y.get(i) + velocityY.get(i) * dt);
+    }
+
+    @Override
+    public int add(double px, double py, int r, double vx, double vy, int color, int c) {
+        if (count == capacity) {
+            throw new IllegalStateException("El almacén de partículas está lleno (" + capacity + ")");
+        }
+        int i = count;
+        x.put(i, px);
+        y.put(i, py);
+        velocityX.put(i, vx);
+        velocityY.put(i, vy);
+        windowMark.put(i, 0);
+        radius.put(i, (short) r);
+        colorId.put(i, (byte) color);
+        chamber.put(i, (short) c);
+        setCount(count + 1);
+        return i;
+    }
+
+    @Override
+    public void remove(int i) {
+        int last = count - 1;
+        if (check(i) != last) {
+            x.put(i, x.get(last));
+            y.put(i, y.get(last));
+            velocityX.put(i, velocityX.get(last));
+            velocityY.put(i, velocityY.get(last));
+            windowMark.put(i, windowMark.get(last));
+            radius.put(i, radius.get(last));
+            colorId.put(i, colorId.get(last));
+            chamber.put(i, chamber.get(last));
+        }
+        setCount(last);
+    }
+
+    @Override
+    public void clear() {
+        setCount(0);
+    }
+
+    // El número de partículas se guarda también en la cabecera del archivo
+    private void setCount(int count) {
+        this.count = count;
+        if (header != null) {
+            header.putInt(COUNT_OFFSET, count);
+        }
+    }
+
+    // Las columnas tienen sitio para toda la capacidad: no dejar leer partículas quitadas
+    private int check(int i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Índice " + i + " fuera de 0-" + (count - 1));
+        }
+        return i;
+    }
+
+    public boolean isFileBacked() {
+        return file != null;
+    }
+
+    // Escribir en el archivo los cambios pendientes (sin efecto en memoria directa)
+    public void flush() {
+        for (MappedByteBuffer region : regions) {
+            region.force();
+        }
+    }
+
+    /**
+     * Volcar y cerrar el archivo. Las regiones proyectadas se liberan cuando
+     * el recolector descarta el almacén; no debe usarse después de cerrarlo.
+     */
+    @Override
+    public void close() throws IOException {
+        if (file != null) {
+            flush();
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Pruebas del almacén de partículas fuera del montón y de los bucles que lo recorren.
+ */
+public class OffHeapParticleStoreTest {
+
+    @Test
+    public void testStoreGateMatchesObjectGate() {
+        Random random = new Random(47L);
+        ArrayList<Particle> left = new ArrayList<>();
+        ArrayList<Particle> right = new ArrayList<>();
+        OffHeapParticleStore store = OffHeapParticleStore.allocate(400);
+        for (int i = 0; i < 400; i++) {
+            int chamber = i % 2;
+            // Partículas concentradas alrededor de la puerta, en x = 200
+            double x = chamber == 0 ? 180 + random.nextDouble() * 15 : 205 + random.nextDouble() * 15;
+            Particle p = new Particle(x, 80 + random.nextDouble() * 40, 5,
+                                      random.nextDouble() * 16 - 8, random.nextDouble() * 4 - 2, i % 50);
+            p.setChamber(chamber);
+            (chamber == 0 ? left : right).add(p);
+            store.add(p);
+        }
+
+        Demon objectDemon = new Demon(200, 100, false, 0, 1);
+        Demon storeDemon = new Demon(200, 100, false, 0, 1);
+        objectDemon.operateGate(left, right, 0, 400, Particle.FAST_SPEED_THRESHOLD);
+        storeDemon.operateGate(store, Particle.FAST_SPEED_THRESHOLD);
+
+        assertTrue(objectDemon.getTransfersLeftToRight() > 0);
+        assertEquals(objectDemon.getMeasurements(), storeDemon.getMeasurements());
+        assertEquals(objectDemon.getTransfersLeftToRight(), storeDemon.getTransfersLeftToRight());
+        assertEquals(objectDemon.getTransfersRightToLeft(), storeDemon.getTransfersRightToLeft());
+        assertEquals(objectDemon.getEnergyMovedToRight(), storeDemon.getEnergyMovedToRight(), 1e-9);
+
+        int storeRight = 0;
+        for (int i = 0; i < store.size(); i++) {
+            if (store.getChamber(i) == 1) {
+                storeRight++;
+            }
+        }
+        assertEquals(right.size(), storeRight);
+
+        Hole hole = new Hole(190, 100, 15, 1000);
+        int objectHits = 0;
+        for (Particle p : left) {
+            objectHits += hole.canAbsorb(p) ? 1 : 0;
+        }
+        for (Particle p : right) {
+            objectHits += hole.canAbsorb(p) ? 1 : 0;
+        }
+        int storeHits = 0;
+        for (int i = 0; i < store.size(); i++) {
+            storeHits += hole.canAbsorb(store, i) ? 1 : 0;
+        }
+        assertEquals(objectHits, storeHits);
+    }
+
+    @Test
+    public void testStoreSimulationMatchesTheEngineStep() {
+        // Sin agujeros ni paso adaptativo el motor da un solo avance por paso, como el banco de pruebas
+        SimulationEngine engine = new SimulationEngine(0, 0, 400, 200, 2, 1, 7L);
+        engine.populateDefault();
+        Demon engineDemon = engine.addDemonOnWall(0, 1, 100);
+
+        OffHeapParticleStore store = OffHeapParticleStore.allocate(200);
+        for (ArrayList<Particle> chamber : engine.getChambers()) {
+            for (Particle p : chamber) {
+                store.add(p);
+            }
+        }
+        StoreSimulation simulation = new StoreSimulation(engine.getChamberGrid(), store);
+        Demon storeDemon = simulation.addDemonOnWall(0, 1, 100);
+
+        for (int s = 0; s < 200; s++) {
+            engine.step();
+            simulation.step();
+        }
+        assertTrue(engineDemon.getTransfersLeftToRight() > 0);
+        assertEquals(engineDemon.getMeasurements(), storeDemon.getMeasurements());
+        assertEquals(engineDemon.getTransfersLeftToRight(), storeDemon.getTransfersLeftToRight());
+        assertEquals(engineDemon.getTransfersRightToLeft(), storeDemon.getTransfersRightToLeft());
+
+        double engineSum = 0.0;
+        for (ArrayList<Particle> chamber : engine.getChambers()) {
+            for (Particle p : chamber) {
+                engineSum += p.getX() + 1000 * p.getChamber();
+            }
+        }
+        double storeSum = 0.0;
+        for (int i = 0; i < store.size(); i++) {
+            storeSum += store.getX(i) + 1000 * store.getChamber(i);
+        }
+        assertEquals(engineSum, storeSum, 1e-6);
+    }
+
+    @Test
+    public void testMappedStoreSurvivesReopening() throws Exception {
+        Path file = Files.createTempFile("particles", ".store");
+        try {
+            try (OffHeapParticleStore store = OffHeapParticleStore.open(file, 100)) {
+                assertTrue(store.isFileBacked());
+                for (int i = 0; i < 10; i++) {
+                    store.add(10.0 * i, 20.0 * i, 5, i, -i, i, i % 2);
+                }
+                store.setWindowMark(9, 7);
+                store.remove(2); // La última partícula (9) pasa al índice 2
+                assertEquals(9, store.size());
+                assertThrows(IndexOutOfBoundsException.class, () -> store.getX(9));
+            }
+
+            try (OffHeapParticleStore store = OffHeapParticleStore.open(file, 5)) {
+                assertEquals(100, store.capacity());
+                assertEquals(9, store.size());
+                assertEquals(90.0, store.getX(2), 0.0);
+                assertEquals(-9.0, store.getVelocityY(2), 0.0);
+                assertEquals(1, store.getChamber(2));
+                assertEquals(7, store.getWindowMark(2));
+                assertEquals(0, store.getWindowMark(3));
+                assertEquals(30.0, store.getX(3), 0.0);
+                assertEquals(5, store.getRadius(3));
+
+                StoreSimulation simulation = new StoreSimulation(new ChamberGrid(0, 0, 400, 200, 2, 1), store);
+                simulation.run(10);
+                assertEquals(9, store.size());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
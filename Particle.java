@@ -74,19 +74,40 @@ public class Particle extends Circle {
         new Color(220, 220, 220)   // Gainsboro (gris pálido)
     };
 
+    // Rapidez a partir de la cual una partícula se clasifica como rápida
+    public static final double FAST_SPEED_THRESHOLD = 5.0;
+    private static final double FAST_SPEED_THRESHOLD_SQUARED = FAST_SPEED_THRESHOLD * FAST_SPEED_THRESHOLD;
+
     private double velocityX, velocityY;
-    private double speed;
-    private Color color;     // Color de identificación individual (de la paleta)
-    private Color baseColor; // Color base según velocidad (rápido/lento)
-    private int colorId;     // ID del color (0-49)
+    private double speedSquared; // Derivada del vector; se guarda al cuadrado para comparar sin sqrt
+    private boolean fast;        // Clasificación rápida/lenta, recalculada solo al cambiar la velocidad
+    private byte colorId;        // Índice en COLOR_PALETTE (0-49); el Color se resuelve al dibujar
+    private short chamber;   // Índice de la cámara que contiene la partícula
+    private int slot;        // Posición en la lista de su cámara (la mantiene el motor)
+    private int gridCell = -1, gridSlot; // Celda y posición en una ParticleGrid; -1 = fuera de la rejilla
+    private boolean countedFast; // Clasificación con la que la cuenta el motor (la mantiene el motor)
+    private int windowMark;      // Demonio que la midió en la ventana en la que está; 0 = ninguno (ver Demon)
     
-    public Particle(double x, double y, int radius, double velocityX, double velocityY, double speed, int colorId) {
+    public Particle(double x, double y, int radius, double velocityX, double velocityY, int colorId) {
         super(x, y, radius);
         this.velocityX = velocityX;
         this.velocityY = velocityY;
-        this.speed = speed;
-        setColorId(colorId); // Esto asigna el colorId y el color correspondiente
-        this.baseColor = null; // Se debe establecer externamente
+        updateSpeed();
+        setColorId(colorId);
+    }
+    
+    // Reinicializar todos los campos, como el constructor, para reutilizar el objeto (ver ParticlePool)
+    public void reset(double x, double y, int radius, double velocityX, double velocityY, int colorId) {
+        setX(x);
+        setY(y);
+        setRadius(radius);
+        setVelocity(velocityX, velocityY);
+        setColorId(colorId);
+        chamber = 0;
+        slot = 0;
+        gridCell = -1;
+        countedFast = false;
+        windowMark = 0;
     }
     
     // Actualizar posición basada en la velocidad
@@ -95,6 +116,12 @@ public class Particle extends Circle {
         setY(getY() + velocityY);
     }
     
+    // Mover la partícula durante un intervalo dt (move() equivale a dt = 1)
+    public void move(double dt) {
+        setX(getX() + velocityX * dt);
+        setY(getY() + velocityY * dt);
+    }
+    
     // Invertir la velocidad en X (rebote horizontal)
     public void reverseXVelocity() {
         velocityX = -velocityX;
@@ -105,28 +132,31 @@ public class Particle extends Circle {
         velocityY = -velocityY;
     }
     
-    // Dibujar la partícula con su color asignado
+    // Dibujar la partícula con su color de la paleta
     @Override
     public void draw(Graphics g) {
         draw(g, null);
     }
     
-    // Dibujar con un color personalizado o usar el color base configurado
+    // Dibujar con el color de su clasificación (rápida o lenta)
+    public void draw(Graphics g, Color fastColor, Color slowColor) {
+        draw(g, fast ? fastColor : slowColor);
+    }
+    
+    // Dibujar con un color personalizado o, si es null, con el de la paleta
     @Override
     public void draw(Graphics g, Color overrideColor) {
-        Color drawColor = overrideColor;
-        if (drawColor == null) {
-            drawColor = baseColor != null ? baseColor : color;
-        }
-        
-        g.setColor(drawColor);
-        g.fillOval((int)(getX() - getRadius()), (int)(getY() - getRadius()), 
-                  2 * getRadius(), 2 * getRadius());
+        drawAt(g, getX(), getY(), getRadius(), overrideColor != null ? overrideColor : COLOR_PALETTE[colorId]);
+    }
+    
+    // Dibujar una partícula a partir de sus datos (p. ej. los de una SimulationSnapshot)
+    public static void drawAt(Graphics g, double x, double y, int radius, Color color) {
+        g.setColor(color);
+        g.fillOval((int)(x - radius), (int)(y - radius), 2 * radius, 2 * radius);
         
         // Dibujar borde
         g.setColor(Color.BLACK);
-        g.drawOval((int)(getX() - getRadius()), (int)(getY() - getRadius()), 
-                  2 * getRadius(), 2 * getRadius());
+        g.drawOval((int)(x - radius), (int)(y - radius), 2 * radius, 2 * radius);
     }
     
     // Métodos para obtener/establecer velocidades
@@ -150,7 +180,8 @@ public class Particle extends Circle {
     
     // Actualizar la velocidad total cuando cambian las componentes
     private void updateSpeed() {
-        this.speed = Math.sqrt(velocityX * velocityX + velocityY * velocityY);
+        this.speedSquared = velocityX * velocityX + velocityY * velocityY;
+        this.fast = speedSquared >= FAST_SPEED_THRESHOLD_SQUARED;
     }
     
     // Establecer directamente una nueva velocidad
@@ -162,20 +193,38 @@ public class Particle extends Circle {
     
     // Obtener/establecer velocidad total
     public double getSpeed() {
-        return speed;
+        return Math.sqrt(speedSquared);
+    }
+    
+    // Rapidez al cuadrado, para comparar con umbrales sin calcular raíces
+    public double getSpeedSquared() {
+        return speedSquared;
+    }
+    
+    // Clasificación según FAST_SPEED_THRESHOLD (un solo bit, sin cálculos)
+    public boolean isFast() {
+        return fast;
+    }
+    
+    // Verificar si la rapidez alcanza un umbral arbitrario
+    public boolean isFasterThan(double speedThreshold) {
+        return speedSquared >= speedThreshold * speedThreshold;
     }
     
     public void setSpeed(double speed) {
+        if (speedSquared == 0.0) {
+            // Sin dirección previa: moverse a lo largo del eje X
+            setVelocity(speed, 0.0);
+            return;
+        }
         // Ajustar componentes de velocidad proporcionalmente
-        double factor = speed / this.speed;
-        this.velocityX *= factor;
-        this.velocityY *= factor;
-        this.speed = speed;
+        double factor = speed / Math.sqrt(speedSquared);
+        setVelocity(velocityX * factor, velocityY * factor);
     }
     
     // Getters y setters para color e ID de color
     public Color getColor() {
-        return color;
+        return COLOR_PALETTE[colorId];
     }
     
     public int getColorId() {
@@ -184,8 +233,7 @@ public class Particle extends Circle {
     
     public void setColorId(int colorId) {
         // Asegurar que el colorId esté en el rango 0-49
-        this.colorId = Math.abs(colorId) % 50;
-        this.color = COLOR_PALETTE[this.colorId];
+        this.colorId = (byte) (Math.abs(colorId) % COLOR_PALETTE.length);
     }
     
     // Método estático para acceder a un color específico de la paleta
@@ -201,12 +249,54 @@ public class Particle extends Circle {
         return COLOR_PALETTE.length;
     }
     
-    // Getters y setters para color base
-    public Color getBaseColor() {
-        return baseColor;
+    // Cámara a la que pertenece la partícula
+    public int getChamber() {
+        return chamber;
+    }
+    
+    public void setChamber(int chamber) {
+        this.chamber = (short) chamber;
+    }
+    
+    // Posición en la lista de su cámara, para quitarla en O(1)
+    public int getSlot() {
+        return slot;
+    }
+    
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+    
+    // Celda y posición dentro de la celda en una ParticleGrid (ver ParticleGrid)
+    public int getGridCell() {
+        return gridCell;
+    }
+    
+    public int getGridSlot() {
+        return gridSlot;
+    }
+    
+    public void setGridPosition(int gridCell, int gridSlot) {
+        this.gridCell = gridCell;
+        this.gridSlot = gridSlot;
+    }
+    
+    // Rápida o lenta según el contador del motor; puede diferir de isFast() si la velocidad
+    // se cambió desde fuera del motor, hasta que el paso la vuelve a contar
+    public boolean isCountedFast() {
+        return countedFast;
+    }
+    
+    public void setCountedFast(boolean countedFast) {
+        this.countedFast = countedFast;
+    }
+    
+    // Id del demonio en cuya ventana ya se midió la partícula; lo mantiene Demon
+    public int getWindowMark() {
+        return windowMark;
     }
     
-    public void setBaseColor(Color baseColor) {
-        this.baseColor = baseColor;
+    public void setWindowMark(int windowMark) {
+        this.windowMark = windowMark;
     }
-}
\ No newline at end of file
+}
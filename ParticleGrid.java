@@ -0,0 +1,174 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rejilla uniforme de partículas que se mantiene al día mientras se mueven.
+ *
+ * A diferencia de SpatialGrid, que se reconstruye entera, cada partícula
+ * recuerda su celda y su posición dentro de ella (Particle.getGridCell):
+ * añadirla, quitarla o cambiarla de celda cuesta O(1), porque la última de
+ * la celda ocupa el hueco. Así el motor la actualiza en su pasada por las
+ * partículas y seleccionar con el ratón no obliga a reconstruir nada.
+ *
+ * Una partícula solo puede estar en una rejilla a la vez.
+ */
+public class ParticleGrid {
+    private static final Particle[] EMPTY = new Particle[0];
+
+    private final int left, top;
+    private final int cellSize;
+    private final int columns, rows;
+    private final Particle[][] cells;
+    private final int[] counts;
+    private int size;
+
+    public ParticleGrid(int left, int top, int width, int height, int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de celda debe ser positivo");
+        }
+        this.left = left;
+        this.top = top;
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (width + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (height + cellSize - 1) / cellSize);
+        this.cells = new Particle[columns * rows][];
+        Arrays.fill(cells, EMPTY);
+        this.counts = new int[columns * rows];
+    }
+
+    // Vaciar la rejilla y colocar todas las partículas de varias listas (por ejemplo, una por cámara)
+    public void rebuild(List<? extends List<Particle>> groups) {
+        clear();
+        for (List<Particle> group : groups) {
+            for (int i = 0; i < group.size(); i++) {
+                insert(group.get(i));
+            }
+        }
+    }
+
+    // Quitar todas las partículas; quedan marcadas como fuera de la rejilla
+    public void clear() {
+        for (int cell = 0; cell < cells.length; cell++) {
+            for (int i = 0; i < counts[cell]; i++) {
+                cells[cell][i].setGridPosition(-1, 0);
+                cells[cell][i] = null;
+            }
+            counts[cell] = 0;
+        }
+        size = 0;
+    }
+
+    public void insert(Particle p) {
+        if (p.getGridCell() >= 0) {
+            throw new IllegalArgumentException("La partícula ya está en una rejilla");
+        }
+        place(p, cellOf(p.getX(), p.getY()));
+        size++;
+    }
+
+    // Quitar una partícula; no hace nada si no está en la rejilla
+    public void remove(Particle p) {
+        if (p.getGridCell() < 0) {
+            return;
+        }
+        unplace(p);
+        p.setGridPosition(-1, 0);
+        size--;
+    }
+
+    // Cambiar de celda una partícula que se ha movido; casi siempre sigue en la misma y no cuesta nada
+    public void update(Particle p) {
+        int cell = cellOf(p.getX(), p.getY());
+        if (cell != p.getGridCell()) {
+            unplace(p);
+            place(p, cell);
+        }
+    }
+
+    private void place(Particle p, int cell) {
+        int n = counts[cell];
+        if (n == cells[cell].length) {
+            cells[cell] = Arrays.copyOf(cells[cell], Math.max(4, 2 * n));
+        }
+        cells[cell][n] = p;
+        counts[cell] = n + 1;
+        p.setGridPosition(cell, n);
+    }
+
+    // Sacar la partícula de su celda: la última de la celda pasa a ocupar su sitio
+    private void unplace(Particle p) {
+        int cell = p.getGridCell();
+        int slot = p.getGridSlot();
+        int last = --counts[cell];
+        Particle moved = cells[cell][last];
+        cells[cell][slot] = moved;
+        moved.setGridPosition(cell, slot);
+        cells[cell][last] = null;
+    }
+
+    /**
+     * Buscar la partícula más cercana cuyo círculo contiene el punto
+     * @param searchRadius mayor radio posible de las partículas; acota las celdas a revisar
+     * @return la partícula más cercana, o null si ningún círculo contiene el punto
+     */
+    public Particle findNearestContaining(double px, double py, int searchRadius) {
+        Particle best = null;
+        double bestDistance = Double.MAX_VALUE;
+
+        for (int r = rowOf(py - searchRadius); r <= rowOf(py + searchRadius); r++) {
+            for (int c = columnOf(px - searchRadius); c <= columnOf(px + searchRadius); c++) {
+                int cell = r * columns + c;
+                for (int i = 0; i < counts[cell]; i++) {
+                    Particle p = cells[cell][i];
+                    double d2 = Geometry.distanceSquared(px, py, p.getX(), p.getY());
+                    double radius = p.getRadius();
+                    if (d2 <= radius * radius && d2 < bestDistance) {
+                        best = p;
+                        bestDistance = d2;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // Añadir a out las partículas cuyo centro está dentro del rectángulo (bordes incluidos)
+    public void collectInRectangle(double minX, double minY, double maxX, double maxY, List<? super Particle> out) {
+        for (int r = rowOf(minY); r <= rowOf(maxY); r++) {
+            for (int c = columnOf(minX); c <= columnOf(maxX); c++) {
+                int cell = r * columns + c;
+                for (int i = 0; i < counts[cell]; i++) {
+                    Particle p = cells[cell][i];
+                    double x = p.getX();
+                    double y = p.getY();
+                    if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                        out.add(p);
+                    }
+                }
+            }
+        }
+    }
+
+    // Celda (columna, fila) que contiene un punto; los puntos fuera se asignan al borde
+    public int columnOf(double x) {
+        int col = (int) Math.floor((x - left) / cellSize);
+        return Math.max(0, Math.min(columns - 1, col));
+    }
+
+    public int rowOf(double y) {
+        int row = (int) Math.floor((y - top) / cellSize);
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+
+    private int cellOf(double x, double y) {
+        return rowOf(y) * columns + columnOf(x);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+}
@@ -0,0 +1,175 @@
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Inicialización masiva de partículas.
+ *
+ * Las partículas se generan por bloques en paralelo. Cada bloque usa su
+ * propio flujo SplittableRandom, obtenido de forma secuencial a partir de la
+ * semilla antes de repartir el trabajo, así que el resultado es idéntico
+ * para una misma semilla sin importar cuántos hilos participen.
+ */
+public class ParticleInitializer {
+    // Distribuciones disponibles
+    public enum SpeedDistribution { UNIFORM, MAXWELL_BOLTZMANN }
+    public enum SpatialDistribution { UNIFORM, CENTERED }
+
+    // Partículas por bloque de trabajo paralelo
+    private static final int CHUNK_SIZE = 1 << 14;
+
+    private int particlesPerChamber = 50;
+    private SpeedDistribution speedDistribution = SpeedDistribution.UNIFORM;
+    private SpatialDistribution spatialDistribution = SpatialDistribution.UNIFORM;
+    private double maxVelocityComponent = 5.0; // Para la distribución uniforme
+    private double temperature = 9.0;          // kT para Maxwell-Boltzmann (masa unitaria)
+    private int particleRadius = 5;
+    private long seed;
+
+    public ParticleInitializer(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Vaciar las cámaras y volver a llenarlas; los objetos que ya había se reutilizan
+     * @param grid geometría de las cámaras
+     * @param chambers una lista de partículas por cámara
+     */
+    public void populate(ChamberGrid grid, ArrayList<ArrayList<Particle>> chambers) {
+        populate(grid, chambers, new ParticlePool());
+    }
+
+    /**
+     * Igual, pero las partículas que había en las cámaras vuelven al conjunto
+     * y las nuevas salen de él: con un conjunto ya lleno no se crea ningún objeto
+     */
+    public void populate(ChamberGrid grid, ArrayList<ArrayList<Particle>> chambers, ParticlePool pool) {
+        int chamberCount = grid.getChamberCount();
+        long total = (long) particlesPerChamber * chamberCount;
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Demasiadas partículas: " + total);
+        }
+
+        // Las partículas de cada cámara quedan contiguas; primero se reservan en orden
+        // (el conjunto no es seguro para varios hilos) y luego se rellenan en paralelo
+        for (int c = 0; c < chamberCount; c++) {
+            ArrayList<Particle> chamber = chambers.get(c);
+            pool.releaseAll(chamber);
+            chamber.clear();
+            chamber.ensureCapacity(particlesPerChamber);
+            for (int i = 0; i < particlesPerChamber; i++) {
+                chamber.add(pool.acquireUninitialized());
+            }
+        }
+
+        // Flujos aleatorios por bloque, derivados en orden para que el resultado sea determinista
+        int chunks = (int) ((total + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[chunks];
+        for (int i = 0; i < chunks; i++) {
+            streams[i] = root.split();
+        }
+
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            SplittableRandom random = streams[chunk];
+            int end = (int) Math.min(total, (long) (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                int chamber = i / particlesPerChamber;
+                initializeParticle(chambers.get(chamber).get(i % particlesPerChamber), grid, chamber, random);
+            }
+        });
+    }
+
+    private void initializeParticle(Particle p, ChamberGrid grid, int chamber, SplittableRandom random) {
+        // Centros a un radio de las paredes, los mismos límites que aplica el rebote
+        int minX = grid.getMinX(chamber) + particleRadius;
+        int minY = grid.getMinY(chamber) + particleRadius;
+        int width = grid.getMaxX(chamber) - particleRadius - minX;
+        int height = grid.getMaxY(chamber) - particleRadius - minY;
+
+        double x, y;
+        if (spatialDistribution == SpatialDistribution.CENTERED) {
+            // Gaussiana alrededor del centro de la cámara, recortada a sus límites
+            x = minX + clamp(width / 2.0 + random.nextGaussian() * width / 6.0, 0, width);
+            y = minY + clamp(height / 2.0 + random.nextGaussian() * height / 6.0, 0, height);
+        } else {
+            x = minX + random.nextDouble() * width;
+            y = minY + random.nextDouble() * height;
+        }
+
+        p.reset(x, y, particleRadius, 0, 0, random.nextInt(Particle.getColorCount()));
+        if (speedDistribution == SpeedDistribution.MAXWELL_BOLTZMANN) {
+            VelocitySampler.maxwellBoltzmann(p, temperature, random);
+        } else {
+            VelocitySampler.uniformComponents(p, maxVelocityComponent, random);
+        }
+        p.setChamber(chamber);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    // Getters y setters
+    public int getParticlesPerChamber() {
+        return particlesPerChamber;
+    }
+
+    public void setParticlesPerChamber(int particlesPerChamber) {
+        if (particlesPerChamber < 0) {
+            throw new IllegalArgumentException("El número de partículas no puede ser negativo");
+        }
+        this.particlesPerChamber = particlesPerChamber;
+    }
+
+    public SpeedDistribution getSpeedDistribution() {
+        return speedDistribution;
+    }
+
+    public void setSpeedDistribution(SpeedDistribution speedDistribution) {
+        this.speedDistribution = speedDistribution;
+    }
+
+    public SpatialDistribution getSpatialDistribution() {
+        return spatialDistribution;
+    }
+
+    public void setSpatialDistribution(SpatialDistribution spatialDistribution) {
+        this.spatialDistribution = spatialDistribution;
+    }
+
+    public double getMaxVelocityComponent() {
+        return maxVelocityComponent;
+    }
+
+    public void setMaxVelocityComponent(double maxVelocityComponent) {
+        this.maxVelocityComponent = maxVelocityComponent;
+    }
+
+    public double getTemperature() {
+        return temperature;
+    }
+
+    public void setTemperature(double temperature) {
+        if (temperature < 0.0) {
+            throw new IllegalArgumentException("La temperatura no puede ser negativa");
+        }
+        this.temperature = temperature;
+    }
+
+    public int getParticleRadius() {
+        return particleRadius;
+    }
+
+    public void setParticleRadius(int particleRadius) {
+        this.particleRadius = particleRadius;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+}
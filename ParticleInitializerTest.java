@@ -0,0 +1,118 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Pruebas de la inicialización masiva de partículas.
+ */
+public class ParticleInitializerTest {
+
+    private final ChamberGrid grid = new ChamberGrid(0, 0, 900, 400, 3, 1);
+
+    private ArrayList<ArrayList<Particle>> emptyChambers() {
+        ArrayList<ArrayList<Particle>> chambers = new ArrayList<>();
+        for (int c = 0; c < grid.getChamberCount(); c++) {
+            chambers.add(new ArrayList<>());
+        }
+        return chambers;
+    }
+
+    // Más de un bloque de trabajo (3 x 10000 partículas), con Maxwell-Boltzmann
+    private ParticleInitializer initializer(long seed) {
+        ParticleInitializer initializer = new ParticleInitializer(seed);
+        initializer.setParticlesPerChamber(10000);
+        initializer.setSpeedDistribution(ParticleInitializer.SpeedDistribution.MAXWELL_BOLTZMANN);
+        initializer.setTemperature(4.0);
+        return initializer;
+    }
+
+    private static void assertSameParticles(ArrayList<ArrayList<Particle>> a, ArrayList<ArrayList<Particle>> b) {
+        assertEquals(a.size(), b.size());
+        for (int c = 0; c < a.size(); c++) {
+            assertEquals(a.get(c).size(), b.get(c).size());
+            for (int i = 0; i < a.get(c).size(); i++) {
+                Particle p = a.get(c).get(i);
+                Particle q = b.get(c).get(i);
+                assertEquals(p.getX(), q.getX(), 0.0);
+                assertEquals(p.getY(), q.getY(), 0.0);
+                assertEquals(p.getVelocityX(), q.getVelocityX(), 0.0);
+                assertEquals(p.getVelocityY(), q.getVelocityY(), 0.0);
+                assertEquals(p.getColorId(), q.getColorId());
+            }
+        }
+    }
+
+    @Test
+    public void testSameSeedGivesTheSameParticlesWithAnyParallelism() throws Exception {
+        ArrayList<ArrayList<Particle>> parallel = emptyChambers();
+        initializer(34L).populate(grid, parallel);
+
+        // Con un solo hilo de trabajo el resultado no cambia
+        ArrayList<ArrayList<Particle>> single = emptyChambers();
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            pool.submit(() -> initializer(34L).populate(grid, single)).get();
+        } finally {
+            pool.shutdown();
+        }
+        assertSameParticles(parallel, single);
+
+        ArrayList<ArrayList<Particle>> other = emptyChambers();
+        initializer(35L).populate(grid, other);
+        assertTrue(parallel.get(0).get(0).getX() != other.get(0).get(0).getX(), "Otra semilla, otras partículas");
+    }
+
+    @Test
+    public void testParticlesFillTheirChamberWithTheRequestedDistribution() {
+        ArrayList<ArrayList<Particle>> chambers = emptyChambers();
+        initializer(36L).populate(grid, chambers);
+
+        double sumSquares = 0.0;
+        int total = 0;
+        for (int c = 0; c < chambers.size(); c++) {
+            assertEquals(10000, chambers.get(c).size());
+            for (Particle p : chambers.get(c)) {
+                assertEquals(c, p.getChamber());
+                // Centros a un radio de las paredes
+                assertTrue(p.getX() >= grid.getMinX(c) + 5 && p.getX() <= grid.getMaxX(c) - 5);
+                assertTrue(p.getY() >= grid.getMinY(c) + 5 && p.getY() <= grid.getMaxY(c) - 5);
+                sumSquares += p.getVelocityX() * p.getVelocityX();
+                total++;
+            }
+        }
+        // Varianza de cada componente = kT
+        assertEquals(4.0, sumSquares / total, 0.15);
+
+        ParticleInitializer centered = new ParticleInitializer(37L);
+        centered.setParticlesPerChamber(2000);
+        centered.setSpatialDistribution(ParticleInitializer.SpatialDistribution.CENTERED);
+        centered.setMaxVelocityComponent(2.0);
+        centered.populate(grid, chambers);
+        double meanX = 0.0;
+        for (Particle p : chambers.get(1)) {
+            meanX += p.getX() / 2000;
+            assertTrue(Math.abs(p.getVelocityX()) <= 2.0 && Math.abs(p.getVelocityY()) <= 2.0);
+        }
+        assertEquals(300 + 150, meanX, 5.0);
+    }
+
+    @Test
+    public void testRepopulatingThroughAPoolCreatesNoParticles() {
+        ArrayList<ArrayList<Particle>> chambers = emptyChambers();
+        ParticlePool pool = new ParticlePool();
+        ParticleInitializer initializer = initializer(38L);
+        initializer.populate(grid, chambers, pool);
+        long created = pool.getCreatedCount();
+        initializer.setSeed(39L);
+        initializer.populate(grid, chambers, pool);
+        assertEquals(created, pool.getCreatedCount());
+        assertEquals(30000, pool.getReusedCount());
+
+        initializer.setParticlesPerChamber(0);
+        initializer.populate(grid, chambers, pool);
+        assertTrue(chambers.get(2).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> initializer.setParticlesPerChamber(-1));
+    }
+}
@@ -0,0 +1,94 @@
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Lista libre de partículas para reutilizarlas en lugar de crear objetos.
+ *
+ * Las partículas absorbidas, borradas o descartadas al reiniciar vuelven
+ * aquí y se reinicializan con Particle.reset() cuando hace falta una nueva,
+ * así los ciclos de absorción y reaparición y los reinicios no crean
+ * objetos una vez el conjunto ha crecido lo suficiente. Una partícula
+ * devuelta no debe seguir usándose fuera: la próxima adquisición la
+ * reutiliza.
+ *
+ * No es seguro para varios hilos, como el motor.
+ */
+public class ParticlePool {
+    public static final int DEFAULT_MAX_FREE = 1 << 20;
+
+    private final ArrayList<Particle> free = new ArrayList<>();
+    private int maxFree = DEFAULT_MAX_FREE; // Por encima se dejan para el recolector
+    private long created, reused;
+
+    // Una partícula reinicializada con estos valores, reutilizada si hay alguna libre
+    public Particle acquire(double x, double y, int radius, double velocityX, double velocityY, int colorId) {
+        Particle p = poll();
+        if (p == null) {
+            created++;
+            return new Particle(x, y, radius, velocityX, velocityY, colorId);
+        }
+        p.reset(x, y, radius, velocityX, velocityY, colorId);
+        return p;
+    }
+
+    /**
+     * Una partícula libre sin reinicializar, o una nueva en reposo si no queda
+     * ninguna; quien la pide debe darle valores con reset()
+     */
+    public Particle acquireUninitialized() {
+        Particle p = poll();
+        if (p == null) {
+            created++;
+            return new Particle(0, 0, 0, 0, 0, 0);
+        }
+        return p;
+    }
+
+    private Particle poll() {
+        if (free.isEmpty()) {
+            return null;
+        }
+        reused++;
+        return free.remove(free.size() - 1);
+    }
+
+    public void release(Particle p) {
+        if (free.size() < maxFree) {
+            free.add(p);
+        }
+    }
+
+    public void releaseAll(Collection<Particle> particles) {
+        for (Particle p : particles) {
+            release(p);
+        }
+    }
+
+    // Partículas libres esperando a reutilizarse
+    public int getFreeCount() {
+        return free.size();
+    }
+
+    // Partículas creadas porque no había ninguna libre
+    public long getCreatedCount() {
+        return created;
+    }
+
+    public long getReusedCount() {
+        return reused;
+    }
+
+    public int getMaxFree() {
+        return maxFree;
+    }
+
+    public void setMaxFree(int maxFree) {
+        if (maxFree < 0) {
+            throw new IllegalArgumentException("El máximo de partículas libres no puede ser negativo");
+        }
+        this.maxFree = maxFree;
+        while (free.size() > maxFree) {
+            free.remove(free.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+/**
+ * Pruebas de la reutilización de partículas.
+ */
+public class ParticlePoolTest {
+
+    @Test
+    public void testAbsorbedParticlesAreReusedForNewOnes() {
+        SimulationEngine engine = new SimulationEngine(50, 50, 700, 500, 2, 1, 48L);
+        engine.reset();
+        Hole hole = engine.addHole(200, 300);
+        hole.setMaxAbsorbed(1000);
+        for (int i = 0; i < 300 && hole.getParticlesAbsorbed() < 5; i++) {
+            engine.step();
+        }
+        int absorbed = hole.getParticlesAbsorbed();
+        assertTrue(absorbed > 0);
+
+        ParticlePool pool = engine.getParticlePool();
+        assertEquals(absorbed, pool.getFreeCount());
+        long created = pool.getCreatedCount();
+        for (int i = 0; i < absorbed; i++) {
+            Particle p = engine.addParticle(600, 300, true);
+            assertTrue(p.isFast());
+            assertEquals(1, p.getChamber());
+        }
+        assertEquals(created, pool.getCreatedCount());
+        assertEquals(0, pool.getFreeCount());
+    }
+
+    @Test
+    public void testRepopulatingReusesParticlesAndKeepsTheSeededLayout() {
+        ChamberGrid grid = new ChamberGrid(0, 0, 400, 200, 2, 1);
+        ArrayList<ArrayList<Particle>> fresh = new ArrayList<>();
+        ArrayList<ArrayList<Particle>> pooled = new ArrayList<>();
+        for (int c = 0; c < 2; c++) {
+            fresh.add(new ArrayList<>());
+            pooled.add(new ArrayList<>());
+        }
+        ParticleInitializer initializer = new ParticleInitializer(7L);
+        initializer.setParticlesPerChamber(30);
+        initializer.populate(grid, fresh);
+
+        ParticlePool pool = new ParticlePool();
+        initializer.populate(grid, pooled, pool);
+        Particle first = pooled.get(1).get(0);
+        long created = pool.getCreatedCount();
+        initializer.populate(grid, pooled, pool);
+
+        assertEquals(60, created);
+        assertEquals(created, pool.getCreatedCount());
+        assertEquals(0, pool.getFreeCount());
+        boolean reused = false;
+        for (int c = 0; c < 2; c++) {
+            for (int i = 0; i < 30; i++) {
+                Particle a = fresh.get(c).get(i);
+                Particle b = pooled.get(c).get(i);
+                assertEquals(a.getX(), b.getX(), 0.0);
+                assertEquals(a.getVelocityY(), b.getVelocityY(), 0.0);
+                assertEquals(a.getColorId(), b.getColorId());
+                assertEquals(c, b.getChamber());
+                reused |= b == first;
+            }
+        }
+        assertTrue(reused);
+    }
+}
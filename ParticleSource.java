@@ -0,0 +1,96 @@
+/**
+ * Entrada de partículas: emite partículas nuevas a un ritmo fijo, con
+ * velocidades de Maxwell-Boltzmann a la temperatura de la fuente.
+ *
+ * Las partículas aparecen repartidas en un círculo de radio spread
+ * alrededor de la fuente, dentro de la cámara que la contiene. El ritmo se
+ * da en partículas por unidad de tiempo simulado; las fracciones se
+ * acumulan entre pasos, así que un ritmo de 0.25 emite una partícula cada
+ * cuatro pasos de duración 1. Junto con agujeros que se vacían
+ * (Hole.setDrainRate) permite experimentos de flujo estacionario con un
+ * número de partículas constante.
+ */
+public class ParticleSource {
+    public static final double DEFAULT_TEMPERATURE = 9.0; // La misma kT que ParticleInitializer
+    public static final int DEFAULT_SPREAD = 10;
+
+    private final int x, y;
+    private double rate;
+    private double temperature = DEFAULT_TEMPERATURE;
+    private int spread = DEFAULT_SPREAD;
+    private boolean enabled = true;
+
+    private double progress; // Fracción de partícula acumulada entre pasos
+    private long emitted;
+
+    public ParticleSource(int x, int y, double rate) {
+        this.x = x;
+        this.y = y;
+        setRate(rate);
+    }
+
+    // Partículas que tocan durante dt (las fracciones quedan para los pasos siguientes)
+    public int takeDue(double dt) {
+        if (!enabled || rate <= 0.0) {
+            return 0;
+        }
+        progress += rate * dt;
+        int due = (int) progress;
+        progress -= due;
+        return due;
+    }
+
+    public void recordEmitted(int count) {
+        emitted += count;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public void setRate(double rate) {
+        if (rate < 0.0) {
+            throw new IllegalArgumentException("El ritmo de emisión no puede ser negativo");
+        }
+        this.rate = rate;
+    }
+
+    public double getTemperature() {
+        return temperature;
+    }
+
+    public void setTemperature(double temperature) {
+        if (temperature < 0.0) {
+            throw new IllegalArgumentException("La temperatura no puede ser negativa");
+        }
+        this.temperature = temperature;
+    }
+
+    public int getSpread() {
+        return spread;
+    }
+
+    public void setSpread(int spread) {
+        this.spread = Math.max(0, spread);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getEmitted() {
+        return emitted;
+    }
+}
@@ -0,0 +1,72 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de las fuentes de partículas y de los agujeros que se vacían.
+ */
+public class ParticleSourceTest {
+
+    @Test
+    public void testSourceEmitsAtItsRateInsideItsChamber() {
+        SimulationEngine engine = new SimulationEngine(50, 50, 700, 500, 2, 1, 49L);
+        ParticleSource source = engine.addSource(600, 300, 0.5);
+        source.setTemperature(100.0);
+        for (int i = 0; i < 10; i++) {
+            engine.step();
+        }
+        assertEquals(5, source.getEmitted());
+        assertEquals(5, engine.getParticlesEmitted());
+        assertEquals(5, engine.getParticleCount());
+        assertEquals(5, engine.getChambers().get(1).size());
+
+        source.setEnabled(false);
+        engine.step();
+        assertEquals(5, engine.getParticleCount());
+    }
+
+    @Test
+    public void testDrainingHoleReopens() {
+        Hole hole = new Hole(100, 100, 15, 3);
+        hole.setDrainRate(0.5);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(hole.absorbParticle());
+        }
+        assertTrue(hole.isFull());
+
+        assertEquals(0, hole.drain(1.0));
+        assertTrue(hole.isFull());
+        assertEquals(1, hole.drain(1.0));
+        assertFalse(hole.isFull());
+        assertEquals(2, hole.getParticlesAbsorbed());
+        assertTrue(hole.absorbParticle());
+
+        // Vacío, no acumula vaciado para después
+        assertEquals(3, hole.drain(10.0));
+        assertEquals(0, hole.drain(10.0));
+        assertEquals(0, hole.getParticlesAbsorbed());
+    }
+
+    @Test
+    public void testSteadyFlowReusesParticles() {
+        SimulationEngine engine = new SimulationEngine(50, 50, 700, 500, 2, 1, 50L);
+        engine.getTimestep().setEnabled(false);
+        Hole sink = engine.addHole(200, 300);
+        sink.setMaxAbsorbed(50);
+        sink.setDrainRate(5.0);
+        ParticleSource source = engine.addSource(200, 300, 3.0);
+        source.setSpread(5);
+
+        for (int i = 0; i < 50; i++) {
+            engine.step();
+        }
+        ParticlePool pool = engine.getParticlePool();
+        long created = pool.getCreatedCount();
+        for (int i = 0; i < 200; i++) {
+            engine.step();
+        }
+        assertEquals(created, pool.getCreatedCount());
+        assertTrue(pool.getReusedCount() > 0);
+        assertFalse(sink.isFull());
+        assertEquals(engine.getParticlesEmitted() - engine.getParticlesAbsorbed(), engine.getParticleCount());
+    }
+}
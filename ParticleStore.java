@@ -0,0 +1,102 @@
+/**
+ * Partículas guardadas por índice en lugar de como objetos.
+ *
+ * Ofrece por índice las mismas operaciones que usan el avance de las
+ * partículas, las puertas de los demonios y la absorción de los agujeros
+ * sobre Particle, para que esos bucles puedan recorrer almacenes que no
+ * viven en el montón de Java (ver OffHeapParticleStore). Todas las cámaras
+ * comparten un almacén: la cámara es un campo más de cada partícula.
+ *
+ * Los índices no son estables: remove() mueve la última partícula al hueco,
+ * así que para quitar partículas durante un recorrido hay que recorrer de
+ * atrás hacia delante.
+ */
+public interface ParticleStore {
+
+    int size();
+
+    int capacity();
+
+    double getX(int i);
+
+    double getY(int i);
+
+    double getVelocityX(int i);
+
+    double getVelocityY(int i);
+
+    int getRadius(int i);
+
+    int getColorId(int i);
+
+    int getChamber(int i);
+
+    // Id del demonio en cuya ventana ya se midió la partícula, 0 = ninguno (ver Particle.getWindowMark)
+    int getWindowMark(int i);
+
+    void setX(int i, double x);
+
+    void setY(int i, double y);
+
+    void setVelocity(int i, double velocityX, double velocityY);
+
+    void setChamber(int i, int chamber);
+
+    void setWindowMark(int i, int mark);
+
+    /**
+     * Añadir una partícula al final, sin marca de ventana
+     * @return su índice
+     * @throws IllegalStateException si el almacén está lleno
+     */
+    int add(double x, double y, int radius, double velocityX, double velocityY, int colorId, int chamber);
+
+    // Quitar la partícula i; la última pasa a ocupar su índice
+    void remove(int i);
+
+    void clear();
+
+    // Mover la partícula i durante un intervalo dt
+    default void move(int i, double dt) {
+        setX(i, getX(i) + getVelocityX(i) * dt);
+        setY(i, getY(i) + getVelocityY(i) * dt);
+    }
+
+    default void reverseXVelocity(int i) {
+        setVelocity(i, -getVelocityX(i), getVelocityY(i));
+    }
+
+    default void reverseYVelocity(int i) {
+        setVelocity(i, getVelocityX(i), -getVelocityY(i));
+    }
+
+    default double getSpeedSquared(int i) {
+        double vx = getVelocityX(i);
+        double vy = getVelocityY(i);
+        return vx * vx + vy * vy;
+    }
+
+    // Misma clasificación que Particle.isFast()
+    default boolean isFast(int i) {
+        return getSpeedSquared(i) >= Particle.FAST_SPEED_THRESHOLD * Particle.FAST_SPEED_THRESHOLD;
+    }
+
+    default int add(Particle p) {
+        return add(p.getX(), p.getY(), p.getRadius(), p.getVelocityX(), p.getVelocityY(),
+                   p.getColorId(), p.getChamber());
+    }
+
+    /**
+     * Copiar la partícula i en un objeto reutilizable, p. ej. para evaluar
+     * una GatePolicy, que recibe un Particle
+     */
+    default Particle load(int i, Particle into) {
+        into.setX(getX(i));
+        into.setY(getY(i));
+        into.setRadius(getRadius(i));
+        into.setVelocity(getVelocityX(i), getVelocityY(i));
+        into.setColorId(getColorId(i));
+        into.setChamber(getChamber(i));
+        return into;
+    }
+}
@@ -0,0 +1,66 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+/**
+ * Pruebas de las invariantes de velocidad de las partículas: la rapidez se
+ * deriva siempre del vector de velocidad.
+ */
+public class ParticleTest {
+
+    private static final double SPEED_THRESHOLD = Particle.FAST_SPEED_THRESHOLD;
+    private SplittableRandom random;
+
+    @BeforeEach
+    public void setUp() {
+        random = new SplittableRandom(20261019L);
+    }
+
+    @Test
+    public void testSpeedFollowsVelocityVector() {
+        Particle p = new Particle(0, 0, 5, 3.0, 4.0, 0);
+        assertEquals(25.0, p.getSpeedSquared(), 1e-12);
+        assertEquals(5.0, p.getSpeed(), 1e-12);
+
+        p.setVelocityX(0.0);
+        assertEquals(4.0, p.getSpeed(), 1e-12);
+        p.setSpeed(2.0);
+        assertEquals(2.0, p.getVelocityY(), 1e-12);
+    }
+
+    @Test
+    public void testSetSpeedFromRest() {
+        Particle p = new Particle(0, 0, 5, 0.0, 0.0, 0);
+        p.setSpeed(3.0);
+        assertEquals(3.0, p.getSpeed(), 1e-12);
+        assertFalse(Double.isNaN(p.getVelocityX()) || Double.isNaN(p.getVelocityY()));
+    }
+
+    @Test
+    public void testSpeedShellsLandOnTheRightSideOfTheThreshold() {
+        Particle p = new Particle(0, 0, 5, 0.0, 0.0, 0);
+        for (int i = 0; i < 10000; i++) {
+            VelocitySampler.fast(p, SPEED_THRESHOLD, random);
+            assertTrue(p.isFasterThan(SPEED_THRESHOLD), "Partícula rápida por debajo del umbral");
+            assertTrue(p.isFast(), "El bit rápido/lento no siguió a la velocidad");
+            VelocitySampler.slow(p, SPEED_THRESHOLD, random);
+            assertFalse(p.isFasterThan(SPEED_THRESHOLD), "Partícula lenta por encima del umbral");
+            assertFalse(p.isFast(), "El bit rápido/lento no siguió a la velocidad");
+        }
+    }
+
+    @Test
+    public void testMaxwellBoltzmannMeanEnergy() {
+        // En 2D la energía cinética media por partícula es kT
+        double temperature = 9.0;
+        double energy = 0.0;
+        int samples = 200000;
+        Particle p = new Particle(0, 0, 5, 0.0, 0.0, 0);
+        for (int i = 0; i < samples; i++) {
+            VelocitySampler.maxwellBoltzmann(p, temperature, random);
+            energy += 0.5 * p.getSpeedSquared();
+        }
+        assertEquals(temperature, energy / samples, 0.1);
+    }
+}
@@ -26,8 +26,7 @@ public class Rectangle {
     
     // Método para verificar si un punto está dentro del rectángulo
     public boolean contains(int pointX, int pointY) {
-        return (pointX >= x && pointX <= x + width && 
-                pointY >= y && pointY <= y + height);
+        return Geometry.rectangleContainsPoint(x, y, width, height, pointX, pointY);
     }
     
     // Getters y setters
@@ -0,0 +1,91 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+/**
+ * Pruebas de las operaciones por región del motor (llenar, vaciar, repartir agujeros).
+ */
+public class RegionOperationsTest {
+
+    private SimulationEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        // Dos cámaras: la pared está en x = 400
+        engine = new SimulationEngine(50, 50, 700, 500, 2, 1, 33L);
+    }
+
+    private static boolean inside(Circle c, double minX, double minY, double maxX, double maxY) {
+        return c.getX() >= minX && c.getX() <= maxX && c.getY() >= minY && c.getY() <= maxY;
+    }
+
+    @Test
+    public void testFillRegionAcrossAWall() {
+        engine.fillRegion(300, 100, 200, 100, 400, true);
+        assertEquals(400, engine.getParticleCount());
+        assertEquals(400, engine.countFast());
+
+        ArrayList<ArrayList<Particle>> chambers = engine.getChambers();
+        assertTrue(chambers.get(0).size() > 0 && chambers.get(1).size() > 0, "La región cruza la pared");
+        for (int c = 0; c < 2; c++) {
+            for (Particle p : chambers.get(c)) {
+                assertTrue(inside(p, 300, 100, 500, 200));
+                assertEquals(c, p.getChamber());
+                assertEquals(c, engine.getChamberGrid().chamberAt(p.getX(), p.getY()));
+            }
+        }
+
+        engine.fillRegion(100, 100, 50, 50, 30, false);
+        assertEquals(430, engine.getParticleCount());
+        assertEquals(30, engine.countSlow());
+    }
+
+    @Test
+    public void testClearRegionRemovesOnlyWhatIsInside() {
+        engine.fillRegion(60, 60, 680, 480, 2000, false);
+        engine.scatterHoles(100, 100, 500, 300, 20);
+        engine.addSource(200, 200, 1.0);
+        engine.addSource(600, 200, 1.0);
+
+        int particlesInside = 0;
+        for (ArrayList<Particle> chamber : engine.getChambers()) {
+            for (Particle p : chamber) {
+                particlesInside += inside(p, 150, 150, 450, 350) ? 1 : 0;
+            }
+        }
+        int holesInside = 0;
+        for (Hole h : engine.getBlackHoles()) {
+            holesInside += inside(h, 150, 150, 450, 350) ? 1 : 0;
+        }
+        assertTrue(particlesInside > 0 && holesInside > 0);
+
+        assertEquals(particlesInside, engine.clearRegion(150, 150, 450, 350));
+        assertEquals(2000 - particlesInside, engine.getParticleCount());
+        assertEquals(20 - holesInside, engine.getBlackHoles().size());
+        assertEquals(1, engine.getSources().size());
+        for (ArrayList<Particle> chamber : engine.getChambers()) {
+            for (Particle p : chamber) {
+                assertFalse(inside(p, 150, 150, 450, 350));
+            }
+        }
+        for (Hole h : engine.getBlackHoles()) {
+            assertFalse(inside(h, 150, 150, 450, 350));
+        }
+
+        // Las partículas quitadas vuelven al conjunto de reutilización
+        assertEquals(particlesInside, engine.getParticlePool().getFreeCount());
+        assertEquals(0, engine.clearRegion(150, 150, 450, 350));
+    }
+
+    @Test
+    public void testScatterHolesStaysInTheRegion() {
+        engine.scatterHoles(500, 300, 100, 50, 25);
+        assertEquals(25, engine.getBlackHoles().size());
+        for (Hole h : engine.getBlackHoles()) {
+            assertTrue(inside(h, 500, 300, 600, 350));
+            assertTrue(h.getMaxAbsorbed() >= 5 && h.getMaxAbsorbed() <= 15);
+        }
+        assertEquals(25, engine.getMetrics().getBlackHoleCount());
+    }
+}
@@ -0,0 +1,97 @@
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Dibujo de la escena de la simulación (contenedor, paredes, agujeros,
+ * demonios y partículas) sobre cualquier Graphics.
+ *
+ * No depende de Swing: lo usan tanto Canvas como el renderizado por
+ * mosaicos fuera de pantalla, así que ambos producen la misma imagen.
+ * Se puede dibujar desde las listas de objetos (p. ej. los fotogramas que
+ * recibe FrameViewer) o desde una SimulationSnapshot, que es lo que usan
+ * Canvas y FrameExporter para no leer las listas vivas del motor.
+ */
+public final class SceneRenderer {
+
+    private SceneRenderer() {
+    }
+
+    // Dibujar la escena completa
+    public static void drawScene(Graphics g, ChamberGrid grid, List<? extends List<Particle>> chambers,
+                                 List<Hole> holes, List<Demon> demons, Color fastColor, Color slowColor) {
+        drawStructure(g, grid, holes, demons);
+        for (List<Particle> chamber : chambers) {
+            for (int i = 0; i < chamber.size(); i++) {
+                chamber.get(i).draw(g, fastColor, slowColor);
+            }
+        }
+    }
+
+    // Dibujar la escena completa a partir de una instantánea publicada por el motor
+    public static void drawScene(Graphics g, SimulationSnapshot snapshot, Color fastColor, Color slowColor) {
+        drawStructure(g, snapshot);
+        for (int i = 0; i < snapshot.getParticleCount(); i++) {
+            drawParticle(g, snapshot, i, fastColor, slowColor);
+        }
+    }
+
+    // Dibujar la partícula i de una instantánea con el color de su clasificación
+    public static void drawParticle(Graphics g, SimulationSnapshot snapshot, int i, Color fastColor, Color slowColor) {
+        Particle.drawAt(g, snapshot.getParticleX(i), snapshot.getParticleY(i), snapshot.getParticleRadius(i),
+                        snapshot.isParticleFast(i) ? fastColor : slowColor);
+    }
+
+    // Dibujar todo excepto las partículas: contenedor, paredes interiores, agujeros y demonios
+    public static void drawStructure(Graphics g, ChamberGrid grid, List<Hole> holes, List<Demon> demons) {
+        drawWalls(g, grid);
+
+        // Los agujeros fuera del área de recorte se omiten (dibujarlos crea un degradado cada vez)
+        for (Hole hole : holes) {
+            int reach = hole.getRadius() + 4;
+            if (g.hitClip((int) hole.getX() - reach, (int) hole.getY() - reach, 2 * reach, 2 * reach)) {
+                hole.draw(g);
+            }
+        }
+        for (int i = 0; i < demons.size(); i++) {
+            demons.get(i).draw(g, i + 1);
+        }
+    }
+
+    // Lo mismo a partir de una instantánea
+    public static void drawStructure(Graphics g, SimulationSnapshot snapshot) {
+        drawWalls(g, snapshot.getChamberGrid());
+        for (int i = 0; i < snapshot.getHoleCount(); i++) {
+            float x = snapshot.getHoleX(i);
+            float y = snapshot.getHoleY(i);
+            int radius = snapshot.getHoleRadius(i);
+            int reach = radius + 4;
+            if (g.hitClip((int) x - reach, (int) y - reach, 2 * reach, 2 * reach)) {
+                Hole.drawAt(g, x, y, radius, snapshot.getHoleAbsorbed(i), snapshot.getHoleCapacity(i),
+                            snapshot.isHoleFull(i));
+            }
+        }
+        for (int i = 0; i < snapshot.getDemonCount(); i++) {
+            Demon.drawAt(g, snapshot.getDemonX(i), snapshot.getDemonY(i), snapshot.getDemonSize(i),
+                         snapshot.isDemonHorizontal(i), i + 1);
+        }
+    }
+
+    // Contenedor y paredes entre cámaras
+    private static void drawWalls(Graphics g, ChamberGrid grid) {
+        int left = grid.getWallX(0);
+        int top = grid.getWallY(0);
+        int right = grid.getWallX(grid.getColumns());
+        int bottom = grid.getWallY(grid.getRows());
+
+        g.setColor(Color.BLACK);
+        g.drawRect(left, top, right - left, bottom - top);
+        for (int c = 1; c < grid.getColumns(); c++) {
+            int wallX = grid.getWallX(c);
+            g.drawLine(wallX, top, wallX, bottom);
+        }
+        for (int r = 1; r < grid.getRows(); r++) {
+            int wallY = grid.getWallY(r);
+            g.drawLine(left, wallY, right, wallY);
+        }
+    }
+}
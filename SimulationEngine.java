@@ -0,0 +1,1223 @@
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Estado y física de la simulación, sin ninguna dependencia de Swing.
+ *
+ * Contiene las cámaras, los demonios y los agujeros negros, avanza la
+ * simulación paso a paso y ofrece las operaciones de edición (añadir,
+ * quitar, llenar regiones...). MaxwellContainer es solo la interfaz
+ * gráfica sobre este motor; los modos sin ventana (exportación de
+ * fotogramas, ejecuciones largas) usan el motor directamente.
+ *
+ * Las operaciones que no pueden completarse lanzan IllegalArgumentException
+ * o devuelven null; los mensajes de estado son cosa de quien llama.
+ *
+ * El motor no es seguro para varios hilos: lo modifica solo el hilo que lo
+ * avanza. Desde cualquier otro hilo, las modificaciones se envían con post()
+ * a una cola sin bloqueos y se aplican al principio del siguiente paso, de
+ * modo que nunca coinciden con el avance y el paso no toma ningún cerrojo.
+ */
+public class SimulationEngine {
+    public static final double SPEED_THRESHOLD = Particle.FAST_SPEED_THRESHOLD;
+    public static final int BLACK_HOLE_RADIUS = 15;
+    public static final int PARTICLE_RADIUS = 5;
+    public static final int DEFAULT_PARTICLES_PER_CHAMBER = 50;
+    private static final double HOLE_FIELD_STRENGTH = 40.0;
+    private static final double HOLE_FIELD_SOFTENING = 25.0; // Evita aceleraciones enormes cerca del centro
+
+    // Geometría del contenedor
+    private final int left, top;
+    private int width, height;
+    private int columns, rows;
+    private ChamberGrid chamberGrid;
+
+    // Partículas por cámara, demonios y agujeros negros
+    private final ArrayList<ArrayList<Particle>> chambers = new ArrayList<>();
+    private final ArrayList<Demon> demons = new ArrayList<>();
+    private final ArrayList<Hole> blackHoles = new ArrayList<>();
+
+    // Partículas absorbidas o descartadas, para reutilizarlas al crear otras
+    private final ParticlePool particlePool = new ParticlePool();
+
+    // Entradas de partículas y totales de flujo (emitidas por las fuentes, absorbidas por los agujeros)
+    private final ArrayList<ParticleSource> sources = new ArrayList<>();
+    private long particlesEmitted;
+    private long particlesAbsorbed;
+    private long particlesReleased;
+
+    // Sucesos programados de los agujeros (vaciado, evaporación), sin recorrerlos en cada paso
+    private final TimerWheel timers = new TimerWheel();
+    private final IdentityHashMap<Hole, HoleTimer> holeTimers = new IdentityHashMap<>();
+    private long holesEvaporated;
+
+    // Rejilla de los agujeros que atraen o absorben, reconstruida en cada paso
+    private HoleGrid holeGrid;
+    private boolean holeGravityEnabled = false;
+    private int maxParticleRadius = PARTICLE_RADIUS; // Acota el alcance de absorción de los agujeros
+
+    // Índices espaciales para seleccionar con el ratón. El de partículas se crea
+    // en la primera selección y desde entonces el paso lo mantiene al día; el de
+    // agujeros se reconstruye al consultarlo si cambiaron desde la última vez
+    private ParticleGrid particlePickGrid;
+    private SpatialGrid<Hole> holePickGrid;
+    private boolean holesChanged = true;
+
+    // Modificación pendiente de aplicar en el hilo que avanza el motor
+    public interface Command {
+        void apply(SimulationEngine engine);
+    }
+
+    private final MpscQueue<Command> commands = new MpscQueue<>();
+    private Consumer<RuntimeException> commandErrorHandler; // null = relanzar
+
+    // Se llama en cada paso tras mover las partículas y operar las puertas
+    private Consumer<SimulationEngine> stepHook;
+
+    // Media puerta en una pared exterior: lo que admite sale del motor por exit (p. ej. hacia otro proceso)
+    private static final class BoundaryGate {
+        final Demon demon;
+        final boolean fromLow;
+        final Consumer<Particle> exit;
+
+        BoundaryGate(Demon demon, boolean fromLow, Consumer<Particle> exit) {
+            this.demon = demon;
+            this.fromLow = fromLow;
+            this.exit = exit;
+        }
+    }
+
+    private final ArrayList<BoundaryGate> boundaryGates = new ArrayList<>();
+
+    // Demonios y medias puertas de frontera de las paredes de cada cámara; se
+    // reconstruyen cuando cambia la lista de demonios o se añade una media puerta
+    private Demon[][] demonsByChamber;
+    private BoundaryGate[][] boundaryGatesByChamber;
+    private int demonIndexSize = -1;
+    private final ArrayList<Particle> crossed = new ArrayList<>(); // Cruces de puerta del paso en curso
+
+    private final Random random;
+    private long stepCount;
+
+    // Paso de tiempo: cuánto tiempo simulado avanza cada paso y en cuántos subpasos
+    private final AdaptiveTimestep timestep = new AdaptiveTimestep();
+    private double simulatedTime;
+    private double lastTimeStep = 1.0;
+    private int lastSubsteps = 1;
+    private int lastClampedParticles;
+    private double lastMaxSpeed; // Rapidez máxima al final del paso anterior, para el modo automático
+
+    // Contadores de partículas, mantenidos donde cambian (altas, bajas y cambios
+    // de velocidad) para publicar las métricas sin recorrer las partículas; la
+    // pasada de step() vuelve a contar las rápidas de paso
+    private int particleCount;
+    private int fastCount;
+
+    // Última instantánea de métricas publicada; se lee desde cualquier hilo
+    private volatile SimulationMetrics metrics;
+    private int metricsInterval = 1; // Pasos entre dos publicaciones
+
+    // Instantánea completa del estado, publicada junto con las métricas si está activada.
+    // Las que ningún lector retiene vuelven al conjunto y se reutilizan.
+    private volatile SimulationSnapshot snapshot;
+    private final MpscQueue<SimulationSnapshot> snapshotPool = new MpscQueue<>();
+    private boolean snapshotsEnabled = false;
+    private boolean snapshotStale; // Hubo ediciones desde la última instantánea
+    private long snapshotVersion;
+
+    public SimulationEngine(int left, int top, int width, int height, int columns, int rows) {
+        this(left, top, width, height, columns, rows, new Random());
+    }
+
+    // Con semilla fija: la misma configuración produce siempre la misma ejecución
+    public SimulationEngine(int left, int top, int width, int height, int columns, int rows, long seed) {
+        this(left, top, width, height, columns, rows, new Random(seed));
+    }
+
+    private SimulationEngine(int left, int top, int width, int height, int columns, int rows, Random random) {
+        this.left = left;
+        this.top = top;
+        this.random = random;
+        resize(width, height, columns, rows);
+    }
+
+    /**
+     * Cambiar las dimensiones y el número de cámaras. Vacía el contenedor:
+     * las partículas, los demonios, los agujeros y las fuentes se descartan.
+     */
+    public void resize(int width, int height, int columns, int rows) {
+        ChamberGrid grid = new ChamberGrid(left, top, width, height, columns, rows);
+        this.width = width;
+        this.height = height;
+        this.columns = columns;
+        this.rows = rows;
+        chamberGrid = grid;
+
+        // Las rejillas se recrean con las nuevas dimensiones
+        holeGrid = new HoleGrid(left, top, width, height);
+        particlePickGrid = null;
+        holePickGrid = null;
+        holesChanged = true;
+        for (ArrayList<Particle> chamber : chambers) {
+            particlePool.releaseAll(chamber);
+        }
+        chambers.clear();
+        particleCount = 0;
+        fastCount = 0;
+        for (int c = 0; c < chamberGrid.getChamberCount(); c++) {
+            chambers.add(new ArrayList<>());
+        }
+        demons.clear();
+        boundaryGates.clear();
+        demonIndexSize = -1;
+        clearHoles();
+        sources.clear();
+        publishMetrics();
+    }
+
+    // Estado inicial: partículas por defecto, sin agujeros ni fuentes y un demonio en una pared al azar
+    public void reset() {
+        populateDefault();
+        demons.clear();
+        demonIndexSize = -1;
+        clearHoles();
+        sources.clear();
+        holesChanged = true;
+        addRandomDemon();
+        publishEdit();
+    }
+
+    // 50 partículas por cámara con velocidades uniformes
+    public void populateDefault() {
+        ParticleInitializer initializer = new ParticleInitializer(random.nextLong());
+        initializer.setParticlesPerChamber(DEFAULT_PARTICLES_PER_CHAMBER);
+        initializer.setParticleRadius(PARTICLE_RADIUS);
+        initializeParticles(initializer);
+    }
+
+    // Reemplazar todas las partículas usando un inicializador configurado
+    public void initializeParticles(ParticleInitializer initializer) {
+        initializer.populate(chamberGrid, chambers, particlePool);
+        maxParticleRadius = Math.max(PARTICLE_RADIUS, initializer.getParticleRadius());
+        // El inicializador llena las listas directamente: posiciones y contadores se recalculan una vez
+        particleCount = 0;
+        fastCount = 0;
+        for (ArrayList<Particle> chamber : chambers) {
+            for (int i = 0; i < chamber.size(); i++) {
+                Particle p = chamber.get(i);
+                p.setSlot(i);
+                p.setCountedFast(p.isFast());
+                if (p.isFast()) fastCount++;
+            }
+            particleCount += chamber.size();
+        }
+        if (particlePickGrid != null) {
+            particlePickGrid.rebuild(chambers);
+        }
+        publishEdit();
+    }
+
+    /**
+     * Avanzar un paso de la simulación. El paso cubre el tiempo que elija el
+     * control de paso; cada partícula lo recorre en tantos subpasos como
+     * necesite su propia rapidez para no saltarse la ventana de una puerta
+     * ni el radio de un agujero, así que solo se subdividen las rápidas.
+     */
+    public void step() {
+        // Límite de tic: las modificaciones enviadas desde otros hilos se aplican aquí
+        drainCommands();
+
+        double limit = timestep.isEnabled() ? displacementLimit() : Double.POSITIVE_INFINITY;
+        double dt = timestep.chooseTimeStep(lastMaxSpeed, limit);
+        double singleStepSpeed = timestep.singleStepSpeed(dt, limit);
+        double singleStepSpeedSquared = singleStepSpeed * singleStepSpeed;
+        if (demonIndexSize != demons.size()) {
+            buildDemonIndex();
+        }
+        SpatialGrid<Hole> holes = holeGrid.build(blackHoles, maxParticleRadius);
+        ParticleGrid pickGrid = particlePickGrid;
+
+        int maxSubsteps = 1;
+        int clamped = 0;
+        double maxSpeedSquared = 0.0;
+        // La pasada recorre todas las partículas: recuenta las rápidas aunque se haya
+        // cambiado la velocidad de alguna desde fuera del motor (Particle.setVelocity);
+        // hasta entonces, cada una se descuenta como se contó (Particle.isCountedFast)
+        int fast = 0;
+        for (int c = 0; c < chambers.size(); c++) {
+            ArrayList<Particle> chamber = chambers.get(c);
+            // Las partículas que se quitan dejan su sitio a la última, que se procesa a continuación
+            int i = 0;
+            while (i < chamber.size()) {
+                Particle p = chamber.get(i);
+                int substeps = 1;
+                if (p.getSpeedSquared() > singleStepSpeedSquared) {
+                    double required = timestep.requiredSubsteps(p.getSpeed(), dt, limit);
+                    substeps = timestep.substeps(p.getSpeed(), dt, limit);
+                    if (required > substeps) {
+                        clamped++;
+                    }
+                    maxSubsteps = Math.max(maxSubsteps, substeps);
+                }
+
+                int outcome = advance(p, dt / substeps, substeps, holes);
+                if (outcome != STAYED) {
+                    removeFromChamber(chamber, i);
+                    if (pickGrid != null) {
+                        pickGrid.remove(p);
+                    }
+                    particleCount--;
+                    if (outcome == ABSORBED) {
+                        particlePool.release(p);
+                        particlesAbsorbed++;
+                    } else {
+                        // Salió por una media puerta de frontera: pasa a quien la registró
+                        boundaryGatesByChamber[c][outcome].exit.accept(p);
+                    }
+                    continue;
+                }
+                if (pickGrid != null) {
+                    pickGrid.update(p);
+                }
+                maxSpeedSquared = Math.max(maxSpeedSquared, p.getSpeedSquared());
+                boolean isFast = p.isFast();
+                p.setCountedFast(isFast);
+                if (isFast) fast++;
+                if (p.getChamber() != c) {
+                    // Cruzó una puerta: entra en su nueva cámara después de la pasada
+                    removeFromChamber(chamber, i);
+                    crossed.add(p);
+                    continue;
+                }
+                i++;
+            }
+        }
+        for (Particle p : crossed) {
+            appendToChamber(p);
+        }
+        crossed.clear();
+        fastCount = fast;
+        lastTimeStep = dt;
+        if (stepHook != null) {
+            stepHook.accept(this);
+        }
+
+        emitFromSources(dt);
+        simulatedTime += dt;
+        // Tics de la rueda = unidades enteras de tiempo simulado
+        timers.advanceTo((long) simulatedTime);
+        lastSubsteps = maxSubsteps;
+        lastClampedParticles = clamped;
+        lastMaxSpeed = Math.sqrt(maxSpeedSquared);
+        stepCount++;
+        if (stepCount % metricsInterval == 0) {
+            publishMetrics();
+        }
+    }
+
+    // Resultados de advance() además del índice de la media puerta de frontera por la que salió
+    private static final int STAYED = -1;
+    private static final int ABSORBED = -2;
+
+    /**
+     * Avanzar una partícula en sus subpasos: movimiento y rebote en las
+     * paredes de su cámara, puertas de los demonios de esa cámara, medias
+     * puertas de frontera y campo y absorción de los agujeros cercanos
+     * @return STAYED, ABSORBED si un agujero la absorbió o el índice en
+     *         boundaryGatesByChamber de la media puerta por la que salió
+     */
+    private int advance(Particle p, double h, int substeps, SpatialGrid<Hole> holes) {
+        for (int s = 0; s < substeps; s++) {
+            int c = p.getChamber();
+            p.move(h);
+            chamberGrid.bounce(p, c);
+
+            // Una partícula que cruza una puerta no vuelve a medirse en el mismo subpaso
+            boolean gated = false;
+            for (Demon demon : demonsByChamber[c]) {
+                if (demon.gateParticle(p, SPEED_THRESHOLD)) {
+                    gated = true;
+                    break;
+                }
+            }
+            if (!gated) {
+                BoundaryGate[] gates = boundaryGatesByChamber[c];
+                for (int g = 0; g < gates.length; g++) {
+                    if (gates[g].demon.gateParticle(p, gates[g].fromLow, SPEED_THRESHOLD)) {
+                        return g;
+                    }
+                }
+            }
+            if (holes != null && interactWithHoles(p, h, holes)) {
+                return ABSORBED;
+            }
+        }
+        return STAYED;
+    }
+
+    // Demonios de las paredes de cada cámara, a un lado u otro de la puerta, y medias puertas de frontera
+    private void buildDemonIndex() {
+        demonsByChamber = Demon.indexByChamber(demons, chambers.size());
+        ArrayList<ArrayList<BoundaryGate>> lists = new ArrayList<>();
+        for (int c = 0; c < chambers.size(); c++) {
+            lists.add(new ArrayList<>());
+        }
+        for (BoundaryGate gate : boundaryGates) {
+            lists.get(gate.demon.getLowChamber()).add(gate);
+        }
+        boundaryGatesByChamber = new BoundaryGate[chambers.size()][];
+        for (int c = 0; c < chambers.size(); c++) {
+            boundaryGatesByChamber[c] = lists.get(c).toArray(new BoundaryGate[0]);
+        }
+        demonIndexSize = demons.size();
+    }
+
+    /**
+     * Añadir una media puerta en una pared exterior, cuya otra cámara no está
+     * en este motor (p. ej. la de un nodo vecino, ver DomainNode). Se opera en
+     * cada subpaso, como las puertas de los demonios, sobre las partículas de
+     * su cámara baja, medidas como venidas del lado bajo (fromLow) o del alto.
+     * Las que admite salen del contenedor y pasan a exit, que se queda con
+     * ellas. Se descartan con resize().
+     */
+    public void addBoundaryGate(Demon gate, boolean fromLow, Consumer<Particle> exit) {
+        if (gate.getLowChamber() < 0 || gate.getLowChamber() >= chambers.size()) {
+            throw new IllegalArgumentException("Cámara fuera de 0-" + (chambers.size() - 1) + ": " + gate.getLowChamber());
+        }
+        boundaryGates.add(new BoundaryGate(gate, fromLow, exit));
+        demonIndexSize = -1;
+    }
+
+    // Enviar una modificación desde cualquier hilo; se aplica en el próximo límite de tic
+    public void post(Command command) {
+        commands.offer(command);
+    }
+
+    /**
+     * Aplicar las modificaciones pendientes en el orden en que llegaron. Solo
+     * debe llamarlo el hilo que avanza el motor. Si una modificación falla, la
+     * excepción pasa al manejador de errores; sin manejador se relanza y las
+     * modificaciones que quedan se aplican en el siguiente vaciado.
+     * @return número de modificaciones aplicadas
+     */
+    public int drainCommands() {
+        int applied = 0;
+        Command command;
+        while ((command = commands.poll()) != null) {
+            applied++;
+            try {
+                command.apply(this);
+            } catch (RuntimeException e) {
+                if (commandErrorHandler == null) {
+                    throw e;
+                }
+                commandErrorHandler.accept(e);
+            }
+        }
+        return applied;
+    }
+
+    public void setCommandErrorHandler(Consumer<RuntimeException> commandErrorHandler) {
+        this.commandErrorHandler = commandErrorHandler;
+    }
+
+    public void setStepHook(Consumer<SimulationEngine> stepHook) {
+        this.stepHook = stepHook;
+    }
+
+    // Publicar una instantánea nueva de las métricas (copia de los contadores, sin recorrer las partículas)
+    public void publishMetrics() {
+        metrics = currentMetrics();
+        if (snapshotsEnabled) {
+            publishSnapshot();
+        }
+    }
+
+    // Tras una edición solo se publican las métricas; la instantánea completa se
+    // copia una vez con el siguiente paso o con publishPendingSnapshot()
+    private void publishEdit() {
+        metrics = currentMetrics();
+        if (snapshotsEnabled) {
+            snapshotStale = true;
+        }
+    }
+
+    private SimulationMetrics currentMetrics() {
+        int leftCount = chambers.isEmpty() ? 0 : chambers.get(0).size();
+        int rightCount = chambers.size() > 1 ? chambers.get(1).size() : 0;
+        return new SimulationMetrics(stepCount, chambers.size(), particleCount, fastCount,
+                                     leftCount, rightCount, blackHoles.size(), demons);
+    }
+
+    // Publicar la instantánea si hubo ediciones desde la última (p. ej. tras un lote de clics en pausa)
+    public void publishPendingSnapshot() {
+        if (snapshotStale) {
+            publishSnapshot();
+        }
+    }
+
+    // Copiar el estado a una instantánea del conjunto y reemplazar la publicada
+    private void publishSnapshot() {
+        SimulationSnapshot next = snapshotPool.poll();
+        if (next == null) {
+            next = new SimulationSnapshot(snapshotPool);
+        }
+        next.fill(++snapshotVersion, stepCount, simulatedTime, chamberGrid, metrics, chambers, blackHoles, demons);
+        next.publish();
+        snapshotStale = false;
+        SimulationSnapshot previous = snapshot;
+        snapshot = next;
+        if (previous != null) {
+            previous.release();
+        }
+    }
+
+    /**
+     * Obtener la última instantánea publicada desde cualquier hilo, sin bloquear.
+     * Hay que cerrarla al terminar (try-with-resources). null si las
+     * instantáneas no están activadas.
+     */
+    public SimulationSnapshot acquireSnapshot() {
+        while (true) {
+            SimulationSnapshot current = snapshot;
+            if (current == null) {
+                return null;
+            }
+            // Si el motor la reemplazó y se recicló entre la lectura y la retención, reintentar
+            if (current.retain()) {
+                return current;
+            }
+        }
+    }
+
+    // Desplazamiento máximo por subpaso: la ventana de puerta más estrecha (también
+    // las de frontera) o el agujero más pequeño
+    private double displacementLimit() {
+        double limit = Double.POSITIVE_INFINITY;
+        for (Demon demon : demons) {
+            limit = Math.min(limit, demon.getGateWindowWidth());
+        }
+        for (BoundaryGate gate : boundaryGates) {
+            limit = Math.min(limit, gate.demon.getGateWindowWidth());
+        }
+        for (Hole bh : blackHoles) {
+            if (!bh.isFull()) {
+                limit = Math.min(limit, bh.getRadius());
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Acelerar una partícula hacia los agujeros cercanos con campo y
+     * comprobar si alguno la absorbe
+     * @return true si un agujero la absorbió
+     */
+    private boolean interactWithHoles(Particle p, double dt, SpatialGrid<Hole> grid) {
+        double x = p.getX();
+        double y = p.getY();
+        int col = grid.columnOf(x);
+        int row = grid.rowOf(y);
+        double ax = 0.0;
+        double ay = 0.0;
+        Hole absorber = null;
+
+        for (int r = Math.max(0, row - 1); r <= Math.min(grid.getRows() - 1, row + 1); r++) {
+            for (int c = Math.max(0, col - 1); c <= Math.min(grid.getColumns() - 1, col + 1); c++) {
+                for (int i = grid.cellBegin(c, r); i < grid.cellEnd(c, r); i++) {
+                    Hole bh = grid.get(i);
+                    if (absorber == null && bh.canAbsorb(p)) {
+                        absorber = bh;
+                    }
+                    if (!bh.hasField()) continue;
+                    double dx = bh.getX() - x;
+                    double dy = bh.getY() - y;
+                    double d2 = dx * dx + dy * dy;
+                    int cutoff = bh.getFieldCutoff();
+                    if (d2 > 0.0 && d2 < cutoff * cutoff) {
+                        double a = dt * bh.getEffectiveFieldStrength() / ((d2 + HOLE_FIELD_SOFTENING) * Math.sqrt(d2));
+                        ax += a * dx;
+                        ay += a * dy;
+                    }
+                }
+            }
+        }
+
+        if (ax != 0.0 || ay != 0.0) {
+            changeVelocity(p, p.getVelocityX() + ax, p.getVelocityY() + ay);
+        }
+        if (absorber != null && absorber.absorbParticle()) {
+            if (absorber.getDrainRate() > 0.0) {
+                wakeDrain(absorber);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // Quitar la partícula i de una cámara en O(1): la última pasa a ocupar su sitio
+    private static void removeFromChamber(ArrayList<Particle> chamber, int i) {
+        int last = chamber.size() - 1;
+        if (i != last) {
+            Particle moved = chamber.get(last);
+            chamber.set(i, moved);
+            moved.setSlot(i);
+        }
+        chamber.remove(last);
+    }
+
+    // Añadir una partícula al final de la lista de su cámara, recordando su posición
+    private void appendToChamber(Particle p) {
+        ArrayList<Particle> chamber = chambers.get(p.getChamber());
+        p.setSlot(chamber.size());
+        chamber.add(p);
+    }
+
+    // Añadir una partícula nueva al contenedor y al índice de selección, si existe
+    private void addToContainer(Particle p) {
+        appendToChamber(p);
+        if (particlePickGrid != null) {
+            particlePickGrid.insert(p);
+        }
+        particleCount++;
+        p.setCountedFast(p.isFast());
+        if (p.isFast()) fastCount++;
+    }
+
+    // Descontar una partícula con la clasificación con la que se contó, no con la de
+    // ahora: así una velocidad cambiada desde fuera no descuadra el contador
+    private void countRemoved(Particle p) {
+        particleCount--;
+        if (p.isCountedFast()) fastCount--;
+    }
+
+    // Cambiar la velocidad de una partícula del contenedor sin descuadrar el contador de rápidas
+    private void changeVelocity(Particle p, double velocityX, double velocityY) {
+        boolean wasFast = p.isCountedFast();
+        p.setVelocity(velocityX, velocityY);
+        if (p.isFast() != wasFast) {
+            fastCount += wasFast ? -1 : 1;
+            p.setCountedFast(!wasFast);
+        }
+    }
+
+    // Emitir las partículas que tocan en este paso, tomadas del conjunto de reutilización
+    private void emitFromSources(double dt) {
+        for (ParticleSource source : sources) {
+            int due = source.takeDue(dt);
+            if (due == 0) continue;
+
+            int chamber = chamberGrid.chamberAt(source.getX(), source.getY());
+            for (int i = 0; i < due; i++) {
+                double angle = random.nextDouble() * 2 * Math.PI;
+                double r = source.getSpread() * Math.sqrt(random.nextDouble());
+                spawnParticle(chamber, source.getX() + r * Math.cos(angle), source.getY() + r * Math.sin(angle),
+                              source.getTemperature());
+            }
+            source.recordEmitted(due);
+            particlesEmitted += due;
+        }
+    }
+
+    // Crear una partícula térmica del conjunto dentro de los límites de rebote de una cámara
+    private Particle spawnParticle(int chamber, double x, double y, double temperature) {
+        double px = Math.max(chamberGrid.getMinX(chamber) + PARTICLE_RADIUS,
+                             Math.min(chamberGrid.getMaxX(chamber) - PARTICLE_RADIUS, x));
+        double py = Math.max(chamberGrid.getMinY(chamber) + PARTICLE_RADIUS,
+                             Math.min(chamberGrid.getMaxY(chamber) - PARTICLE_RADIUS, y));
+        Particle p = particlePool.acquire(px, py, PARTICLE_RADIUS, 0, 0, random.nextInt(Particle.getColorCount()));
+        VelocitySampler.maxwellBoltzmann(p, temperature, random);
+        p.setChamber(chamber);
+        addToContainer(p);
+        return p;
+    }
+
+    // Devolver partículas de un agujero al contenedor, en su borde y alejándose de él
+    private void releaseFromHole(Hole hole, int count) {
+        int chamber = chamberGrid.chamberAt(hole.getX(), hole.getY());
+        double ring = hole.getRadius() + PARTICLE_RADIUS + 1;
+        for (int i = 0; i < count; i++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double nx = Math.cos(angle);
+            double ny = Math.sin(angle);
+            Particle p = spawnParticle(chamber, hole.getX() + ring * nx, hole.getY() + ring * ny,
+                                       ParticleSource.DEFAULT_TEMPERATURE);
+            double outward = p.getVelocityX() * nx + p.getVelocityY() * ny;
+            if (outward < 0) {
+                changeVelocity(p, p.getVelocityX() - 2 * outward * nx, p.getVelocityY() - 2 * outward * ny);
+            }
+        }
+        particlesReleased += count;
+    }
+
+    /**
+     * Temporizador de un agujero con comportamiento en el tiempo: vacía su
+     * contador cada drainPeriod tics y lo evapora al final de su vida. Un
+     * agujero vacío deja de vaciarse (queda aparcado) hasta que vuelve a
+     * absorber algo, así que los agujeros inactivos no cuestan nada por tic.
+     */
+    private final class HoleTimer extends TimerWheel.Timer {
+        private final Hole hole;
+        private long drainPeriod;                // 0 = sin vaciado
+        private long nextDrain = Long.MAX_VALUE; // MAX = sin vaciado pendiente
+        private long death = Long.MAX_VALUE;     // MAX = no se evapora
+        private double lifetime;                 // Vida con la que se calculó death
+
+        HoleTimer(Hole hole) {
+            this.hole = hole;
+        }
+
+        void reschedule() {
+            long next = Math.min(nextDrain, death);
+            if (next == Long.MAX_VALUE) {
+                timers.cancel(this);
+            } else {
+                timers.scheduleAt(this, next);
+            }
+        }
+
+        @Override
+        protected void expire(long tick) {
+            if (tick >= death) {
+                evaporate(hole);
+                return;
+            }
+            if (tick >= nextDrain) {
+                int drained = hole.drain(drainPeriod);
+                if (drained > 0 && hole.isReleasingParticles()) {
+                    releaseFromHole(hole, drained);
+                }
+                nextDrain = hole.getParticlesAbsorbed() > 0 ? tick + drainPeriod : Long.MAX_VALUE;
+            }
+            reschedule();
+        }
+    }
+
+    // Programar de nuevo el temporizador de un agujero tras cambiar su ritmo de vaciado o su vida
+    private void updateHoleTimer(Hole hole) {
+        HoleTimer timer = holeTimers.get(hole);
+        if (hole.getDrainRate() <= 0.0 && hole.getLifetime() <= 0.0) {
+            if (timer != null) {
+                timers.cancel(timer);
+                holeTimers.remove(hole);
+            }
+            return;
+        }
+        if (timer == null) {
+            timer = new HoleTimer(hole);
+            holeTimers.put(hole, timer);
+        }
+        long now = timers.getCurrentTick();
+        timer.drainPeriod = hole.getDrainRate() > 0.0 ? Math.max(1, (long) Math.ceil(1.0 / hole.getDrainRate())) : 0;
+        timer.nextDrain = timer.drainPeriod > 0 && hole.getParticlesAbsorbed() > 0 ? now + timer.drainPeriod : Long.MAX_VALUE;
+        if (hole.getLifetime() != timer.lifetime) {
+            timer.lifetime = hole.getLifetime();
+            timer.death = timer.lifetime > 0.0 ? now + Math.max(1, (long) Math.ceil(timer.lifetime)) : Long.MAX_VALUE;
+        }
+        timer.reschedule();
+    }
+
+    // Un agujero aparcado que vuelve a absorber reanuda el vaciado
+    private void wakeDrain(Hole hole) {
+        HoleTimer timer = holeTimers.get(hole);
+        if (timer != null && timer.drainPeriod > 0 && timer.nextDrain == Long.MAX_VALUE) {
+            timer.nextDrain = timers.getCurrentTick() + timer.drainPeriod;
+            timer.reschedule();
+        }
+    }
+
+    // Fin de la vida de un agujero: desaparece y, si libera partículas, devuelve las que tenía
+    private void evaporate(Hole hole) {
+        if (hole.isReleasingParticles()) {
+            releaseFromHole(hole, hole.getParticlesAbsorbed());
+        }
+        blackHoles.remove(hole);
+        detachHole(hole);
+        holesEvaporated++;
+        holesChanged = true;
+    }
+
+    // Los agujeros nuevos avisan al motor cuando cambian su vaciado o su vida
+    private void attachHole(Hole hole) {
+        hole.setTimingListener(() -> updateHoleTimer(hole));
+    }
+
+    private void detachHole(Hole hole) {
+        hole.setTimingListener(null);
+        timers.cancel(holeTimers.remove(hole));
+    }
+
+    // Quitar todos los agujeros y sus temporizadores
+    private void clearHoles() {
+        for (Hole hole : blackHoles) {
+            hole.setTimingListener(null);
+        }
+        blackHoles.clear();
+        holeTimers.clear();
+        timers.clear();
+    }
+
+    // Verificar si un punto está dentro del contenedor (bordes incluidos)
+    public boolean isInside(double x, double y) {
+        return x >= left && x <= left + width && y >= top && y <= top + height;
+    }
+
+    // Añadir un demonio en una pared interior elegida al azar
+    public Demon addRandomDemon() {
+        if (chamberGrid.getInnerWallCount() == 0) {
+            throw new IllegalArgumentException("The container has no inner walls");
+        }
+        int wall = random.nextInt(chamberGrid.getInnerWallCount());
+        int verticalWalls = (columns - 1) * rows;
+        int low, high;
+        if (wall < verticalWalls) {
+            int row = wall / (columns - 1);
+            low = row * columns + wall % (columns - 1);
+            high = low + 1;
+        } else {
+            low = wall - verticalWalls;
+            high = low + columns;
+        }
+        return addDemonOnWall(low, high, -1);
+    }
+
+    /**
+     * Añade un demonio en la pared que separa dos cámaras vecinas
+     * @param low cámara a la izquierda (o encima) de la pared
+     * @param high cámara a la derecha (o debajo) de la pared
+     * @param along posición a lo largo de la pared, o -1 para una posición aleatoria
+     */
+    public Demon addDemonOnWall(int low, int high, int along) {
+        if (!chamberGrid.areNeighbors(low, high)) {
+            throw new IllegalArgumentException("Chambers " + low + " and " + high + " do not share a wall");
+        }
+
+        boolean horizontal = high != low + 1;
+        int start = horizontal ? chamberGrid.getMinX(low) : chamberGrid.getMinY(low);
+        int end = horizontal ? chamberGrid.getMaxX(low) : chamberGrid.getMaxY(low);
+
+        if (along < 0) {
+            int min = start + 50;
+            int max = end - 50;
+            if (max <= min) {
+                max = end - 20;
+                min = start + 20;
+            }
+            along = min + random.nextInt(Math.max(1, max - min));
+        }
+
+        Demon demon;
+        if (horizontal) {
+            demon = new Demon(along, chamberGrid.getMinY(high), true, low, high);
+        } else {
+            demon = new Demon(chamberGrid.getMinX(high), along, false, low, high);
+        }
+        demons.add(demon);
+        demonIndexSize = -1;
+        publishEdit();
+        return demon;
+    }
+
+    // Quitar el último demonio añadido; false si no hay ninguno
+    public boolean removeLastDemon() {
+        if (demons.isEmpty()) {
+            return false;
+        }
+        demons.remove(demons.size() - 1);
+        demonIndexSize = -1;
+        publishEdit();
+        return true;
+    }
+
+    // Buscar el demonio bajo un punto (el último dibujado queda encima)
+    public Demon findDemonAt(int x, int y) {
+        for (int i = demons.size() - 1; i >= 0; i--) {
+            if (demons.get(i).contains(x, y)) {
+                return demons.get(i);
+            }
+        }
+        return null;
+    }
+
+    // Mover un demonio a lo largo de su pared, manteniendo la puerta dentro del tramo de pared
+    public void moveDemon(Demon demon, int position) {
+        int size = demon.getTriangleSize();
+        int low = demon.getLowChamber();
+        int start = demon.isHorizontal() ? chamberGrid.getMinX(low) : chamberGrid.getMinY(low);
+        int end = demon.isHorizontal() ? chamberGrid.getMaxX(low) : chamberGrid.getMaxY(low);
+        int clamped = Math.max(start + size, Math.min(Math.max(start + size, end - size), position));
+        if (demon.isHorizontal()) {
+            demon.setPositionX(clamped);
+        } else {
+            demon.setPositionY(clamped);
+        }
+        publishEdit();
+    }
+
+    // Cambiar el tamaño de un demonio sin que la puerta sobresalga del contenedor
+    public void resizeDemon(Demon demon, int size) {
+        int low = demon.getLowChamber();
+        int wallLength = demon.isHorizontal()
+            ? chamberGrid.getMaxX(low) - chamberGrid.getMinX(low)
+            : chamberGrid.getMaxY(low) - chamberGrid.getMinY(low);
+        demon.setTriangleSize(Math.min(Math.max(5, wallLength / 2), size));
+        moveDemon(demon, demon.isHorizontal() ? demon.getPositionX() : demon.getPositionY());
+    }
+
+    // Añadir una partícula rápida o lenta en un punto del contenedor
+    public Particle addParticle(double x, double y, boolean isFast) {
+        if (!isInside(x, y)) {
+            throw new IllegalArgumentException("Cannot add particle outside container");
+        }
+        Particle p = createParticle(x, y, isFast);
+        addToContainer(p);
+        publishEdit();
+        return p;
+    }
+
+    /**
+     * Insertar partículas ya creadas (p. ej. recibidas de otro proceso) como
+     * una sola mutación; cada una se asigna a la cámara que contiene su posición
+     * y entra sin marca de ventana, así que se mide si ya está en una
+     */
+    public void insertParticles(List<Particle> incoming) {
+        if (incoming.isEmpty()) {
+            return;
+        }
+        for (Particle p : incoming) {
+            maxParticleRadius = Math.max(maxParticleRadius, p.getRadius());
+            p.setChamber(chamberGrid.chamberAt(p.getX(), p.getY()));
+            p.setWindowMark(0);
+            addToContainer(p);
+        }
+        publishEdit();
+    }
+
+    // Crear una partícula rápida o lenta en un punto, asignada a la cámara que lo contiene
+    private Particle createParticle(double x, double y, boolean isFast) {
+        // Generar un colorId aleatorio entre 0-49
+        int colorId = random.nextInt(50);
+
+        // Crear la partícula con una rapidez del lado correcto del umbral y dirección aleatoria
+        Particle newParticle = particlePool.acquire(x, y, PARTICLE_RADIUS, 0, 0, colorId);
+        if (isFast) {
+            VelocitySampler.fast(newParticle, SPEED_THRESHOLD, random);
+        } else {
+            VelocitySampler.slow(newParticle, SPEED_THRESHOLD, random);
+        }
+        newParticle.setChamber(chamberGrid.chamberAt(x, y));
+        return newParticle;
+    }
+
+    // Quitar la partícula más cercana cuyo círculo contiene el punto y devolverla al conjunto
+    // de reutilización, de modo que añadir y quitar con clics no crea objetos; false si no hay ninguna
+    public boolean removeParticleAt(int x, int y) {
+        Particle m = getParticlePickGrid().findNearestContaining(x, y, maxParticleRadius);
+        if (m == null) {
+            return false;
+        }
+        removeParticle(m);
+        particlePool.release(m);
+        publishEdit();
+        return true;
+    }
+
+    /**
+     * Sacar una partícula concreta del contenedor en O(1), usando la posición
+     * que recuerda en la lista de su cámara. Pasa a quien llama: no vuelve al
+     * conjunto de reutilización y las métricas no se publican de nuevo.
+     */
+    public void removeParticle(Particle p) {
+        ArrayList<Particle> chamber = chambers.get(p.getChamber());
+        int i = p.getSlot();
+        if (i >= chamber.size() || chamber.get(i) != p) {
+            throw new IllegalArgumentException("The particle is not in this container");
+        }
+        removeFromChamber(chamber, i);
+        if (particlePickGrid != null) {
+            particlePickGrid.remove(p);
+        }
+        countRemoved(p);
+    }
+
+    // Añadir una fuente que emite partículas en un punto del contenedor
+    public ParticleSource addSource(int x, int y, double rate) {
+        if (!isInside(x, y)) {
+            throw new IllegalArgumentException("Cannot add source outside container");
+        }
+        ParticleSource source = new ParticleSource(x, y, rate);
+        sources.add(source);
+        return source;
+    }
+
+    public boolean removeSource(ParticleSource source) {
+        return sources.remove(source);
+    }
+
+    // Añadir un agujero negro con capacidad aleatoria en un punto del contenedor
+    public Hole addHole(int x, int y) {
+        if (!isInside(x, y)) {
+            throw new IllegalArgumentException("Cannot add black hole outside container");
+        }
+        Hole hole = createHole(x, y);
+        blackHoles.add(hole);
+        holesChanged = true;
+        publishEdit();
+        return hole;
+    }
+
+    private Hole createHole(int x, int y) {
+        // Generar un límite aleatorio entre 5 y 15 partículas
+        int absorptionLimit = 5 + random.nextInt(11);
+        Hole hole = new Hole(x, y, BLACK_HOLE_RADIUS, absorptionLimit);
+        hole.setFieldStrength(holeGravityEnabled ? HOLE_FIELD_STRENGTH : 0.0);
+        attachHole(hole);
+        return hole;
+    }
+
+    // Quitar el agujero más cercano cuyo círculo contiene el punto; null si no hay ninguno
+    public Hole removeHoleAt(int x, int y) {
+        Hole bh = getHolePickGrid().findNearestContaining(x, y, BLACK_HOLE_RADIUS);
+        if (bh != null) {
+            blackHoles.remove(bh);
+            detachHole(bh);
+            holesChanged = true;
+            publishEdit();
+        }
+        return bh;
+    }
+
+    /**
+     * Llenar una región con partículas rápidas o lentas como una sola mutación:
+     * el índice se invalida una vez
+     */
+    public void fillRegion(double x, double y, double regionWidth, double regionHeight, int count, boolean isFast) {
+        for (int i = 0; i < count; i++) {
+            Particle p = createParticle(x + random.nextDouble() * regionWidth,
+                                        y + random.nextDouble() * regionHeight, isFast);
+            addToContainer(p);
+        }
+        publishEdit();
+    }
+
+    /**
+     * Eliminar las partículas, agujeros negros y fuentes de una región en una sola pasada por cámara
+     * @return número de partículas eliminadas
+     */
+    public int clearRegion(double minX, double minY, double maxX, double maxY) {
+        ArrayList<Particle> selected = new ArrayList<>();
+        getParticlePickGrid().collectInRectangle(minX, minY, maxX, maxY, selected);
+        for (Particle p : selected) {
+            removeParticle(p);
+        }
+        particlePool.releaseAll(selected);
+
+        for (int i = blackHoles.size() - 1; i >= 0; i--) {
+            Hole bh = blackHoles.get(i);
+            if (bh.getX() >= minX && bh.getX() <= maxX && bh.getY() >= minY && bh.getY() <= maxY) {
+                detachHole(bh);
+                blackHoles.remove(i);
+            }
+        }
+        sources.removeIf(source -> source.getX() >= minX && source.getX() <= maxX &&
+                                   source.getY() >= minY && source.getY() <= maxY);
+
+        holesChanged = true;
+        publishEdit();
+        return selected.size();
+    }
+
+    // Repartir agujeros negros al azar dentro de una región
+    public void scatterHoles(int x, int y, int regionWidth, int regionHeight, int count) {
+        for (int i = 0; i < count; i++) {
+            blackHoles.add(createHole(x + random.nextInt(regionWidth + 1), y + random.nextInt(regionHeight + 1)));
+        }
+        holesChanged = true;
+        publishEdit();
+    }
+
+    // Índice de partículas para selección; celdas del tamaño de cuatro radios.
+    // Se construye una sola vez: después lo mantienen el paso y las ediciones
+    private ParticleGrid getParticlePickGrid() {
+        if (particlePickGrid == null) {
+            particlePickGrid = new ParticleGrid(left, top, width, height, PARTICLE_RADIUS * 4);
+            particlePickGrid.rebuild(chambers);
+        }
+        return particlePickGrid;
+    }
+
+    // Índice de agujeros para selección; los agujeros no se mueven, solo cambia al añadir o quitar
+    private SpatialGrid<Hole> getHolePickGrid() {
+        if (holePickGrid == null) {
+            holePickGrid = new SpatialGrid<>(left, top, width, height, BLACK_HOLE_RADIUS * 2);
+            holesChanged = true;
+        }
+        if (holesChanged) {
+            holePickGrid.build(blackHoles);
+            holesChanged = false;
+        }
+        return holePickGrid;
+    }
+
+    // Activar o desactivar el campo de atracción en todos los agujeros negros
+    public void setHoleGravityEnabled(boolean enabled) {
+        holeGravityEnabled = enabled;
+        for (Hole bh : blackHoles) {
+            bh.setFieldStrength(enabled ? HOLE_FIELD_STRENGTH : 0.0);
+        }
+    }
+
+    public boolean isHoleGravityEnabled() {
+        return holeGravityEnabled;
+    }
+
+    // Contadores de partículas, leídos de la última instantánea publicada
+    public int countFast() {
+        return metrics.getFastCount();
+    }
+
+    public int countSlow() {
+        return metrics.getSlowCount();
+    }
+
+    public int getParticleCount() {
+        return metrics.getParticleCount();
+    }
+
+    // Última instantánea de métricas; no recorre las partículas y no bloquea
+    public SimulationMetrics getMetrics() {
+        return metrics;
+    }
+
+    public boolean isSnapshotsEnabled() {
+        return snapshotsEnabled;
+    }
+
+    // Publicar también una instantánea completa con cada publicación de métricas (por defecto, cada paso)
+    public void setSnapshotsEnabled(boolean snapshotsEnabled) {
+        this.snapshotsEnabled = snapshotsEnabled;
+        if (snapshotsEnabled) {
+            publishSnapshot();
+        } else if (snapshot != null) {
+            SimulationSnapshot previous = snapshot;
+            snapshot = null;
+            previous.release();
+        }
+    }
+
+    public int getMetricsInterval() {
+        return metricsInterval;
+    }
+
+    // Publicar métricas cada tantos pasos (las ediciones publican siempre)
+    public void setMetricsInterval(int metricsInterval) {
+        if (metricsInterval < 1) {
+            throw new IllegalArgumentException("El intervalo de métricas debe ser positivo");
+        }
+        this.metricsInterval = metricsInterval;
+    }
+
+    // Getters
+    public ArrayList<ArrayList<Particle>> getChambers() {
+        return chambers;
+    }
+
+    public ChamberGrid getChamberGrid() {
+        return chamberGrid;
+    }
+
+    public ArrayList<Demon> getDemons() {
+        return demons;
+    }
+
+    public ArrayList<ParticleSource> getSources() {
+        return sources;
+    }
+
+    // Total de partículas emitidas por las fuentes
+    public long getParticlesEmitted() {
+        return particlesEmitted;
+    }
+
+    // Total de partículas absorbidas por los agujeros
+    public long getParticlesAbsorbed() {
+        return particlesAbsorbed;
+    }
+
+    // Total de partículas devueltas al contenedor por agujeros que se vacían o se evaporan
+    public long getParticlesReleased() {
+        return particlesReleased;
+    }
+
+    public long getHolesEvaporated() {
+        return holesEvaporated;
+    }
+
+    public TimerWheel getTimerWheel() {
+        return timers;
+    }
+
+    public ParticlePool getParticlePool() {
+        return particlePool;
+    }
+
+    public ArrayList<Hole> getBlackHoles() {
+        return blackHoles;
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public int getTop() {
+        return top;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    // Control del paso de tiempo (activar, paso fijo o automático, límites)
+    public AdaptiveTimestep getTimestep() {
+        return timestep;
+    }
+
+    // Tiempo simulado acumulado; coincide con el número de pasos mientras el paso sea 1
+    public double getSimulatedTime() {
+        return simulatedTime;
+    }
+
+    // Tiempo simulado que avanzó el último paso
+    public double getLastTimeStep() {
+        return lastTimeStep;
+    }
+
+    // Mayor número de subpasos que dio una partícula en el último paso
+    public int getLastSubsteps() {
+        return lastSubsteps;
+    }
+
+    // Partículas del último paso que necesitaban más subpasos que el máximo y se recortaron
+    public int getLastClampedParticles() {
+        return lastClampedParticles;
+    }
+
+    public long getStepCount() {
+        return stepCount;
+    }
+}
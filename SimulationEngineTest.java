@@ -0,0 +1,212 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pruebas del motor de simulación sin interfaz gráfica.
+ */
+public class SimulationEngineTest {
+
+    private SimulationEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        engine = new SimulationEngine(50, 50, 700, 500, 2, 1, 20261019L);
+        engine.reset();
+    }
+
+    @Test
+    public void testResetCreatesDefaultParticlesAndOneDemon() {
+        assertEquals(2 * SimulationEngine.DEFAULT_PARTICLES_PER_CHAMBER, engine.getParticleCount());
+        assertEquals(1, engine.getDemons().size());
+        assertTrue(engine.getBlackHoles().isEmpty());
+    }
+
+    @Test
+    public void testParticlesStayInTheirChamberAndAreConservedWithoutHoles() {
+        for (int i = 0; i < 500; i++) {
+            engine.step();
+        }
+        assertEquals(2 * SimulationEngine.DEFAULT_PARTICLES_PER_CHAMBER, engine.getParticleCount());
+        assertEquals(engine.getParticleCount(), engine.countFast() + engine.countSlow());
+
+        ChamberGrid grid = engine.getChamberGrid();
+        ArrayList<ArrayList<Particle>> chambers = engine.getChambers();
+        for (int c = 0; c < chambers.size(); c++) {
+            for (Particle p : chambers.get(c)) {
+                assertEquals(c, p.getChamber(), "La partícula no está en la lista de su cámara");
+                assertTrue(p.getX() >= grid.getMinX(c) && p.getX() <= grid.getMaxX(c), "Partícula fuera de su cámara");
+                assertTrue(p.getY() >= grid.getMinY(c) && p.getY() <= grid.getMaxY(c), "Partícula fuera de su cámara");
+            }
+        }
+    }
+
+    @Test
+    public void testSameSeedGivesSameRun() {
+        SimulationEngine other = new SimulationEngine(50, 50, 700, 500, 2, 1, 20261019L);
+        other.reset();
+        for (int i = 0; i < 200; i++) {
+            engine.step();
+            other.step();
+        }
+        for (int c = 0; c < 2; c++) {
+            ArrayList<Particle> a = engine.getChambers().get(c);
+            ArrayList<Particle> b = other.getChambers().get(c);
+            assertEquals(a.size(), b.size());
+            for (int i = 0; i < a.size(); i++) {
+                assertEquals(a.get(i).getX(), b.get(i).getX(), 0.0);
+                assertEquals(a.get(i).getY(), b.get(i).getY(), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testEditingOperations() {
+        Particle p = engine.addParticle(100, 100, true);
+        assertTrue(p.isFast());
+        assertTrue(engine.removeParticleAt(100, 100));
+
+        // La partícula quitada vuelve al conjunto: añadir y quitar con clics no crea objetos
+        long created = engine.getParticlePool().getCreatedCount();
+        for (int i = 0; i < 20; i++) {
+            engine.addParticle(100, 100, i % 2 == 0);
+            assertTrue(engine.removeParticleAt(100, 100));
+        }
+        assertEquals(created, engine.getParticlePool().getCreatedCount());
+
+        assertThrows(IllegalArgumentException.class, () -> engine.addParticle(10, 10, false));
+        assertThrows(IllegalArgumentException.class, () -> engine.addDemonOnWall(0, 0, -1));
+
+        engine.addHole(300, 300);
+        assertEquals(1, engine.getBlackHoles().size());
+        engine.clearRegion(50, 50, 750, 550);
+        assertEquals(0, engine.getParticleCount());
+        assertTrue(engine.getBlackHoles().isEmpty());
+    }
+
+    @Test
+    public void testPickIndexFollowsParticlesBetweenSteps() {
+        // La primera selección crea el índice; después lo mantiene el paso
+        assertFalse(engine.removeParticleAt(0, 0));
+        for (int i = 0; i < 200; i++) {
+            engine.step();
+        }
+        Particle target = engine.getChambers().get(1).get(7);
+        assertTrue(engine.removeParticleAt((int) Math.round(target.getX()), (int) Math.round(target.getY())));
+        assertFalse(engine.getChambers().get(1).contains(target));
+        assertEquals(2 * SimulationEngine.DEFAULT_PARTICLES_PER_CHAMBER - 1, engine.getParticleCount());
+        assertThrows(IllegalArgumentException.class, () -> engine.removeParticle(target));
+
+        // Cada partícula sigue en la posición de su lista que recuerda
+        for (ArrayList<Particle> chamber : engine.getChambers()) {
+            for (int i = 0; i < chamber.size(); i++) {
+                assertEquals(i, chamber.get(i).getSlot());
+            }
+        }
+    }
+
+    @Test
+    public void testIncrementalCountersMatchTheParticles() {
+        // El campo de los agujeros cambia velocidades y los agujeros absorben y sueltan partículas
+        engine.setHoleGravityEnabled(true);
+        engine.scatterHoles(150, 150, 500, 300, 6);
+        for (Hole h : engine.getBlackHoles()) {
+            h.setDrainRate(0.2);
+            h.setReleasingParticles(true);
+        }
+        engine.fillRegion(100, 100, 200, 200, 300, true);
+        engine.clearRegion(400, 100, 500, 200);
+        for (int i = 0; i < 300; i++) {
+            engine.step();
+        }
+        assertTrue(engine.getParticlesAbsorbed() > 0, "Ningún agujero absorbió partículas");
+        assertCountersMatchTheParticles();
+    }
+
+    @Test
+    public void testRemovingAParticleSpedUpFromOutsideKeepsTheCounters() {
+        // Lenta para el motor, rápida tras cambiarle la velocidad sin pasar por él
+        Particle p = engine.addParticle(123, 321, false);
+        p.setVelocity(3 * Particle.FAST_SPEED_THRESHOLD, 0);
+        assertTrue(engine.removeParticleAt(123, 321));
+        assertCountersMatchTheParticles();
+    }
+
+    private void assertCountersMatchTheParticles() {
+        int total = 0;
+        int fast = 0;
+        for (ArrayList<Particle> chamber : engine.getChambers()) {
+            for (Particle p : chamber) {
+                if (p.isFast()) fast++;
+            }
+            total += chamber.size();
+        }
+        SimulationMetrics metrics = engine.getMetrics();
+        assertEquals(total, metrics.getParticleCount());
+        assertEquals(fast, metrics.getFastCount());
+    }
+
+    @Test
+    public void testMetricsArePublishedAfterStepsAndEdits() {
+        engine.setMetricsInterval(10);
+        SimulationMetrics before = engine.getMetrics();
+        for (int i = 0; i < 9; i++) {
+            engine.step();
+        }
+        assertSame(before, engine.getMetrics(), "Se publicó antes de completar el intervalo");
+        engine.step();
+        assertEquals(10, engine.getMetrics().getStepCount());
+
+        // Las ediciones publican de inmediato, aunque no se complete el intervalo
+        engine.addParticle(100, 100, true);
+        SimulationMetrics metrics = engine.getMetrics();
+        assertEquals(2 * SimulationEngine.DEFAULT_PARTICLES_PER_CHAMBER + 1, metrics.getParticleCount());
+        assertEquals(metrics.getParticleCount(), metrics.getFastCount() + metrics.getSlowCount());
+        assertEquals(metrics.getParticleCount(), metrics.getLeftCount() + metrics.getRightCount());
+    }
+
+    @Test
+    public void testSnapshotFollowsDemonEditsWhilePaused() {
+        engine.setSnapshotsEnabled(true);
+        Demon demon = engine.getDemons().get(0);
+        ChamberGrid grid = engine.getChamberGrid();
+        int low = demon.getLowChamber();
+        int target = demon.getPositionY() > (grid.getMinY(low) + grid.getMaxY(low)) / 2
+                     ? grid.getMinY(low) + 100 : grid.getMaxY(low) - 100;
+
+        // Como la interfaz en pausa: la edición llega por la cola y no hay paso que publique
+        engine.post(e -> e.moveDemon(demon, target));
+        engine.post(e -> e.resizeDemon(demon, 30));
+        engine.drainCommands();
+        engine.publishPendingSnapshot();
+
+        try (SimulationSnapshot snapshot = engine.acquireSnapshot()) {
+            assertEquals(demon.getPositionY(), snapshot.getDemonY(0));
+            assertEquals(target, snapshot.getDemonY(0));
+            assertEquals(30, snapshot.getDemonSize(0));
+        }
+    }
+
+    @Test
+    public void testBoundaryGatesRunInEverySubstep() {
+        // Una sola cámara de 0 a 400 con una media puerta en la pared derecha; ventana 380-395
+        SimulationEngine strip = new SimulationEngine(0, 0, 400, 200, 1, 1, 3L);
+        ArrayList<Particle> exits = new ArrayList<>();
+        Demon gate = new Demon(400, 100, false, 0, 0);
+        strip.addBoundaryGate(gate, true, exits::add);
+
+        // A 30 px por paso saltaría la ventana de 15 px: la media puerta acota los subpasos
+        Particle p = new Particle(370, 100, 5, 30, 0, 0);
+        strip.insertParticles(List.of(p));
+        strip.step();
+        assertEquals(2, strip.getLastSubsteps());
+        assertEquals(1, gate.getMeasurements());
+        assertEquals(List.of(p), exits);
+        assertEquals(410.0, p.getX(), 0.0);
+        assertEquals(0, strip.getParticleCount());
+        assertTrue(strip.getChambers().get(0).isEmpty());
+        assertEquals(0, strip.getMetrics().getFastCount());
+    }
+}
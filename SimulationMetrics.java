@@ -0,0 +1,82 @@
+import java.util.List;
+
+/**
+ * Instantánea inmutable de las métricas de la simulación.
+ * Los totales de los demonios se suman a partir de los contadores que cada
+ * demonio mantiene en su bucle de puerta, y los conteos de partículas son
+ * los contadores que el motor mantiene al añadir, quitar o acelerar
+ * partículas: construirla nunca recorre las partículas.
+ *
+ * El motor publica una instancia nueva tras cada paso o edición; como es
+ * inmutable, cualquier hilo puede leer la última sin bloquear al motor.
+ */
+public final class SimulationMetrics {
+    private final long stepCount;
+    private final int chamberCount;
+    private final int particleCount;
+    private final int fastCount;
+    private final int leftCount;
+    private final int rightCount;
+    private final int demonCount;
+    private final int blackHoleCount;
+    private final long measurements;
+    private final long transfersLeftToRight;
+    private final long transfersRightToLeft;
+    private final double energyMovedToRight;
+    private final double energyMovedToLeft;
+    private final double erasureCost;
+
+    public SimulationMetrics(long stepCount, int chamberCount, int particleCount, int fastCount,
+                             int leftCount, int rightCount, int blackHoleCount, List<Demon> demons) {
+        this.stepCount = stepCount;
+        this.chamberCount = chamberCount;
+        this.particleCount = particleCount;
+        this.fastCount = fastCount;
+        this.leftCount = leftCount;
+        this.rightCount = rightCount;
+        this.demonCount = demons.size();
+        this.blackHoleCount = blackHoleCount;
+
+        long measured = 0;
+        long toRight = 0;
+        long toLeft = 0;
+        double energyRight = 0.0;
+        double energyLeft = 0.0;
+        double erasure = 0.0;
+        for (Demon d : demons) {
+            measured += d.getMeasurements();
+            toRight += d.getTransfersLeftToRight();
+            toLeft += d.getTransfersRightToLeft();
+            energyRight += d.getEnergyMovedToRight();
+            energyLeft += d.getEnergyMovedToLeft();
+            erasure += d.getErasureCost();
+        }
+        this.measurements = measured;
+        this.transfersLeftToRight = toRight;
+        this.transfersRightToLeft = toLeft;
+        this.energyMovedToRight = energyRight;
+        this.energyMovedToLeft = energyLeft;
+        this.erasureCost = erasure;
+    }
+
+    public long getStepCount() { return stepCount; }
+    public int getChamberCount() { return chamberCount; }
+    public int getParticleCount() { return particleCount; }
+    public int getFastCount() { return fastCount; }
+    public int getSlowCount() { return particleCount - fastCount; }
+    public int getLeftCount() { return leftCount; }
+    public int getRightCount() { return rightCount; }
+    public int getDemonCount() { return demonCount; }
+    public int getBlackHoleCount() { return blackHoleCount; }
+    public long getMeasurements() { return measurements; }
+    public long getTransfersLeftToRight() { return transfersLeftToRight; }
+    public long getTransfersRightToLeft() { return transfersRightToLeft; }
+    public double getEnergyMovedToRight() { return energyMovedToRight; }
+    public double getEnergyMovedToLeft() { return energyMovedToLeft; }
+    public double getErasureCost() { return erasureCost; }
+
+    // Energía neta transferida a la cámara derecha
+    public double getNetEnergyToRight() {
+        return energyMovedToRight - energyMovedToLeft;
+    }
+}
@@ -0,0 +1,197 @@
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copia de solo lectura del estado de la simulación en un instante.
+ *
+ * El motor publica una instantánea por tic a través de una única referencia
+ * volátil; cualquier número de hilos lectores la obtienen con
+ * SimulationEngine.acquireSnapshot() y ven un fotograma coherente sin
+ * bloquear al motor ni copiar nada por su cuenta. Los datos se guardan en
+ * arreglos planos, que se reutilizan: cuando la última referencia se
+ * libera, la instantánea vuelve a un conjunto del motor y sirve para un
+ * tic posterior. Por eso hay que cerrarla al terminar de leerla
+ * (try-with-resources) y no conservar referencias a ella después.
+ */
+public final class SimulationSnapshot implements AutoCloseable {
+    private final MpscQueue<SimulationSnapshot> pool;
+    private final AtomicInteger references = new AtomicInteger();
+
+    private long version;
+    private long stepCount;
+    private double simulatedTime;
+    private ChamberGrid grid;
+    private SimulationMetrics metrics;
+
+    private int particleCount;
+    private float[] particleX = new float[0];
+    private float[] particleY = new float[0];
+    private short[] particleRadius = new short[0];
+    private byte[] particleColorId = new byte[0];
+    private short[] particleChamber = new short[0];
+    private boolean[] particleFast = new boolean[0];
+
+    private int holeCount;
+    private float[] holeX = new float[0];
+    private float[] holeY = new float[0];
+    private short[] holeRadius = new short[0];
+    private int[] holeAbsorbed = new int[0];
+    private int[] holeCapacity = new int[0];
+    private boolean[] holeFull = new boolean[0];
+
+    private int demonCount;
+    private int[] demonX = new int[0];
+    private int[] demonY = new int[0];
+    private int[] demonSize = new int[0];
+    private boolean[] demonHorizontal = new boolean[0];
+
+    SimulationSnapshot(MpscQueue<SimulationSnapshot> pool) {
+        this.pool = pool;
+    }
+
+    // Copiar el estado del motor; solo desde el hilo del motor, antes de publicar
+    void fill(long version, long stepCount, double simulatedTime, ChamberGrid grid, SimulationMetrics metrics,
+              List<? extends List<Particle>> chambers, List<Hole> holes, List<Demon> demons) {
+        this.version = version;
+        this.stepCount = stepCount;
+        this.simulatedTime = simulatedTime;
+        this.grid = grid;
+        this.metrics = metrics;
+
+        int total = 0;
+        for (List<Particle> chamber : chambers) {
+            total += chamber.size();
+        }
+        if (particleX.length < total) {
+            int capacity = Math.max(total, particleX.length * 2);
+            particleX = new float[capacity];
+            particleY = new float[capacity];
+            particleRadius = new short[capacity];
+            particleColorId = new byte[capacity];
+            particleChamber = new short[capacity];
+            particleFast = new boolean[capacity];
+        }
+        int n = 0;
+        for (List<Particle> chamber : chambers) {
+            for (int i = 0; i < chamber.size(); i++, n++) {
+                Particle p = chamber.get(i);
+                particleX[n] = (float) p.getX();
+                particleY[n] = (float) p.getY();
+                particleRadius[n] = (short) p.getRadius();
+                particleColorId[n] = (byte) p.getColorId();
+                particleChamber[n] = (short) p.getChamber();
+                particleFast[n] = p.isFast();
+            }
+        }
+        particleCount = total;
+
+        holeCount = holes.size();
+        if (holeX.length < holeCount) {
+            holeX = new float[holeCount];
+            holeY = new float[holeCount];
+            holeRadius = new short[holeCount];
+            holeAbsorbed = new int[holeCount];
+            holeCapacity = new int[holeCount];
+            holeFull = new boolean[holeCount];
+        }
+        for (int i = 0; i < holeCount; i++) {
+            Hole hole = holes.get(i);
+            holeX[i] = (float) hole.getX();
+            holeY[i] = (float) hole.getY();
+            holeRadius[i] = (short) hole.getRadius();
+            holeAbsorbed[i] = hole.getParticlesAbsorbed();
+            holeCapacity[i] = hole.getMaxAbsorbed();
+            holeFull[i] = hole.isFull();
+        }
+
+        demonCount = demons.size();
+        if (demonX.length < demonCount) {
+            demonX = new int[demonCount];
+            demonY = new int[demonCount];
+            demonSize = new int[demonCount];
+            demonHorizontal = new boolean[demonCount];
+        }
+        for (int i = 0; i < demonCount; i++) {
+            Demon demon = demons.get(i);
+            demonX[i] = demon.getPositionX();
+            demonY[i] = demon.getPositionY();
+            demonSize[i] = demon.getTriangleSize();
+            demonHorizontal[i] = demon.isHorizontal();
+        }
+    }
+
+    // La referencia del motor a la instantánea recién publicada
+    void publish() {
+        references.set(1);
+    }
+
+    // Tomar una referencia si la instantánea sigue viva (no ha vuelto al conjunto)
+    boolean retain() {
+        int count;
+        do {
+            count = references.get();
+            if (count <= 0) {
+                return false;
+            }
+        } while (!references.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    // Soltar una referencia; la última devuelve la instantánea al conjunto para reutilizarla
+    public void release() {
+        int remaining = references.decrementAndGet();
+        if (remaining == 0) {
+            pool.offer(this);
+        } else if (remaining < 0) {
+            // Liberada más veces de las que se retuvo: ya está en el conjunto y puede estar reutilizándose
+            references.incrementAndGet();
+            throw new IllegalStateException("Snapshot released more times than it was retained");
+        }
+    }
+
+    @Override
+    public void close() {
+        release();
+    }
+
+    // Número creciente; dos instantáneas con la misma versión tienen el mismo contenido
+    public long getVersion() { return version; }
+    public long getStepCount() { return stepCount; }
+    public double getSimulatedTime() { return simulatedTime; }
+    public ChamberGrid getChamberGrid() { return grid; }
+    public SimulationMetrics getMetrics() { return metrics; }
+
+    public int getParticleCount() { return particleCount; }
+    public float getParticleX(int i) { return particleX[checkParticle(i)]; }
+    public float getParticleY(int i) { return particleY[checkParticle(i)]; }
+    public int getParticleRadius(int i) { return particleRadius[checkParticle(i)]; }
+    public int getParticleColorId(int i) { return particleColorId[checkParticle(i)]; }
+    public int getParticleChamber(int i) { return particleChamber[checkParticle(i)]; }
+    public boolean isParticleFast(int i) { return particleFast[checkParticle(i)]; }
+
+    public int getHoleCount() { return holeCount; }
+    public float getHoleX(int i) { return holeX[checkIndex(i, holeCount)]; }
+    public float getHoleY(int i) { return holeY[checkIndex(i, holeCount)]; }
+    public int getHoleRadius(int i) { return holeRadius[checkIndex(i, holeCount)]; }
+    public int getHoleAbsorbed(int i) { return holeAbsorbed[checkIndex(i, holeCount)]; }
+    public int getHoleCapacity(int i) { return holeCapacity[checkIndex(i, holeCount)]; }
+    public boolean isHoleFull(int i) { return holeFull[checkIndex(i, holeCount)]; }
+
+    public int getDemonCount() { return demonCount; }
+    public int getDemonX(int i) { return demonX[checkIndex(i, demonCount)]; }
+    public int getDemonY(int i) { return demonY[checkIndex(i, demonCount)]; }
+    public int getDemonSize(int i) { return demonSize[checkIndex(i, demonCount)]; }
+    public boolean isDemonHorizontal(int i) { return demonHorizontal[checkIndex(i, demonCount)]; }
+
+    // Los arreglos pueden ser más largos que el contenido: no dejar leer restos de otro tic
+    private int checkParticle(int i) {
+        return checkIndex(i, particleCount);
+    }
+
+    private static int checkIndex(int i, int count) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Índice " + i + " fuera de 0-" + (count - 1));
+        }
+        return i;
+    }
+}
@@ -0,0 +1,67 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de las instantáneas publicadas por el motor.
+ */
+public class SimulationSnapshotTest {
+
+    private SimulationEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        engine = new SimulationEngine(50, 50, 700, 500, 2, 1, 20261019L);
+        engine.reset();
+        engine.setSnapshotsEnabled(true);
+    }
+
+    @Test
+    public void testSnapshotMatchesEngineAndSurvivesLaterSteps() {
+        try (SimulationSnapshot held = engine.acquireSnapshot()) {
+            long version = held.getVersion();
+            assertEquals(engine.getParticleCount(), held.getParticleCount());
+            assertEquals(engine.getDemons().size(), held.getDemonCount());
+            Particle first = engine.getChambers().get(0).get(0);
+            float x = held.getParticleX(0);
+            assertEquals((float) first.getX(), x, 0.0f);
+
+            // El motor sigue avanzando, pero la instantánea retenida no cambia
+            for (int i = 0; i < 5; i++) {
+                engine.step();
+            }
+            assertEquals(version, held.getVersion());
+            assertEquals(x, held.getParticleX(0), 0.0f);
+
+            try (SimulationSnapshot latest = engine.acquireSnapshot()) {
+                assertNotSame(held, latest);
+                assertEquals(version + 5, latest.getVersion());
+                assertEquals(5, latest.getStepCount());
+            }
+        }
+    }
+
+    @Test
+    public void testReleasedSnapshotsAreReused() {
+        SimulationSnapshot first = engine.acquireSnapshot();
+        first.close();
+        engine.step(); // Reemplaza a first, que ya no tiene lectores y vuelve al conjunto
+        engine.step(); // Toma first del conjunto
+        try (SimulationSnapshot current = engine.acquireSnapshot()) {
+            assertSame(first, current);
+            assertEquals(2, current.getStepCount());
+            assertThrows(IndexOutOfBoundsException.class, () -> current.getParticleX(current.getParticleCount()));
+        }
+    }
+
+    @Test
+    public void testReleasingTooManyTimesFails() {
+        SimulationSnapshot held = engine.acquireSnapshot();
+        held.close();
+        engine.step(); // La suelta el motor: ya no tiene referencias y está en el conjunto
+        assertThrows(IllegalStateException.class, held::release);
+        engine.step(); // El conjunto la reutiliza igualmente
+        try (SimulationSnapshot current = engine.acquireSnapshot()) {
+            assertSame(held, current);
+        }
+    }
+}
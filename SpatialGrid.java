@@ -0,0 +1,204 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rejilla uniforme de círculos para consultas de vecindad.
+ *
+ * Se reconstruye completa con un ordenamiento por conteo en O(n): los
+ * elementos quedan agrupados por celda en un único arreglo y cada celda se
+ * describe por un rango [cellBegin, cellEnd). Los arreglos se reutilizan
+ * entre reconstrucciones, así que construirla en cada paso no genera basura.
+ */
+public class SpatialGrid<T extends Circle> {
+    private final int left, top;
+    private final int cellSize;
+    private final int columns, rows;
+    private final int[] cellStart; // columns * rows + 1 posiciones
+    private final int[] cursor;    // Posición de escritura por celda durante la construcción
+    private Object[] items = new Object[16];
+    private int[] itemCell = new int[16];
+    private int size;
+
+    public SpatialGrid(int left, int top, int width, int height, int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de celda debe ser positivo");
+        }
+        this.left = left;
+        this.top = top;
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (width + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (height + cellSize - 1) / cellSize);
+        this.cellStart = new int[columns * rows + 1];
+        this.cursor = new int[columns * rows + 1];
+    }
+
+    // Reconstruir la rejilla con una sola lista de elementos
+    public void build(List<? extends T> source) {
+        int previousSize = size;
+        begin(source.size());
+        countItems(source, 0);
+        prefixSums();
+        placeItems(source, 0);
+        end(previousSize);
+    }
+
+    // Reconstruir la rejilla con varias listas (por ejemplo, una por cámara)
+    public void buildAll(List<? extends List<? extends T>> groups) {
+        int previousSize = size;
+        int total = 0;
+        for (List<? extends T> group : groups) {
+            total += group.size();
+        }
+        begin(total);
+        int offset = 0;
+        for (List<? extends T> group : groups) {
+            countItems(group, offset);
+            offset += group.size();
+        }
+        prefixSums();
+        offset = 0;
+        for (List<? extends T> group : groups) {
+            placeItems(group, offset);
+            offset += group.size();
+        }
+        end(previousSize);
+    }
+
+    private void begin(int total) {
+        if (items.length < total) {
+            int newLength = Math.max(total, items.length * 2);
+            items = new Object[newLength];
+            itemCell = new int[newLength];
+        }
+        Arrays.fill(cellStart, 0);
+        size = total;
+    }
+
+    // Soltar las referencias sobrantes de la construcción anterior
+    private void end(int previousSize) {
+        if (previousSize > size) {
+            Arrays.fill(items, size, previousSize, null);
+        }
+    }
+
+    // Primera pasada: contar elementos por celda y recordar la celda de cada uno
+    private void countItems(List<? extends T> source, int offset) {
+        for (int i = 0; i < source.size(); i++) {
+            T item = source.get(i);
+            int cell = cellOf(item.getX(), item.getY());
+            itemCell[offset + i] = cell;
+            cellStart[cell + 1]++;
+        }
+    }
+
+    // Convertir los conteos en posiciones iniciales de cada celda
+    private void prefixSums() {
+        for (int c = 1; c < cellStart.length; c++) {
+            cellStart[c] += cellStart[c - 1];
+        }
+        System.arraycopy(cellStart, 0, cursor, 0, cellStart.length);
+    }
+
+    // Segunda pasada: colocar cada elemento en el rango de su celda
+    private void placeItems(List<? extends T> source, int offset) {
+        for (int i = 0; i < source.size(); i++) {
+            int cell = itemCell[offset + i];
+            items[cursor[cell]++] = source.get(i);
+        }
+    }
+
+    /**
+     * Buscar el elemento más cercano cuyo círculo contiene el punto
+     * @param searchRadius mayor radio posible de los elementos; acota las celdas a revisar
+     * @return el elemento más cercano, o null si ningún círculo contiene el punto
+     */
+    public T findNearestContaining(double px, double py, int searchRadius) {
+        int firstColumn = columnOf(px - searchRadius);
+        int lastColumn = columnOf(px + searchRadius);
+        int firstRow = rowOf(py - searchRadius);
+        int lastRow = rowOf(py + searchRadius);
+        T best = null;
+        double bestDistance = Double.MAX_VALUE;
+
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                for (int i = cellBegin(c, r); i < cellEnd(c, r); i++) {
+                    T item = get(i);
+                    double d2 = Geometry.distanceSquared(px, py, item.getX(), item.getY());
+                    double radius = item.getRadius();
+                    if (d2 <= radius * radius && d2 < bestDistance) {
+                        best = item;
+                        bestDistance = d2;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // Añadir a out los elementos cuyo centro está dentro del rectángulo (bordes incluidos)
+    public void collectInRectangle(double minX, double minY, double maxX, double maxY, List<? super T> out) {
+        int firstColumn = columnOf(minX);
+        int lastColumn = columnOf(maxX);
+        int firstRow = rowOf(minY);
+        int lastRow = rowOf(maxY);
+
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                for (int i = cellBegin(c, r); i < cellEnd(c, r); i++) {
+                    T item = get(i);
+                    double x = item.getX();
+                    double y = item.getY();
+                    if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                        out.add(item);
+                    }
+                }
+            }
+        }
+    }
+
+    // Celda (columna, fila) que contiene un punto; los puntos fuera se asignan al borde
+    public int columnOf(double x) {
+        int col = (int) Math.floor((x - left) / cellSize);
+        return Math.max(0, Math.min(columns - 1, col));
+    }
+
+    public int rowOf(double y) {
+        int row = (int) Math.floor((y - top) / cellSize);
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+
+    private int cellOf(double x, double y) {
+        return rowOf(y) * columns + columnOf(x);
+    }
+
+    // Rango de elementos de una celda: [cellBegin, cellEnd)
+    public int cellBegin(int column, int row) {
+        return cellStart[row * columns + column];
+    }
+
+    public int cellEnd(int column, int row) {
+        return cellStart[row * columns + column + 1];
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T) items[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+}
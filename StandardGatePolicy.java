@@ -0,0 +1,118 @@
+import java.util.SplittableRandom;
+
+/**
+ * Implementación única de las políticas comunes de la puerta.
+ *
+ * Todas las variantes comparten esta clase final y se distinguen por un
+ * entero (kind) y unos pocos parámetros primitivos. El demonio recorre las
+ * partículas llamando siempre a este mismo tipo, así que el JIT puede
+ * incorporar admits() en el bucle sin despacho megamórfico.
+ *
+ * Las políticas con estado (probabilística y de coste energético) deben
+ * usarse con un solo demonio; withWindow() devuelve una copia independiente.
+ * La probabilística sortea con su propio generador: creada con semilla,
+ * una ejecución con semilla fija del motor se repite igual.
+ */
+public final class StandardGatePolicy implements GatePolicy {
+    // Tipos de política
+    static final int THRESHOLD = 0;
+    static final int DIRECTION = 1;
+    static final int PROBABILISTIC = 2;
+    static final int ENERGY_COST = 3;
+    static final int COLOR_ID = 4;
+
+    private final int kind;
+    private final double speedThreshold;
+    private final double speedThresholdSquared;
+    private final boolean usesParticleClassification; // El umbral coincide con el de Particle
+    private final boolean allowLeftToRight;
+    private final boolean allowRightToLeft;
+    private final double parameter;       // Probabilidad o presupuesto de energía inicial
+    private final double costPerTransfer;
+    private final long colorMask;         // Bit i activo = colorId i permitido
+    private final int innerWindow;
+    private final int outerWindow;
+
+    // Estado mutable de las políticas probabilística y energética
+    private final SplittableRandom random;
+    private double remainingEnergy;
+
+    StandardGatePolicy(int kind, double speedThreshold, boolean allowLeftToRight, boolean allowRightToLeft,
+                       double parameter, double costPerTransfer, long colorMask,
+                       int innerWindow, int outerWindow) {
+        this(kind, speedThreshold, allowLeftToRight, allowRightToLeft, parameter, costPerTransfer, colorMask,
+             innerWindow, outerWindow, new SplittableRandom());
+    }
+
+    StandardGatePolicy(int kind, double speedThreshold, boolean allowLeftToRight, boolean allowRightToLeft,
+                       double parameter, double costPerTransfer, long colorMask,
+                       int innerWindow, int outerWindow, SplittableRandom random) {
+        if (innerWindow < 0 || outerWindow <= innerWindow) {
+            throw new IllegalArgumentException("La ventana de la puerta no es válida: " + innerWindow + "-" + outerWindow);
+        }
+        this.kind = kind;
+        this.speedThreshold = speedThreshold;
+        this.speedThresholdSquared = speedThreshold * speedThreshold;
+        this.usesParticleClassification = speedThreshold == Particle.FAST_SPEED_THRESHOLD;
+        this.allowLeftToRight = allowLeftToRight;
+        this.allowRightToLeft = allowRightToLeft;
+        this.parameter = parameter;
+        this.costPerTransfer = costPerTransfer;
+        this.colorMask = colorMask;
+        this.innerWindow = innerWindow;
+        this.outerWindow = outerWindow;
+        this.remainingEnergy = parameter;
+        this.random = random;
+    }
+
+    // Copia de esta política con otra ventana alrededor de la puerta; su generador se deriva de este
+    public StandardGatePolicy withWindow(int innerWindow, int outerWindow) {
+        return new StandardGatePolicy(kind, speedThreshold, allowLeftToRight, allowRightToLeft,
+                                      parameter, costPerTransfer, colorMask, innerWindow, outerWindow,
+                                      random.split());
+    }
+
+    // Medida del demonio: con el umbral estándar basta leer el bit de la partícula
+    private boolean isFast(Particle p) {
+        return usesParticleClassification ? p.isFast() : p.getSpeedSquared() >= speedThresholdSquared;
+    }
+
+    @Override
+    public boolean admits(Particle p, boolean leftToRight) {
+        switch (kind) {
+            case THRESHOLD:
+                return isFast(p) == leftToRight;
+            case DIRECTION:
+                return leftToRight ? allowLeftToRight : allowRightToLeft;
+            case PROBABILISTIC:
+                // Con probabilidad (1 - p) el demonio se equivoca en la medida
+                return (isFast(p) == leftToRight) == (random.nextDouble() < parameter);
+            case ENERGY_COST:
+                if (remainingEnergy < costPerTransfer || isFast(p) != leftToRight) {
+                    return false;
+                }
+                remainingEnergy -= costPerTransfer;
+                return true;
+            default:
+                return ((colorMask >>> p.getColorId()) & 1L) != 0L;
+        }
+    }
+
+    @Override
+    public int getInnerWindow() {
+        return innerWindow;
+    }
+
+    @Override
+    public int getOuterWindow() {
+        return outerWindow;
+    }
+
+    public double getSpeedThreshold() {
+        return speedThreshold;
+    }
+
+    public double getRemainingEnergy() {
+        return remainingEnergy;
+    }
+}
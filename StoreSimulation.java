@@ -0,0 +1,177 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+/**
+ * Banco de pruebas sin ventana del almacén de partículas por índices, para
+ * medir ejecuciones con más partículas de las que caben cómodamente como
+ * objetos en el montón.
+ *
+ * No es un segundo motor: aplica a cada partícula del almacén los mismos
+ * núcleos que el paso de SimulationEngine (ChamberGrid.bounce, las puertas
+ * de Demon, HoleGrid y Hole.canAbsorb) en una sola pasada, pero con paso
+ * fijo de 1 y sin subpasos, campos de atracción, fuentes, temporizadores ni
+ * instantáneas. Sirve para medir el recorrido del almacén, no para estudios
+ * que necesiten la física completa del motor. Con un OffHeapParticleStore
+ * sobre un archivo, la ejecución puede detenerse y continuar más tarde
+ * abriendo el mismo archivo.
+ */
+public class StoreSimulation {
+    private final ChamberGrid grid;
+    private final ParticleStore store;
+    private final ArrayList<Demon> demons = new ArrayList<>();
+    private final ArrayList<Hole> holes = new ArrayList<>();
+    private final HoleGrid holeGrid;
+    private int maxParticleRadius = SimulationEngine.PARTICLE_RADIUS;
+    private Demon[][] demonsByChamber; // Se reconstruye cuando cambia la lista de demonios
+    private int indexedDemons = -1;
+    private long stepCount;
+
+    public StoreSimulation(ChamberGrid grid, ParticleStore store) {
+        this.grid = grid;
+        this.store = store;
+        int left = grid.getWallX(0);
+        int top = grid.getWallY(0);
+        holeGrid = new HoleGrid(left, top, grid.getWallX(grid.getColumns()) - left,
+                                grid.getWallY(grid.getRows()) - top);
+    }
+
+    /**
+     * Añadir partículas por cámara con posiciones y componentes de velocidad
+     * uniformes, como ParticleInitializer por defecto
+     */
+    public void populate(int particlesPerChamber, int particleRadius, double maxVelocityComponent, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        maxParticleRadius = Math.max(maxParticleRadius, particleRadius);
+        Particle scratch = new Particle(0, 0, particleRadius, 0, 0, 0);
+        for (int c = 0; c < grid.getChamberCount(); c++) {
+            int minX = grid.getMinX(c) + particleRadius;
+            int minY = grid.getMinY(c) + particleRadius;
+            int width = grid.getMaxX(c) - particleRadius - minX;
+            int height = grid.getMaxY(c) - particleRadius - minY;
+            for (int i = 0; i < particlesPerChamber; i++) {
+                scratch.setX(minX + random.nextDouble() * width);
+                scratch.setY(minY + random.nextDouble() * height);
+                scratch.setColorId(random.nextInt(Particle.getColorCount()));
+                scratch.setChamber(c);
+                VelocitySampler.uniformComponents(scratch, maxVelocityComponent, random);
+                store.add(scratch);
+            }
+        }
+    }
+
+    public Demon addDemonOnWall(int low, int high, int along) {
+        if (!grid.areNeighbors(low, high)) {
+            throw new IllegalArgumentException("Chambers " + low + " and " + high + " do not share a wall");
+        }
+        Demon demon = high != low + 1
+            ? new Demon(along, grid.getMinY(high), true, low, high)
+            : new Demon(grid.getMinX(high), along, false, low, high);
+        demons.add(demon);
+        return demon;
+    }
+
+    public Hole addHole(int x, int y, int radius, int capacity) {
+        Hole hole = new Hole(x, y, radius, capacity);
+        holes.add(hole);
+        return hole;
+    }
+
+    /**
+     * Avanzar un paso: cada partícula se mueve, rebota en las paredes de su
+     * cámara, pasa por las puertas de los demonios de esa cámara y se
+     * comprueba si la absorbe algún agujero cercano
+     */
+    public void step() {
+        if (indexedDemons != demons.size()) {
+            demonsByChamber = Demon.indexByChamber(demons, grid.getChamberCount());
+            indexedDemons = demons.size();
+        }
+        boolean anyOpen = holeGrid.build(holes, maxParticleRadius) != null;
+
+        // De atrás hacia delante: remove() trae al hueco la última partícula, que ya avanzó
+        for (int i = store.size() - 1; i >= 0; i--) {
+            int chamber = store.getChamber(i);
+            store.move(i, 1.0);
+            grid.bounce(store, i, chamber);
+
+            // Una partícula que cruza una puerta no vuelve a medirse en el mismo paso
+            for (Demon demon : demonsByChamber[chamber]) {
+                if (demon.gateParticle(store, i, SimulationEngine.SPEED_THRESHOLD)) {
+                    break;
+                }
+            }
+            if (anyOpen) {
+                Hole absorber = holeGrid.findAbsorber(store, i);
+                if (absorber != null && absorber.absorbParticle()) {
+                    store.remove(i);
+                }
+            }
+        }
+        stepCount++;
+    }
+
+    public void run(long steps) {
+        for (long s = 0; s < steps; s++) {
+            step();
+        }
+    }
+
+    public ChamberGrid getChamberGrid() {
+        return grid;
+    }
+
+    public ParticleStore getStore() {
+        return store;
+    }
+
+    public ArrayList<Demon> getDemons() {
+        return demons;
+    }
+
+    public ArrayList<Hole> getHoles() {
+        return holes;
+    }
+
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    /**
+     * Ejecutar sin ventana con el almacén fuera del montón:
+     * StoreSimulation partículasPorCámara columnas filas pasos [archivo]
+     * Con archivo, si ya contiene partículas se continúa con ellas.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Uso: StoreSimulation partículasPorCámara columnas filas pasos [archivo]");
+            System.exit(1);
+        }
+        int perChamber = Integer.parseInt(args[0]);
+        int columns = Integer.parseInt(args[1]);
+        int rows = Integer.parseInt(args[2]);
+        long steps = Long.parseLong(args[3]);
+        ChamberGrid grid = new ChamberGrid(0, 0, columns * 200, rows * 200, columns, rows);
+        int capacity = Math.toIntExact((long) perChamber * grid.getChamberCount());
+
+        try (OffHeapParticleStore store = args.length > 4
+                 ? OffHeapParticleStore.open(Path.of(args[4]), capacity)
+                 : OffHeapParticleStore.allocate(capacity)) {
+            StoreSimulation simulation = new StoreSimulation(grid, store);
+            if (store.size() == 0) {
+                simulation.populate(perChamber, SimulationEngine.PARTICLE_RADIUS, 5.0, System.nanoTime());
+            }
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c + 1 < columns; c++) {
+                    simulation.addDemonOnWall(r * columns + c, r * columns + c + 1, r * 200 + 100);
+                }
+            }
+
+            long start = System.nanoTime();
+            simulation.run(steps);
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            System.out.println(store.size() + " particles, " + steps + " steps in " + elapsed + " ms");
+        }
+    }
+}
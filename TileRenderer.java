@@ -0,0 +1,155 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Renderizado fuera de pantalla por mosaicos en paralelo.
+ *
+ * La región a dibujar se divide en mosaicos cuadrados que se pintan en
+ * paralelo sobre una misma BufferedImage, cada uno con su propio Graphics
+ * recortado a su área. Antes de pintar, las partículas se reparten por
+ * mosaico con un ordenamiento por conteo (una partícula que cruza un borde
+ * aparece en todos los mosaicos que toca), así cada mosaico recorre solo
+ * sus propias partículas. El orden de dibujo dentro de cada mosaico es el
+ * mismo que el de SceneRenderer.drawScene, por lo que la imagen resultante
+ * es idéntica a la del dibujo secuencial.
+ *
+ * La escena sale de una SimulationSnapshot: los mosaicos se pintan en
+ * otros hilos, así que no pueden leer las listas vivas del motor.
+ *
+ * Los arreglos de reparto se reutilizan entre llamadas; una instancia no
+ * debe usarse desde varios hilos a la vez.
+ */
+public class TileRenderer {
+    public static final int DEFAULT_TILE_SIZE = 256;
+
+    // Margen en píxeles alrededor de cada partícula (borde del óvalo y grosor de línea)
+    private static final int PARTICLE_PADDING = 2;
+
+    private final int tileSize;
+    private Color background = Color.WHITE;
+    private int[] tileStart = new int[2];
+    private int[] cursor = new int[2];
+    private int[] binned = new int[16]; // Índices de partículas de la instantánea, agrupados por mosaico
+
+    public TileRenderer() {
+        this(DEFAULT_TILE_SIZE);
+    }
+
+    public TileRenderer(int tileSize) {
+        if (tileSize < 16) {
+            throw new IllegalArgumentException("El tamaño de mosaico debe ser al menos 16: " + tileSize);
+        }
+        this.tileSize = tileSize;
+    }
+
+    // Reutilizar la imagen si ya tiene el tamaño pedido; si no, crear una nueva
+    public static BufferedImage ensureImage(BufferedImage image, int width, int height) {
+        if (image != null && image.getWidth() == width && image.getHeight() == height) {
+            return image;
+        }
+        return new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * Dibujar la escena sobre toda la imagen
+     * @param originX coordenada de la escena que corresponde a la columna 0 de la imagen
+     * @param originY coordenada de la escena que corresponde a la fila 0 de la imagen
+     */
+    public void render(BufferedImage image, int originX, int originY,
+                       SimulationSnapshot snapshot, Color fastColor, Color slowColor) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int columns = (width + tileSize - 1) / tileSize;
+        int rows = (height + tileSize - 1) / tileSize;
+
+        binParticles(snapshot, originX, originY, columns, rows);
+
+        IntStream.range(0, columns * rows).parallel().forEach(tile -> {
+            int tileX = (tile % columns) * tileSize;
+            int tileY = (tile / columns) * tileSize;
+            Graphics2D g = image.createGraphics();
+            try {
+                g.setClip(tileX, tileY, Math.min(tileSize, width - tileX), Math.min(tileSize, height - tileY));
+                g.setColor(background);
+                g.fillRect(tileX, tileY, tileSize, tileSize);
+                g.translate(-originX, -originY);
+
+                SceneRenderer.drawStructure(g, snapshot);
+                for (int i = tileStart[tile]; i < tileStart[tile + 1]; i++) {
+                    SceneRenderer.drawParticle(g, snapshot, binned[i], fastColor, slowColor);
+                }
+            } finally {
+                g.dispose();
+            }
+        });
+    }
+
+    // Repartir las partículas en los mosaicos que tocan (conteo, sumas prefijas y colocación)
+    private void binParticles(SimulationSnapshot snapshot, int originX, int originY, int columns, int rows) {
+        int tiles = columns * rows;
+        if (tileStart.length < tiles + 1) {
+            tileStart = new int[tiles + 1];
+            cursor = new int[tiles + 1];
+        } else {
+            Arrays.fill(tileStart, 0, tiles + 1, 0);
+        }
+
+        // Primera pasada: contar
+        scanParticles(snapshot, originX, originY, columns, rows, false);
+
+        // Sumas prefijas
+        for (int t = 1; t <= tiles; t++) {
+            tileStart[t] += tileStart[t - 1];
+        }
+        System.arraycopy(tileStart, 0, cursor, 0, tiles + 1);
+        int total = tileStart[tiles];
+        if (binned.length < total) {
+            binned = new int[Math.max(total, binned.length * 2)];
+        }
+
+        // Segunda pasada: colocar, conservando el orden de dibujo original
+        scanParticles(snapshot, originX, originY, columns, rows, true);
+    }
+
+    // Recorrer los mosaicos que toca cada partícula, contándola o colocándola
+    private void scanParticles(SimulationSnapshot snapshot, int originX, int originY,
+                               int columns, int rows, boolean place) {
+        for (int i = 0; i < snapshot.getParticleCount(); i++) {
+            double x = snapshot.getParticleX(i);
+            double y = snapshot.getParticleY(i);
+            int reach = snapshot.getParticleRadius(i) + PARTICLE_PADDING;
+            int firstColumn = Math.max(0, tileFloor(x - reach - originX));
+            int lastColumn = Math.min(columns - 1, tileFloor(x + reach - originX));
+            int firstRow = Math.max(0, tileFloor(y - reach - originY));
+            int lastRow = Math.min(rows - 1, tileFloor(y + reach - originY));
+            for (int r = firstRow; r <= lastRow; r++) {
+                for (int c = firstColumn; c <= lastColumn; c++) {
+                    int tile = r * columns + c;
+                    if (place) {
+                        binned[cursor[tile]++] = i;
+                    } else {
+                        tileStart[tile + 1]++;
+                    }
+                }
+            }
+        }
+    }
+
+    private int tileFloor(double coordinate) {
+        return (int) Math.floor(coordinate / tileSize);
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public Color getBackground() {
+        return background;
+    }
+
+    public void setBackground(Color background) {
+        this.background = background;
+    }
+}
@@ -0,0 +1,88 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * El renderizado por mosaicos debe producir exactamente la misma imagen que
+ * el dibujo secuencial de SceneRenderer, también para regiones parciales.
+ */
+public class TileRendererTest {
+
+    private ChamberGrid grid;
+    private ArrayList<ArrayList<Particle>> chambers;
+    private ArrayList<Hole> holes;
+    private ArrayList<Demon> demons;
+    private SimulationSnapshot snapshot;
+
+    @BeforeEach
+    public void setUp() {
+        grid = new ChamberGrid(50, 50, 900, 600, 3, 2);
+        chambers = new ArrayList<>();
+        for (int c = 0; c < grid.getChamberCount(); c++) {
+            chambers.add(new ArrayList<>());
+        }
+        ParticleInitializer initializer = new ParticleInitializer(20261019L);
+        initializer.setParticlesPerChamber(500);
+        initializer.populate(grid, chambers);
+
+        Random random = new Random(20261019L);
+        holes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            holes.add(new Hole(60 + random.nextInt(880), 60 + random.nextInt(580), 15, 10));
+        }
+        demons = new ArrayList<>();
+        demons.add(new Demon(grid.getWallX(1), 200));
+        demons.add(new Demon(grid.getWallX(2), 500));
+
+        // Ambos dibujos salen de la misma instantánea, como en Canvas
+        snapshot = new SimulationSnapshot(new MpscQueue<>());
+        snapshot.fill(1, 0, 0.0, grid, null, chambers, holes, demons);
+        snapshot.publish();
+    }
+
+    private BufferedImage renderSequential(int originX, int originY, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, width, height);
+        g.translate(-originX, -originY);
+        SceneRenderer.drawScene(g, snapshot, Color.RED, Color.BLUE);
+        g.dispose();
+        return image;
+    }
+
+    private void assertSameImage(BufferedImage expected, BufferedImage actual) {
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "Píxel distinto en " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void testTiledImageMatchesSequentialDrawing() {
+        TileRenderer renderer = new TileRenderer(64);
+        BufferedImage image = TileRenderer.ensureImage(null, 1000, 700);
+        renderer.render(image, 0, 0, snapshot, Color.RED, Color.BLUE);
+        assertSameImage(renderSequential(0, 0, 1000, 700), image);
+    }
+
+    @Test
+    public void testPartialRegionMatchesSequentialDrawing() {
+        TileRenderer renderer = new TileRenderer(64);
+        BufferedImage image = TileRenderer.ensureImage(null, 333, 211);
+        renderer.render(image, 290, 170, snapshot, Color.RED, Color.BLUE);
+        assertSameImage(renderSequential(290, 170, 333, 211), image);
+    }
+
+    @Test
+    public void testImageIsReusedWhenSizeMatches() {
+        BufferedImage image = TileRenderer.ensureImage(null, 100, 80);
+        assertSame(image, TileRenderer.ensureImage(image, 100, 80));
+        assertNotSame(image, TileRenderer.ensureImage(image, 100, 81));
+    }
+}
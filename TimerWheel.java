@@ -0,0 +1,158 @@
+/**
+ * Rueda de temporizadores para sucesos programados en tics.
+ *
+ * Cada temporizador cuelga de una ranura de la rueda (su tic de vencimiento
+ * módulo el número de ranuras) en una lista doblemente enlazada intrusiva,
+ * así que programar y cancelar cuestan O(1) y no crean objetos. Avanzar un
+ * tic solo recorre la ranura de ese tic: el coste no depende de cuántos
+ * temporizadores hay en total, sino de cuántos comparten ranura. Los que
+ * vencen más de una vuelta después siguen en su ranura y se saltan hasta
+ * que llega su tic.
+ *
+ * No es segura para varios hilos, como el motor.
+ */
+public class TimerWheel {
+    public static final int DEFAULT_SLOTS = 256;
+
+    /**
+     * Un suceso programable. Un mismo temporizador puede reprogramarse,
+     * incluso desde su propio expire().
+     */
+    public abstract static class Timer {
+        private Timer next, prev;
+        private long deadline;
+        private boolean scheduled;
+
+        // Se llama una vez al llegar el tic de vencimiento
+        protected abstract void expire(long tick);
+
+        public boolean isScheduled() {
+            return scheduled;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+
+    private final Timer[] slots;
+    private final int mask;
+    private long currentTick;
+    private int size;
+
+    public TimerWheel() {
+        this(DEFAULT_SLOTS);
+    }
+
+    // slots debe ser una potencia de dos
+    public TimerWheel(int slots) {
+        if (slots < 1 || Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("El número de ranuras debe ser una potencia de dos: " + slots);
+        }
+        this.slots = new Timer[slots];
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Programar un temporizador para dentro de delay tics (al menos uno). Si
+     * ya estaba programado, se mueve a la nueva fecha.
+     */
+    public void schedule(Timer timer, long delay) {
+        scheduleAt(timer, currentTick + Math.max(1, delay));
+    }
+
+    // Programar para un tic concreto; los tics ya pasados vencen en el siguiente
+    public void scheduleAt(Timer timer, long tick) {
+        if (timer.scheduled) {
+            unlink(timer);
+        }
+        timer.deadline = Math.max(tick, currentTick + 1);
+        int slot = (int) (timer.deadline & mask);
+        timer.prev = null;
+        timer.next = slots[slot];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        slots[slot] = timer;
+        timer.scheduled = true;
+        size++;
+    }
+
+    // false si no estaba programado
+    public boolean cancel(Timer timer) {
+        if (timer == null || !timer.scheduled) {
+            return false;
+        }
+        unlink(timer);
+        return true;
+    }
+
+    private void unlink(Timer timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            slots[(int) (timer.deadline & mask)] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.next = null;
+        timer.prev = null;
+        timer.scheduled = false;
+        size--;
+    }
+
+    /**
+     * Avanzar hasta el tic dado, venciendo en orden los temporizadores de
+     * cada tic intermedio
+     * @return temporizadores vencidos
+     */
+    public int advanceTo(long tick) {
+        int expired = 0;
+        while (currentTick < tick) {
+            currentTick++;
+            // Los reprogramados durante el recorrido entran por la cabeza: no se vuelven a visitar
+            int slot = (int) (currentTick & mask);
+            Timer timer = slots[slot];
+            while (timer != null) {
+                Timer next = timer.next;
+                if (timer.deadline == currentTick) {
+                    unlink(timer);
+                    expired++;
+                    timer.expire(currentTick);
+                    // Si expire() canceló o movió el siguiente, volver a empezar por la cabeza
+                    if (next != null && (!next.scheduled || (next.deadline & mask) != slot)) {
+                        next = slots[slot];
+                    }
+                }
+                timer = next;
+            }
+        }
+        return expired;
+    }
+
+    // Cancelar todos los temporizadores
+    public void clear() {
+        for (int i = 0; i < slots.length; i++) {
+            Timer timer = slots[i];
+            while (timer != null) {
+                Timer next = timer.next;
+                timer.next = null;
+                timer.prev = null;
+                timer.scheduled = false;
+                timer = next;
+            }
+            slots[i] = null;
+        }
+        size = 0;
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    // Temporizadores programados
+    public int size() {
+        return size;
+    }
+}
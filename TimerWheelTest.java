@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+/**
+ * Pruebas de la rueda de temporizadores y de los agujeros que se evaporan.
+ */
+public class TimerWheelTest {
+
+    // Apunta los tics en que vence
+    private static class Recorder extends TimerWheel.Timer {
+        final ArrayList<Long> ticks = new ArrayList<>();
+
+        @Override
+        protected void expire(long tick) {
+            ticks.add(tick);
+        }
+    }
+
+    @Test
+    public void testTimersExpireOnTheirTickAcrossRevolutions() {
+        TimerWheel wheel = new TimerWheel(8);
+        Recorder soon = new Recorder();
+        Recorder later = new Recorder();
+        Recorder cancelled = new Recorder();
+        wheel.schedule(soon, 3);
+        wheel.schedule(later, 19); // Misma ranura que soon, dos vueltas después
+        wheel.schedule(cancelled, 5);
+        assertEquals(3, wheel.size());
+
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+
+        assertEquals(1, wheel.advanceTo(10));
+        assertEquals(3L, (long) soon.ticks.get(0));
+        assertTrue(later.ticks.isEmpty());
+        assertTrue(cancelled.ticks.isEmpty());
+
+        assertEquals(1, wheel.advanceTo(30));
+        assertEquals(19L, (long) later.ticks.get(0));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testTimerCanRescheduleItself() {
+        TimerWheel wheel = new TimerWheel(4);
+        Recorder periodic = new Recorder() {
+            @Override
+            protected void expire(long tick) {
+                super.expire(tick);
+                wheel.schedule(this, 4); // Vuelve a su misma ranura
+            }
+        };
+        wheel.schedule(periodic, 4);
+        assertEquals(3, wheel.advanceTo(12));
+        assertEquals(3, periodic.ticks.size());
+        assertEquals(12L, (long) periodic.ticks.get(2));
+        assertTrue(periodic.isScheduled());
+        assertEquals(16L, periodic.getDeadline());
+
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel(6));
+    }
+
+    @Test
+    public void testHoleEvaporatesAndReleasesParticles() {
+        SimulationEngine engine = new SimulationEngine(50, 50, 700, 500, 2, 1, 51L);
+        engine.getTimestep().setEnabled(false);
+        Hole hole = engine.addHole(200, 300);
+        hole.setMaxAbsorbed(5);
+        for (int i = 0; i < 5; i++) {
+            hole.absorbParticle();
+        }
+        hole.setReleasingParticles(true);
+        hole.setLifetime(10.0);
+
+        for (int i = 0; i < 9; i++) {
+            engine.step();
+        }
+        assertTrue(engine.getBlackHoles().contains(hole));
+        engine.step();
+        assertFalse(engine.getBlackHoles().contains(hole));
+        assertEquals(1, engine.getHolesEvaporated());
+        assertEquals(5, engine.getParticlesReleased());
+        assertEquals(5, engine.getParticleCount());
+        assertEquals(5, engine.getChambers().get(0).size());
+        assertEquals(0, engine.getTimerWheel().size());
+    }
+}
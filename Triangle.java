@@ -35,20 +35,9 @@ public class Triangle {
     
     // Método para verificar si un punto está dentro del triángulo
     public boolean contains(int x, int y) {
-        // Implementación del algoritmo de punto en triángulo
-        // Usando el método de áreas baricéntricas
-        int x1 = xPoints[0], y1 = yPoints[0];
-        int x2 = xPoints[1], y2 = yPoints[1];
-        int x3 = xPoints[2], y3 = yPoints[2];
-        
-        // Calcular áreas
-        double ABC = Math.abs((x1 * (y2 - y3) + x2 * (y3 - y1) + x3 * (y1 - y2)) / 2.0);
-        double PBC = Math.abs((x * (y2 - y3) + x2 * (y3 - y) + x3 * (y - y2)) / 2.0);
-        double PAC = Math.abs((x1 * (y - y3) + x * (y3 - y1) + x3 * (y1 - y)) / 2.0);
-        double PAB = Math.abs((x1 * (y2 - y) + x2 * (y - y1) + x * (y1 - y2)) / 2.0);
-        
-        // Si la suma de PBC, PAC y PAB es igual a ABC, entonces el punto está dentro
-        return Math.abs(PBC + PAC + PAB - ABC) < 0.1;  // Usar un pequeño epsilon para manejar errores de punto flotante
+        // Caja envolvente y signos de productos cruzados (aritmética entera exacta)
+        return Geometry.triangleContainsPoint(xPoints[0], yPoints[0], xPoints[1], yPoints[1],
+                                              xPoints[2], yPoints[2], x, y);
     }
     
     // Mover todo el triángulo
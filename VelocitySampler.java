@@ -0,0 +1,49 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Muestreo de velocidades para partículas de masa unitaria.
+ *
+ * Los métodos asignan siempre el vector completo con setVelocity(), así que
+ * la rapidez de la partícula queda derivada del vector y no puede
+ * contradecir su movimiento real.
+ */
+public final class VelocitySampler {
+
+    private VelocitySampler() {
+    }
+
+    // Distribución de Maxwell-Boltzmann en 2D: cada componente es normal con varianza kT/m
+    public static void maxwellBoltzmann(Particle p, double temperature, RandomGenerator random) {
+        if (temperature < 0.0) {
+            throw new IllegalArgumentException("La temperatura no puede ser negativa");
+        }
+        double sigma = Math.sqrt(temperature);
+        p.setVelocity(random.nextGaussian() * sigma, random.nextGaussian() * sigma);
+    }
+
+    // Rapidez uniforme en [minSpeed, maxSpeed] con dirección aleatoria
+    public static void speedShell(Particle p, double minSpeed, double maxSpeed, RandomGenerator random) {
+        if (minSpeed < 0.0 || maxSpeed < minSpeed) {
+            throw new IllegalArgumentException("Intervalo de rapidez inválido: " + minSpeed + "-" + maxSpeed);
+        }
+        double speed = minSpeed + random.nextDouble() * (maxSpeed - minSpeed);
+        double angle = random.nextDouble() * 2 * Math.PI;
+        p.setVelocity(speed * Math.cos(angle), speed * Math.sin(angle));
+    }
+
+    // Componentes uniformes en el cuadrado [-max, max] x [-max, max]
+    public static void uniformComponents(Particle p, double maxComponent, RandomGenerator random) {
+        p.setVelocity((random.nextDouble() * 2 - 1) * maxComponent,
+                      (random.nextDouble() * 2 - 1) * maxComponent);
+    }
+
+    // Partícula rápida: rapidez claramente por encima del umbral
+    public static void fast(Particle p, double speedThreshold, RandomGenerator random) {
+        speedShell(p, speedThreshold + 2, speedThreshold + 6, random);
+    }
+
+    // Partícula lenta: rapidez claramente por debajo del umbral
+    public static void slow(Particle p, double speedThreshold, RandomGenerator random) {
+        speedShell(p, Math.min(1, speedThreshold / 2), Math.max(0, speedThreshold - 0.5), random);
+    }
+}